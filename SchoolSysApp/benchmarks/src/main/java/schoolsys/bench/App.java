@@ -0,0 +1,110 @@
+package schoolsys.bench;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+// handles to the app's classes, which live in the default package and so can't be imported here
+// (JMH needs the benchmarks in a named package). app types are seen as Object; the handles are
+// static finals, so the JIT inlines them like direct calls
+final class App {
+    static final MethodHandle POOL_FROM_PROPERTIES = staticMethod("ConnectionPool", "fromProperties",
+        "ConnectionPool", Properties.class);
+    static final MethodHandle POOL_GET_CONNECTION = virtual("ConnectionPool", "getConnection", Connection.class);
+    static final MethodHandle POOL_CLOSE = virtual("ConnectionPool", "close", void.class);
+    static final MethodHandle SEATS_FROM_PROPERTIES = staticMethod("SeatReservation", "fromProperties",
+        "SeatReservation", Properties.class);
+
+    static final MethodHandle STUDENT_ID_CACHE = staticMethod("StudentRepository", "configureIdCache",
+        void.class, int.class, long.class);
+    static final MethodHandle COURSE_ID_CACHE = staticMethod("CourseRepository", "configureIdCache",
+        void.class, int.class, long.class);
+
+    // Main: getStudentIdByEmail / getCourseIdByCode / enrollmentExists
+    static final MethodHandle FIND_STUDENT_ID = virtual("StudentRepository", "findIdByEmail",
+        int.class, Connection.class, String.class);
+    static final MethodHandle FIND_COURSE_ID = virtual("CourseRepository", "findIdByCode",
+        int.class, Connection.class, String.class);
+    static final MethodHandle ENROLLMENT_EXISTS = virtual("EnrollmentRepository", "exists",
+        boolean.class, Connection.class, int.class, int.class, String.class);
+    // Main: viewCourseRoster / viewStudentTranscript
+    static final MethodHandle FIND_ROSTER = virtual("EnrollmentRepository", "findRoster",
+        List.class, Connection.class, String.class, String.class);
+    static final MethodHandle FIND_TRANSCRIPT = virtual("EnrollmentRepository", "findTranscript",
+        List.class, Connection.class, int.class);
+    static final MethodHandle FIND_TERM_GPAS = virtual("GpaRepository", "findTerms",
+        List.class, Connection.class, int.class);
+    // Main: enrollStudentInCourse / enrollStudentInMultipleCourses
+    static final MethodHandle SEATS_ENROLL = virtual("SeatReservation", "enroll",
+        "SeatReservation$Outcome", Connection.class, int.class, int.class, String.class, String.class);
+    static final MethodHandle ENROLL_IN_COURSES = staticMethod("Main", "enrollInCourses",
+        void.class, Connection.class, int.class, String.class, String[].class, List.class, List.class, PrintStream.class);
+    // statement metrics: start(pool, props) with the pool seen as Object, wrap(stmt, type, sql), operation(name)
+    static final MethodHandle METRICS_START = staticMethod("Metrics", "start", void.class,
+        appClass("ConnectionPool"), Properties.class).asType(MethodType.methodType(void.class, Object.class, Properties.class));
+    static final MethodHandle METRICS_STOP = staticMethod("Metrics", "stop", void.class);
+    static final MethodHandle METRICS_WRAP = staticMethod("Metrics", "wrap", Statement.class, Statement.class, Class.class,
+        String.class);
+    static final MethodHandle METRICS_OPERATION = staticMethod("Metrics", "operation", "Metrics$Scope", String.class);
+
+    private App() {
+    }
+
+    static Object newInstance(String className) throws Throwable {
+        Class<?> owner = appClass(className);
+        return lookup(owner).findConstructor(owner, MethodType.methodType(void.class)).invoke();
+    }
+
+    // an instance method, with the receiver and an app return type seen as Object
+    private static MethodHandle virtual(String className, String name, Object returnType, Class<?>... params) {
+        Class<?> owner = appClass(className);
+        try {
+            MethodHandle handle = lookup(owner).findVirtual(owner, name, MethodType.methodType(type(returnType), params));
+            return handle.asType(handle.type().changeParameterType(0, Object.class).changeReturnType(visible(returnType)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("App method not found: " + className + "." + name, e);
+        }
+    }
+
+    private static MethodHandle staticMethod(String className, String name, Object returnType, Class<?>... params) {
+        Class<?> owner = appClass(className);
+        try {
+            MethodHandle handle = lookup(owner).findStatic(owner, name, MethodType.methodType(type(returnType), params));
+            return handle.asType(handle.type().changeReturnType(visible(returnType)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("App method not found: " + className + "." + name, e);
+        }
+    }
+
+    // the app's classes are package-private or have package-private members; they share the
+    // unnamed module with this class, so a private lookup is allowed
+    private static MethodHandles.Lookup lookup(Class<?> owner) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> appClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("App class not on the classpath: " + name, e);
+        }
+    }
+
+    // a return type is either a Class or the name of an app class
+    private static Class<?> type(Object spec) {
+        return spec instanceof String name ? appClass(name) : (Class<?>) spec;
+    }
+
+    private static Class<?> visible(Object spec) {
+        return spec instanceof String ? Object.class : (Class<?>) spec;
+    }
+}
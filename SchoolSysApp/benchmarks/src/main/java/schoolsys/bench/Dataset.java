@@ -0,0 +1,203 @@
+package schoolsys.bench;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.*;
+
+// the database the benchmarks run against, shared by all benchmark threads
+// it must already hold a large dataset (java Main generate --students 1000000); setup samples real
+// students, courses and enrollments from it so every lookup hits a row that exists
+@State(Scope.Benchmark)
+public class Dataset {
+    // writes go to semesters no real data uses, one section per (course, semester) holding at most
+    // WRITE_STUDENTS rows, so the capacity trigger never blocks them; removed after every iteration
+    static final int WRITE_STUDENTS = 20;
+    private static final int FIRST_WRITE_YEAR = 2100;
+    private static final int LAST_WRITE_YEAR = 9999;
+    private static final int SAMPLES = 10000;
+
+    // app.properties of the app to benchmark; the pool and cache settings in it are used as they are
+    @Param("../app.properties")
+    public String properties;
+
+    // refuse to run against a dataset too small to show anything
+    @Param("100000")
+    public int minStudents;
+
+    Properties props;
+    Object pool;
+    Object students;
+    Object courses;
+    Object enrollments;
+    Object gpa;
+    Object seats;
+
+    // one sampled enrollment per index: its student, course and semester
+    String[] emails;
+    int[] studentIds;
+    String[] courseCodes;
+    int[] courseIds;
+    String[] semesters;
+
+    int[] writeStudents;
+    int[] writeCourseIds;
+    String[] writeCourseCodes;
+    private final AtomicLong writes = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        props = new Properties();
+        try (InputStream in = new FileInputStream(properties)) {
+            props.load(in);
+        }
+        pool = App.POOL_FROM_PROPERTIES.invokeExact(props);
+        seats = App.SEATS_FROM_PROPERTIES.invokeExact(props);
+        students = App.newInstance("StudentRepository");
+        courses = App.newInstance("CourseRepository");
+        enrollments = App.newInstance("EnrollmentRepository");
+        gpa = App.newInstance("GpaRepository");
+        configureIdCaches(true);
+
+        try (Connection conn = connection()) {
+            long count = count(conn, "SELECT COUNT(*) FROM Student");
+            if (count < minStudents) {
+                throw new IllegalStateException("Only " + count + " students in the database; load a large dataset first: " +
+                    "java Main generate --students " + minStudents + " (or lower -p minStudents)");
+            }
+            sample(conn);
+            pickWriteTargets(conn);
+            removeWrites(conn);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeWrites() throws Throwable {
+        try (Connection conn = connection()) {
+            removeWrites(conn);
+        }
+        writes.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Throwable {
+        App.POOL_CLOSE.invokeExact(pool);
+    }
+
+    Connection connection() throws Throwable {
+        return (Connection) App.POOL_GET_CONNECTION.invokeExact(pool);
+    }
+
+    // the lookup caches as configured in app.properties, or off so every lookup reaches the database
+    void configureIdCaches(boolean on) throws Throwable {
+        int maxSize = on ? Integer.parseInt(props.getProperty("lookup.cache.maxSize", "10000").trim()) : 0;
+        long ttlMs = on ? Long.parseLong(props.getProperty("lookup.cache.ttlMs", "300000").trim()) : 0;
+        App.STUDENT_ID_CACHE.invokeExact(maxSize, ttlMs);
+        App.COURSE_ID_CACHE.invokeExact(maxSize, ttlMs);
+    }
+
+    // a random sampled enrollment
+    int next() {
+        return ThreadLocalRandom.current().nextInt(emails.length);
+    }
+
+    // the next free (student, semester) slot for a write; every slot is used once per iteration
+    long nextWrite() {
+        return writes.getAndIncrement();
+    }
+
+    static String writeSemester(long write) {
+        long year = FIRST_WRITE_YEAR + (write / WRITE_STUDENTS) % (LAST_WRITE_YEAR - FIRST_WRITE_YEAR + 1);
+        return "Winter " + year;
+    }
+
+    // enrollments picked by jumping to random student ids, which is cheap on any table size
+    // (ORDER BY RAND() would sort the whole table)
+    private void sample(Connection conn) throws SQLException {
+        long[] range = new long[2];
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(student_id), MAX(student_id) FROM Enrollment")) {
+            rs.next();
+            range[0] = rs.getLong(1);
+            range[1] = rs.getLong(2);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        String sql = "SELECT s.email, e.student_id, c.course_code, e.course_id, e.semester " +
+            "FROM Enrollment e JOIN Student s ON s.student_id = e.student_id JOIN Course c ON c.course_id = e.course_id " +
+            "WHERE e.student_id >= ? ORDER BY e.student_id LIMIT 1";
+        Random random = new Random(42);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < SAMPLES; i++) {
+                pstmt.setLong(1, range[0] + (long) (random.nextDouble() * (range[1] - range[0] + 1)));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        rows.add(new Object[] {rs.getString(1), rs.getInt(2), rs.getString(3), rs.getInt(4), rs.getString(5)});
+                    }
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("No enrollments to sample");
+        }
+        emails = new String[rows.size()];
+        studentIds = new int[rows.size()];
+        courseCodes = new String[rows.size()];
+        courseIds = new int[rows.size()];
+        semesters = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            emails[i] = (String) row[0];
+            studentIds[i] = (Integer) row[1];
+            courseCodes[i] = (String) row[2];
+            courseIds[i] = (Integer) row[3];
+            semesters[i] = (String) row[4];
+        }
+    }
+
+    // the write benchmarks enroll WRITE_STUDENTS sampled students into the three largest-room courses
+    private void pickWriteTargets(Connection conn) throws SQLException {
+        writeStudents = Arrays.stream(studentIds).distinct().limit(WRITE_STUDENTS).toArray();
+        if (writeStudents.length < WRITE_STUDENTS) {
+            throw new IllegalStateException("Need at least " + WRITE_STUDENTS + " distinct students");
+        }
+        List<Integer> ids = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        String sql = "SELECT c.course_id, c.course_code FROM Course c JOIN Classroom cl ON cl.classroom_id = c.classroom_id " +
+            "WHERE cl.capacity >= ? ORDER BY cl.capacity DESC, c.course_id LIMIT 3";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, WRITE_STUDENTS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                    codes.add(rs.getString(2));
+                }
+            }
+        }
+        if (ids.size() < 3) {
+            throw new IllegalStateException("Need three courses with rooms of at least " + WRITE_STUDENTS + " seats");
+        }
+        writeCourseIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        writeCourseCodes = codes.toArray(new String[0]);
+    }
+
+    // transcript rows cascade from Enrollment; the triggers leave zeroed counters and GPA totals behind
+    private static void removeWrites(Connection conn) throws SQLException {
+        String range = " WHERE semester BETWEEN 'Winter " + FIRST_WRITE_YEAR + "' AND 'Winter " + LAST_WRITE_YEAR + "'";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM Enrollment" + range);
+            stmt.executeUpdate("DELETE FROM SectionEnrollmentCount" + range);
+            stmt.executeUpdate("DELETE FROM StudentTermGpa" + range);
+        }
+    }
+
+    private static long count(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package schoolsys.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// the write paths of the console menu, committed like the app commits them
+// each call takes a fresh (student, semester) slot from Dataset, so no call is a duplicate and no
+// section fills up; the rows are deleted between iterations
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class EnrollmentBenchmarks {
+    // the console output of enrollInCourses, thrown away
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    // Main.enrollStudentInCourse: the seat reservation transaction (section lock, insert, triggers, commit)
+    @Benchmark
+    public Object enrollSingle(Dataset data) throws Throwable {
+        long write = data.nextWrite();
+        try (Connection conn = data.connection()) {
+            return App.SEATS_ENROLL.invokeExact(data.seats, conn,
+                data.writeStudents[(int) (write % Dataset.WRITE_STUDENTS)], data.writeCourseIds[0],
+                Dataset.writeSemester(write), (String) null);
+        }
+    }
+
+    // Main.enrollStudentInMultipleCourses: three courses in one transaction, committed if all succeed
+    @Benchmark
+    public int enrollMultiple(Dataset data) throws Throwable {
+        long write = data.nextWrite();
+        List<String> enrolled = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        try (Connection conn = data.connection()) {
+            conn.setAutoCommit(false);
+            try {
+                App.ENROLL_IN_COURSES.invokeExact(conn, data.writeStudents[(int) (write % Dataset.WRITE_STUDENTS)],
+                    Dataset.writeSemester(write), data.writeCourseCodes.clone(), enrolled, failed, DISCARD);
+                if (failed.isEmpty()) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return enrolled.size();
+    }
+}
@@ -0,0 +1,58 @@
+package schoolsys.bench;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// the cost Metrics adds to one statement call, without a database: the same call on a stand-in
+// statement that returns at once, bare and wrapped the way a pooled connection wraps it while
+// metrics are on (operation scope, wrapper, timed execute). the difference must stay under 1 us
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Statements {
+        // a proxy like the statement cache's handle, so both sides pay for one reflective layer
+        PreparedStatement stub;
+
+        @Setup(Level.Trial)
+        public void setup() throws Throwable {
+            stub = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> method.getName().equals("executeUpdate") ? 1 : null);
+            Properties props = new Properties();
+            props.setProperty("metrics.port", "0");
+            props.setProperty("metrics.logIntervalSec", "0");
+            App.METRICS_START.invokeExact((Object) null, props);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws Throwable {
+            App.METRICS_STOP.invokeExact();
+        }
+    }
+
+    @Benchmark
+    public int bare(Statements s) throws Throwable {
+        s.stub.setInt(1, 42);
+        return s.stub.executeUpdate();
+    }
+
+    @Benchmark
+    @SuppressWarnings("try")
+    public int metered(Statements s) throws Throwable {
+        try (AutoCloseable op = (AutoCloseable) (Object) App.METRICS_OPERATION.invokeExact("benchmark")) {
+            PreparedStatement stmt = (PreparedStatement) (Statement) App.METRICS_WRAP.invokeExact((Statement) s.stub,
+                (Class<?>) PreparedStatement.class, "UPDATE Course SET capacity = capacity WHERE course_id = ?");
+            stmt.setInt(1, 42);
+            return stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package schoolsys.bench;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// the read paths of the console menu, each with a random sampled student / course / enrollment per call
+// every call borrows a pooled connection like a menu action does, so the borrow is part of the cost
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class QueryBenchmarks {
+
+    // the email / course code lookups with the id caches on (as configured) and off (always a query)
+    @State(Scope.Benchmark)
+    public static class IdCache {
+        @Param({"off", "on"})
+        public String idCache;
+
+        @Setup(Level.Trial)
+        public void configure(Dataset data) throws Throwable {
+            data.configureIdCaches(idCache.equals("on"));
+        }
+    }
+
+    // Main.getStudentIdByEmail
+    @Benchmark
+    public int studentIdByEmail(Dataset data, IdCache cache) throws Throwable {
+        try (Connection conn = data.connection()) {
+            return (int) App.FIND_STUDENT_ID.invokeExact(data.students, conn, data.emails[data.next()]);
+        }
+    }
+
+    // Main.getCourseIdByCode
+    @Benchmark
+    public int courseIdByCode(Dataset data, IdCache cache) throws Throwable {
+        try (Connection conn = data.connection()) {
+            return (int) App.FIND_COURSE_ID.invokeExact(data.courses, conn, data.courseCodes[data.next()]);
+        }
+    }
+
+    // Main.enrollmentExists, for an enrollment that exists
+    @Benchmark
+    public boolean enrollmentExists(Dataset data) throws Throwable {
+        int i = data.next();
+        try (Connection conn = data.connection()) {
+            return (boolean) App.ENROLLMENT_EXISTS.invokeExact(data.enrollments, conn,
+                data.studentIds[i], data.courseIds[i], data.semesters[i]);
+        }
+    }
+
+    // Main.viewCourseRoster: one section's students
+    @Benchmark
+    public List<?> courseRoster(Dataset data) throws Throwable {
+        int i = data.next();
+        try (Connection conn = data.connection()) {
+            return (List<?>) App.FIND_ROSTER.invokeExact(data.enrollments, conn, data.courseCodes[i], data.semesters[i]);
+        }
+    }
+
+    // Main.viewStudentTranscript: id lookup, transcript rows and the term GPA table
+    @Benchmark
+    public List<?> studentTranscript(Dataset data) throws Throwable {
+        try (Connection conn = data.connection()) {
+            int studentId = (int) App.FIND_STUDENT_ID.invokeExact(data.students, conn, data.emails[data.next()]);
+            List<?> rows = (List<?>) App.FIND_TRANSCRIPT.invokeExact(data.enrollments, conn, studentId);
+            if (rows.isEmpty()) {
+                return rows;
+            }
+            return (List<?>) App.FIND_TERM_GPAS.invokeExact(data.gpa, conn, studentId);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+-- V3: running enrollment count per section for the capacity check
+-- applied by: java Main migrate
+-- replaces the baseline's trg_enrollment_capacity, which counted the section's enrollments on every
+-- insert, and the count in sp_enroll_student_in_course; the existing enrollments are counted in here
+-- running enrollment count per section (course + semester)
+-- kept up to date by the triggers below so the capacity check doesn't have to COUNT(*) the section
+CREATE TABLE SectionEnrollmentCount (
+  course_id INT NOT NULL,
+  semester VARCHAR(20) NOT NULL,
+  enrolled INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (course_id, semester),
+  CONSTRAINT fk_section_course FOREIGN KEY (course_id) REFERENCES Course(course_id) ON UPDATE CASCADE ON DELETE CASCADE,
+  CHECK (enrolled >= 0)
+) ENGINE = InnoDB;
+-- count the existing enrollments first, so the new capacity trigger starts from real counts
+INSERT INTO SectionEnrollmentCount (course_id, semester, enrolled)
+SELECT *
+FROM (
+    SELECT course_id,
+      semester,
+      COUNT(*) AS n
+    FROM Enrollment
+    GROUP BY course_id,
+      semester
+  ) AS counted ON DUPLICATE KEY
+UPDATE enrolled = n;
+DROP TRIGGER IF EXISTS trg_enrollment_capacity;
+-- trigger to prevent enrolling more students than classroom capacity
+-- takes a seat with one conditional UPDATE on the section counter; the row lock on the counter
+-- makes concurrent inserts into the same section wait for each other, so they can't both pass
+DELIMITER $$ CREATE TRIGGER trg_enrollment_capacity BEFORE
+INSERT ON Enrollment FOR EACH ROW BEGIN
+-- make sure the section has a counter row
+INSERT INTO SectionEnrollmentCount (course_id, semester, enrolled)
+VALUES (NEW.course_id, NEW.semester, 0) ON DUPLICATE KEY
+UPDATE enrolled = enrolled;
+-- take a seat only if one is free
+UPDATE SectionEnrollmentCount sec
+  JOIN Course c ON c.course_id = sec.course_id
+  JOIN Classroom cl ON cl.classroom_id = c.classroom_id
+SET sec.enrolled = sec.enrolled + 1
+WHERE sec.course_id = NEW.course_id
+  AND sec.semester = NEW.semester
+  AND sec.enrolled < cl.capacity;
+-- if no row was updated the section is full, block the enrollment
+IF ROW_COUNT() = 0 THEN SIGNAL SQLSTATE '45000'
+SET MESSAGE_TEXT = 'Enrollment blocked: classroom capacity exceeded';
+END IF;
+END $$ DELIMITER;
+-- give the seat back when an enrollment is dropped
+DELIMITER $$ CREATE TRIGGER trg_enrollment_release AFTER DELETE ON Enrollment FOR EACH ROW BEGIN
+UPDATE SectionEnrollmentCount
+SET enrolled = enrolled - 1
+WHERE course_id = OLD.course_id
+  AND semester = OLD.semester;
+END $$ DELIMITER;
+-- move the seat when an UPDATE statement moves an enrollment to another section
+-- (a course_id change on Course reaches Enrollment and SectionEnrollmentCount through their own
+-- ON UPDATE CASCADE foreign keys, and cascades don't fire triggers, so the counts move with it)
+-- the new seat is taken the same way trg_enrollment_capacity takes one, so a move into a full
+-- section is blocked
+DELIMITER $$ CREATE TRIGGER trg_enrollment_move BEFORE
+UPDATE ON Enrollment FOR EACH ROW BEGIN IF NEW.course_id <> OLD.course_id
+  OR NEW.semester <> OLD.semester THEN
+INSERT INTO SectionEnrollmentCount (course_id, semester, enrolled)
+VALUES (NEW.course_id, NEW.semester, 0) ON DUPLICATE KEY
+UPDATE enrolled = enrolled;
+UPDATE SectionEnrollmentCount sec
+  JOIN Course c ON c.course_id = sec.course_id
+  JOIN Classroom cl ON cl.classroom_id = c.classroom_id
+SET sec.enrolled = sec.enrolled + 1
+WHERE sec.course_id = NEW.course_id
+  AND sec.semester = NEW.semester
+  AND sec.enrolled < cl.capacity;
+IF ROW_COUNT() = 0 THEN SIGNAL SQLSTATE '45000'
+SET MESSAGE_TEXT = 'Enrollment blocked: classroom capacity exceeded';
+END IF;
+UPDATE SectionEnrollmentCount
+SET enrolled = enrolled - 1
+WHERE course_id = OLD.course_id
+  AND semester = OLD.semester;
+END IF;
+END $$ DELIMITER;
+-- deleting a student removes their enrollments through ON DELETE CASCADE, which does not fire
+-- the Enrollment triggers, so release their seats here first
+DELIMITER $$ CREATE TRIGGER trg_student_release_seats BEFORE DELETE ON Student FOR EACH ROW BEGIN
+UPDATE SectionEnrollmentCount sec
+  JOIN (
+    SELECT course_id,
+      semester,
+      COUNT(*) AS n
+    FROM Enrollment
+    WHERE student_id = OLD.student_id
+    GROUP BY course_id,
+      semester
+  ) e ON e.course_id = sec.course_id
+  AND e.semester = sec.semester
+SET sec.enrolled = sec.enrolled - e.n;
+END $$ DELIMITER;
+DROP PROCEDURE IF EXISTS sp_enroll_student_in_course;
+-- stored procedure to enroll a student in a course
+-- checks if student/course exist, checks for duplicates, checks capacity, then enrolls
+DELIMITER $$ CREATE PROCEDURE sp_enroll_student_in_course(
+  IN p_student_id INT,
+  IN p_course_id INT,
+  IN p_semester VARCHAR(20),
+  IN p_grade CHAR(2),
+  OUT p_status VARCHAR(200),
+  OUT p_success BOOLEAN
+) BEGIN
+DECLARE v_student_exists INT DEFAULT 0;
+DECLARE v_course_exists INT DEFAULT 0;
+DECLARE v_duplicate_exists INT DEFAULT 0;
+DECLARE v_classroom_id INT;
+DECLARE v_capacity SMALLINT;
+DECLARE v_current_enrolled INT DEFAULT 0;
+-- set default values
+SET p_success = FALSE;
+SET p_status = '';
+-- check if student exists
+SELECT COUNT(*) INTO v_student_exists
+FROM Student
+WHERE student_id = p_student_id;
+IF v_student_exists = 0 THEN
+SET p_status = 'Error: Student not found';
+SET p_success = FALSE;
+ELSE -- check if course exists
+SELECT COUNT(*) INTO v_course_exists
+FROM Course
+WHERE course_id = p_course_id;
+IF v_course_exists = 0 THEN
+SET p_status = 'Error: Course not found';
+SET p_success = FALSE;
+ELSE -- check if already enrolled
+SELECT COUNT(*) INTO v_duplicate_exists
+FROM Enrollment
+WHERE student_id = p_student_id
+  AND course_id = p_course_id
+  AND semester = p_semester;
+IF v_duplicate_exists > 0 THEN
+SET p_status = 'Error: Student is already enrolled in this course for this semester';
+SET p_success = FALSE;
+ELSE -- check classroom capacity
+SELECT classroom_id INTO v_classroom_id
+FROM Course
+WHERE course_id = p_course_id;
+SELECT capacity INTO v_capacity
+FROM Classroom
+WHERE classroom_id = v_classroom_id;
+SELECT enrolled INTO v_current_enrolled
+FROM SectionEnrollmentCount
+WHERE course_id = p_course_id
+  AND semester = p_semester;
+IF v_current_enrolled >= v_capacity THEN
+SET p_status = CONCAT(
+    'Error: Classroom capacity exceeded (',
+    v_capacity,
+    ' students)'
+  );
+SET p_success = FALSE;
+ELSE -- check grade format if grade was provided
+IF p_grade IS NOT NULL
+AND p_grade NOT IN (
+  'A',
+  'A-',
+  'B+',
+  'B',
+  'B-',
+  'C+',
+  'C',
+  'C-',
+  'D',
+  'F'
+) THEN
+SET p_status = 'Error: Invalid grade format';
+SET p_success = FALSE;
+ELSE -- everything looks good, insert the enrollment
+INSERT INTO Enrollment (student_id, course_id, semester, grade)
+VALUES (p_student_id, p_course_id, p_semester, p_grade);
+SET p_status = 'Student enrolled successfully';
+SET p_success = TRUE;
+END IF;
+END IF;
+END IF;
+END IF;
+END IF;
+END $$ DELIMITER;
+-- count again: enrollments made while the triggers were being replaced were taken against the old
+-- trigger and are not in the counters yet (the triggers keep them current from here on)
+INSERT INTO SectionEnrollmentCount (course_id, semester, enrolled)
+SELECT *
+FROM (
+    SELECT course_id,
+      semester,
+      COUNT(*) AS n
+    FROM Enrollment
+    GROUP BY course_id,
+      semester
+  ) AS counted ON DUPLICATE KEY
+UPDATE enrolled = n;
+-- check the section counters match the real enrollment counts (should return no rows)
+-- SELECT e.course_id, e.semester, COUNT(*) AS actual, sec.enrolled
+-- FROM Enrollment e
+--   LEFT JOIN SectionEnrollmentCount sec ON sec.course_id = e.course_id AND sec.semester = e.semester
+-- GROUP BY e.course_id, e.semester, sec.enrolled
+-- HAVING sec.enrolled IS NULL OR sec.enrolled <> COUNT(*);
@@ -0,0 +1,152 @@
+-- V4: materialized transcripts (see "Materialized transcripts" in the README)
+-- applied by: java Main migrate
+-- materialized transcript: one row per enrollment with the student, course and instructor columns
+-- copied in, clustered by (student_id, semester, course_code) so a transcript is one primary key range
+-- scan with no join or sort. Kept in step with the triggers below; deletes (including cascaded student
+-- and course deletes) and enrollment key changes follow the foreign key to Enrollment.
+-- java Main transcripts check|rebuild verifies or rebuilds it from student_transcript_view
+CREATE TABLE TranscriptEntry (
+  student_id INT NOT NULL,
+  semester VARCHAR(20) NOT NULL,
+  course_code VARCHAR(20) NOT NULL,
+  course_id INT NOT NULL,
+  email VARCHAR(100) NOT NULL,
+  course_name VARCHAR(100) NOT NULL,
+  credits TINYINT NOT NULL,
+  grade CHAR(2) NULL,
+  instructor_id INT NOT NULL,
+  instructor_first_name VARCHAR(50) NOT NULL,
+  instructor_last_name VARCHAR(50) NOT NULL,
+  PRIMARY KEY (student_id, semester, course_code),
+  UNIQUE KEY uq_transcript_enrollment (student_id, course_id, semester),
+  KEY idx_transcript_course (course_id),
+  KEY idx_transcript_instructor (instructor_id),
+  CONSTRAINT fk_transcript_enrollment FOREIGN KEY (student_id, course_id, semester) REFERENCES Enrollment(student_id, course_id, semester) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE = InnoDB;
+-- copy a new enrollment into the transcript
+DELIMITER $$ CREATE TRIGGER trg_transcript_insert
+AFTER
+INSERT ON Enrollment FOR EACH ROW BEGIN
+INSERT INTO TranscriptEntry (
+    student_id,
+    semester,
+    course_code,
+    course_id,
+    email,
+    course_name,
+    credits,
+    grade,
+    instructor_id,
+    instructor_first_name,
+    instructor_last_name
+  )
+SELECT s.student_id,
+  NEW.semester,
+  c.course_code,
+  c.course_id,
+  s.email,
+  c.course_name,
+  c.credits,
+  NEW.grade,
+  i.instructor_id,
+  i.first_name,
+  i.last_name
+FROM Student s
+  JOIN Course c ON c.course_id = NEW.course_id
+  JOIN Instructor i ON i.instructor_id = c.instructor_id
+WHERE s.student_id = NEW.student_id;
+END $$ DELIMITER;
+-- grade changes; if the enrollment moved to another course the key already followed the
+-- foreign key, so only the copied course columns need refreshing
+DELIMITER $$ CREATE TRIGGER trg_transcript_update
+AFTER
+UPDATE ON Enrollment FOR EACH ROW BEGIN IF NEW.course_id <> OLD.course_id THEN
+UPDATE TranscriptEntry t
+  JOIN Course c ON c.course_id = NEW.course_id
+  JOIN Instructor i ON i.instructor_id = c.instructor_id
+SET t.course_code = c.course_code,
+  t.course_name = c.course_name,
+  t.credits = c.credits,
+  t.grade = NEW.grade,
+  t.instructor_id = i.instructor_id,
+  t.instructor_first_name = i.first_name,
+  t.instructor_last_name = i.last_name
+WHERE t.student_id = NEW.student_id
+  AND t.course_id = NEW.course_id
+  AND t.semester = NEW.semester;
+ELSEIF NOT (NEW.grade <=> OLD.grade) THEN
+UPDATE TranscriptEntry
+SET grade = NEW.grade
+WHERE student_id = NEW.student_id
+  AND course_id = NEW.course_id
+  AND semester = NEW.semester;
+END IF;
+END $$ DELIMITER;
+-- course code, name, credits or instructor changed
+DELIMITER $$ CREATE TRIGGER trg_transcript_course
+AFTER
+UPDATE ON Course FOR EACH ROW BEGIN IF NEW.course_code <> OLD.course_code
+  OR NEW.course_name <> OLD.course_name
+  OR NEW.credits <> OLD.credits
+  OR NEW.instructor_id <> OLD.instructor_id THEN
+UPDATE TranscriptEntry t
+  JOIN Instructor i ON i.instructor_id = NEW.instructor_id
+SET t.course_code = NEW.course_code,
+  t.course_name = NEW.course_name,
+  t.credits = NEW.credits,
+  t.instructor_id = i.instructor_id,
+  t.instructor_first_name = i.first_name,
+  t.instructor_last_name = i.last_name
+WHERE t.course_id = NEW.course_id;
+END IF;
+END $$ DELIMITER;
+-- instructor renamed
+DELIMITER $$ CREATE TRIGGER trg_transcript_instructor
+AFTER
+UPDATE ON Instructor FOR EACH ROW BEGIN IF NEW.first_name <> OLD.first_name
+  OR NEW.last_name <> OLD.last_name THEN
+UPDATE TranscriptEntry
+SET instructor_first_name = NEW.first_name,
+  instructor_last_name = NEW.last_name
+WHERE instructor_id = NEW.instructor_id;
+END IF;
+END $$ DELIMITER;
+-- student email changed
+DELIMITER $$ CREATE TRIGGER trg_transcript_student
+AFTER
+UPDATE ON Student FOR EACH ROW BEGIN IF NEW.email <> OLD.email THEN
+UPDATE TranscriptEntry
+SET email = NEW.email
+WHERE student_id = NEW.student_id;
+END IF;
+END $$ DELIMITER;
+-- copy in the enrollments that existed before the triggers; rows the triggers have already written
+-- are newer and are kept
+INSERT IGNORE INTO TranscriptEntry (
+    student_id,
+    semester,
+    course_code,
+    course_id,
+    email,
+    course_name,
+    credits,
+    grade,
+    instructor_id,
+    instructor_first_name,
+    instructor_last_name
+  )
+SELECT e.student_id,
+  e.semester,
+  c.course_code,
+  c.course_id,
+  s.email,
+  c.course_name,
+  c.credits,
+  e.grade,
+  i.instructor_id,
+  i.first_name,
+  i.last_name
+FROM Enrollment e
+  JOIN Student s ON s.student_id = e.student_id
+  JOIN Course c ON c.course_id = e.course_id
+  JOIN Instructor i ON i.instructor_id = c.instructor_id;
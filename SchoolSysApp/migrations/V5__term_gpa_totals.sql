@@ -0,0 +1,192 @@
+-- V5: running GPA totals per student and semester (see "GPA and dean's list" in the README)
+-- applied by: java Main migrate
+-- grade points for each grade the Enrollment CHECK allows; D earns credit, F does not
+CREATE TABLE GradePoint (
+  grade CHAR(2) PRIMARY KEY,
+  points DECIMAL(2, 1) NOT NULL,
+  earns_credit BOOLEAN NOT NULL
+) ENGINE = InnoDB;
+INSERT INTO GradePoint (grade, points, earns_credit)
+VALUES ('A', 4.0, TRUE),
+  ('A-', 3.7, TRUE),
+  ('B+', 3.3, TRUE),
+  ('B', 3.0, TRUE),
+  ('B-', 2.7, TRUE),
+  ('C+', 2.3, TRUE),
+  ('C', 2.0, TRUE),
+  ('C-', 1.7, TRUE),
+  ('D', 1.0, TRUE),
+  ('F', 0.0, FALSE);
+-- running GPA totals per student and semester, kept up to date by the triggers below
+-- term GPA = quality_points / graded_credits; cumulative GPA sums a student's rows (a primary key range)
+-- enrolled_credits counts every enrollment, graded_credits only those with a grade (NULL = in progress)
+-- java Main gpa check|rebuild verifies or rebuilds it from Enrollment
+CREATE TABLE StudentTermGpa (
+  student_id INT NOT NULL,
+  semester VARCHAR(20) NOT NULL,
+  enrolled_credits INT NOT NULL DEFAULT 0,
+  graded_credits INT NOT NULL DEFAULT 0,
+  earned_credits INT NOT NULL DEFAULT 0,
+  quality_points DECIMAL(8, 1) NOT NULL DEFAULT 0,
+  PRIMARY KEY (student_id, semester),
+  KEY idx_term_gpa_semester (semester),
+  CONSTRAINT fk_term_gpa_student FOREIGN KEY (student_id) REFERENCES Student(student_id) ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE = InnoDB;
+-- add (p_sign = 1) or take back (p_sign = -1) one enrollment's credits and quality points
+DELIMITER $$ CREATE PROCEDURE sp_gpa_apply(
+  IN p_student_id INT,
+  IN p_course_id INT,
+  IN p_semester VARCHAR(20),
+  IN p_grade CHAR(2),
+  IN p_sign INT
+) BEGIN
+DECLARE v_credits INT DEFAULT 0;
+DECLARE v_points DECIMAL(2, 1) DEFAULT NULL;
+DECLARE v_earns BOOLEAN DEFAULT FALSE;
+SELECT credits INTO v_credits
+FROM Course
+WHERE course_id = p_course_id;
+IF p_grade IS NOT NULL THEN
+SELECT points,
+  earns_credit INTO v_points,
+  v_earns
+FROM GradePoint
+WHERE grade = p_grade;
+END IF;
+INSERT INTO StudentTermGpa (
+    student_id,
+    semester,
+    enrolled_credits,
+    graded_credits,
+    earned_credits,
+    quality_points
+  )
+VALUES (
+    p_student_id,
+    p_semester,
+    p_sign * v_credits,
+    IF(v_points IS NULL, 0, p_sign * v_credits),
+    IF(v_earns, p_sign * v_credits, 0),
+    p_sign * IFNULL(v_points * v_credits, 0)
+  ) ON DUPLICATE KEY
+UPDATE enrolled_credits = enrolled_credits + p_sign * v_credits,
+  graded_credits = graded_credits + IF(v_points IS NULL, 0, p_sign * v_credits),
+  earned_credits = earned_credits + IF(v_earns, p_sign * v_credits, 0),
+  quality_points = quality_points + p_sign * IFNULL(v_points * v_credits, 0);
+END $$ DELIMITER;
+DELIMITER $$ CREATE TRIGGER trg_gpa_insert
+AFTER
+INSERT ON Enrollment FOR EACH ROW BEGIN CALL sp_gpa_apply(
+    NEW.student_id,
+    NEW.course_id,
+    NEW.semester,
+    NEW.grade,
+    1
+  );
+END $$ DELIMITER;
+DELIMITER $$ CREATE TRIGGER trg_gpa_delete
+AFTER DELETE ON Enrollment FOR EACH ROW BEGIN CALL sp_gpa_apply(
+    OLD.student_id,
+    OLD.course_id,
+    OLD.semester,
+    OLD.grade,
+    -1
+  );
+END $$ DELIMITER;
+-- grade change or move to another course/semester: take the old contribution back, add the new one
+DELIMITER $$ CREATE TRIGGER trg_gpa_update
+AFTER
+UPDATE ON Enrollment FOR EACH ROW BEGIN IF NOT (NEW.grade <=> OLD.grade)
+  OR NEW.course_id <> OLD.course_id
+  OR NEW.semester <> OLD.semester THEN CALL sp_gpa_apply(
+    OLD.student_id,
+    OLD.course_id,
+    OLD.semester,
+    OLD.grade,
+    -1
+  );
+CALL sp_gpa_apply(
+  NEW.student_id,
+  NEW.course_id,
+  NEW.semester,
+  NEW.grade,
+  1
+);
+END IF;
+END $$ DELIMITER;
+-- course credits changed: scale every affected student's totals by the difference
+DELIMITER $$ CREATE TRIGGER trg_gpa_course_credits
+AFTER
+UPDATE ON Course FOR EACH ROW BEGIN IF NEW.credits <> OLD.credits THEN
+UPDATE StudentTermGpa t
+  JOIN (
+    SELECT e.student_id,
+      e.semester,
+      COUNT(*) AS enrolled,
+      SUM(g.grade IS NOT NULL) AS graded,
+      SUM(IFNULL(g.earns_credit, FALSE)) AS earned,
+      SUM(IFNULL(g.points, 0)) AS points
+    FROM Enrollment e
+      LEFT JOIN GradePoint g ON g.grade = e.grade
+    WHERE e.course_id = NEW.course_id
+    GROUP BY e.student_id,
+      e.semester
+  ) d ON d.student_id = t.student_id
+  AND d.semester = t.semester
+SET t.enrolled_credits = t.enrolled_credits + d.enrolled * (NEW.credits - OLD.credits),
+  t.graded_credits = t.graded_credits + d.graded * (NEW.credits - OLD.credits),
+  t.earned_credits = t.earned_credits + d.earned * (NEW.credits - OLD.credits),
+  t.quality_points = t.quality_points + d.points * (NEW.credits - OLD.credits);
+END IF;
+END $$ DELIMITER;
+-- deleting a course removes its enrollments through ON DELETE CASCADE, which does not fire the
+-- Enrollment triggers, so take their credits back here first (student deletes cascade to StudentTermGpa)
+DELIMITER $$ CREATE TRIGGER trg_gpa_course_delete BEFORE DELETE ON Course FOR EACH ROW BEGIN
+UPDATE StudentTermGpa t
+  JOIN (
+    SELECT e.student_id,
+      e.semester,
+      COUNT(*) AS enrolled,
+      SUM(g.grade IS NOT NULL) AS graded,
+      SUM(IFNULL(g.earns_credit, FALSE)) AS earned,
+      SUM(IFNULL(g.points, 0)) AS points
+    FROM Enrollment e
+      LEFT JOIN GradePoint g ON g.grade = e.grade
+    WHERE e.course_id = OLD.course_id
+    GROUP BY e.student_id,
+      e.semester
+  ) d ON d.student_id = t.student_id
+  AND d.semester = t.semester
+SET t.enrolled_credits = t.enrolled_credits - d.enrolled * OLD.credits,
+  t.graded_credits = t.graded_credits - d.graded * OLD.credits,
+  t.earned_credits = t.earned_credits - d.earned * OLD.credits,
+  t.quality_points = t.quality_points - d.points * OLD.credits;
+END $$ DELIMITER;
+-- total up the existing enrollments; the triggers are already in place, so this overwrites whatever
+-- they wrote for enrollments changed meanwhile with the full totals (the same query as gpa rebuild)
+INSERT INTO StudentTermGpa (
+    student_id,
+    semester,
+    enrolled_credits,
+    graded_credits,
+    earned_credits,
+    quality_points
+  )
+SELECT *
+FROM (
+    SELECT e.student_id,
+      e.semester,
+      SUM(c.credits) AS enrolled,
+      SUM(IF(g.grade IS NULL, 0, c.credits)) AS graded,
+      SUM(IF(g.earns_credit, c.credits, 0)) AS earned,
+      SUM(IFNULL(g.points * c.credits, 0)) AS points
+    FROM Enrollment e
+      JOIN Course c ON c.course_id = e.course_id
+      LEFT JOIN GradePoint g ON g.grade = e.grade
+    GROUP BY e.student_id,
+      e.semester
+  ) AS totals ON DUPLICATE KEY
+UPDATE enrolled_credits = enrolled,
+  graded_credits = graded,
+  earned_credits = earned,
+  quality_points = points;
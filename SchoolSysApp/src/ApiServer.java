@@ -0,0 +1,449 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// HTTP JSON API over the same operations as the console menu (java Main serve --port 8080)
+// built on the JDK's com.sun.net.httpserver; every request runs on its own virtual thread
+// and borrows a pooled connection only for the duration of the request
+public class ApiServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final StudentRepository STUDENTS = new StudentRepository();
+    private static final CourseRepository COURSES = new CourseRepository();
+    private static final EnrollmentRepository ENROLLMENTS = new EnrollmentRepository();
+    private static final GpaRepository GPA = new GpaRepository();
+
+    private final ConnectionPool pool;
+    private final SeatReservation seats;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ApiServer(ConnectionPool pool, SeatReservation seats, int port, int backlog) throws IOException {
+        this.pool = pool;
+        this.seats = seats;
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+
+        route("/api/health", "GET", (ex, conn) -> health());
+        route("/api/student", "GET", (ex, conn) -> student(conn, query(ex)));
+        route("/api/roster", "GET", (ex, conn) -> roster(conn, query(ex)));
+        route("/api/transcript", "GET", (ex, conn) -> transcript(conn, query(ex)));
+        route("/api/search", "GET", (ex, conn) -> search(query(ex)));
+        route("/api/enroll", "POST", (ex, conn) -> enroll(conn, body(ex)));
+        route("/api/enroll/multi", "POST", (ex, conn) -> enrollMultiple(conn, body(ex)));
+        route("/api/grade", "POST", (ex, conn) -> updateGrade(conn, body(ex)));
+        route("/api/drop", "POST", (ex, conn) -> drop(conn, body(ex)));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("API server listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    // request plumbing
+
+    private interface Handler {
+        Response handle(HttpExchange exchange, Connection conn) throws SQLException, IOException;
+    }
+
+    private record Response(int status, Object body) {
+    }
+
+    // a request that can't be served, with the HTTP status to send back
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void route(String path, String method, Handler handler) {
+        String operation = method + " " + path;
+        server.createContext(path, exchange -> {
+            Response response;
+            try (Metrics.Scope op = Metrics.operation(operation)) {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    response = error(404, "Not found");
+                } else if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    response = error(405, "Use " + method);
+                } else if (path.equals("/api/health") || path.equals("/api/search")) {
+                    response = handler.handle(exchange, null);
+                } else {
+                    try (Connection conn = pool.getConnection()) {
+                        response = handler.handle(exchange, conn);
+                    }
+                }
+            } catch (ApiException e) {
+                response = error(e.status, e.getMessage());
+            } catch (SQLTransientConnectionException e) {
+                exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+                response = error(503, e.getMessage());
+            } catch (SQLException e) {
+                if (SeatReservation.isRetryable(e)) {
+                    // deadlock or lock wait timeout that outlasted the retries: busy, not broken
+                    exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+                    response = error(503, "Database busy, try again: " + e.getMessage());
+                } else {
+                    response = error(500, "Database error: " + e.getMessage());
+                }
+            } catch (IllegalArgumentException e) {
+                response = error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                response = error(500, "Unexpected error: " + e.getMessage());
+            }
+            send(exchange, response);
+        });
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Response ok(Object body) {
+        return new Response(200, body);
+    }
+
+    private static Response error(int status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return new Response(status, body);
+    }
+
+    private static ApiException fail(int status, String message) {
+        return new ApiException(status, message);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8).trim());
+        }
+        return params;
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw fail(413, "Request body too large");
+            }
+            if (bytes.length == 0) {
+                throw fail(400, "Request body must be a JSON object");
+            }
+            return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String required(Map<String, ?> params, String name) {
+        Object value = params.get(name);
+        if (value == null || value.toString().trim().isEmpty()) {
+            throw fail(400, "Missing required field: " + name);
+        }
+        return value.toString().trim();
+    }
+
+    private static String semester(Map<String, ?> params) {
+        String semester = required(params, "semester");
+        if (!Main.isValidSemester(semester)) {
+            throw fail(400, "Semester must be in format 'Fall YYYY', 'Spring YYYY', 'Summer YYYY', or 'Winter YYYY'");
+        }
+        return semester;
+    }
+
+    private static String grade(Map<String, ?> params, boolean allowEmpty) {
+        Object value = params.get("grade");
+        String grade = value == null ? "" : value.toString().trim().toUpperCase();
+        if (grade.isEmpty() && allowEmpty) {
+            return null;
+        }
+        if (!Main.isValidGrade(grade)) {
+            throw fail(400, "Invalid grade. Valid grades: " + String.join(", ", Main.VALID_GRADES));
+        }
+        return grade;
+    }
+
+    private static int studentId(Connection conn, String email) throws SQLException {
+        int id = STUDENTS.findIdByEmail(conn, email);
+        if (id == -1) {
+            throw fail(404, "Student not found: " + email);
+        }
+        return id;
+    }
+
+    private static int courseId(Connection conn, String courseCode) throws SQLException {
+        int id = COURSES.findIdByCode(conn, courseCode);
+        if (id == -1) {
+            throw fail(404, "Course not found: " + courseCode);
+        }
+        return id;
+    }
+
+    // endpoints
+
+    private Response health() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "ok");
+        body.put("activeConnections", pool.getActiveCount());
+        body.put("idleConnections", pool.getIdleCount());
+        body.put("borrowTimeouts", pool.getTimeoutCount());
+        body.put("averageWaitMs", pool.getAverageWaitMillis());
+        body.put("statementCacheHitRate", pool.getStatementCacheHitRate());
+        body.put("studentIdCacheHitRate", StudentRepository.idCache().getHitRate());
+        body.put("courseIdCacheHitRate", CourseRepository.idCache().getHitRate());
+        return ok(body);
+    }
+
+    // GET /api/student?email=
+    private Response student(Connection conn, Map<String, String> params) throws SQLException {
+        String email = required(params, "email");
+        Student found = STUDENTS.findByEmail(conn, email)
+            .orElseThrow(() -> fail(404, "Student not found: " + email));
+        Map<String, Object> student = new LinkedHashMap<>();
+        student.put("studentId", found.studentId());
+        student.put("firstName", found.firstName());
+        student.put("lastName", found.lastName());
+        student.put("email", found.email());
+        student.put("dob", found.dob() != null ? found.dob().toString() : null);
+        return ok(student);
+    }
+
+    // GET /api/roster?course=CS157A&semester=Fall%202025
+    private Response roster(Connection conn, Map<String, String> params) throws SQLException {
+        String courseCode = required(params, "course").toUpperCase();
+        String semester = semester(params);
+        List<Object> rows = new ArrayList<>();
+        for (EnrollmentRow enrollment : ENROLLMENTS.findRoster(conn, courseCode, semester)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("studentId", enrollment.studentId());
+            row.put("firstName", enrollment.firstName());
+            row.put("lastName", enrollment.lastName());
+            row.put("email", enrollment.email());
+            row.put("grade", enrollment.grade());
+            rows.add(row);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("course", courseCode);
+        body.put("semester", semester);
+        body.put("students", rows);
+        return ok(body);
+    }
+
+    // GET /api/transcript?email=
+    private Response transcript(Connection conn, Map<String, String> params) throws SQLException {
+        String email = required(params, "email");
+        int studentId = STUDENTS.findIdByEmail(conn, email);
+        List<TranscriptRow> courses = studentId != -1 ? ENROLLMENTS.findTranscript(conn, studentId) : List.of();
+        List<Object> rows = new ArrayList<>();
+        for (TranscriptRow course : courses) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("semester", course.semester());
+            row.put("courseCode", course.courseCode());
+            row.put("courseName", course.courseName());
+            row.put("credits", course.credits());
+            row.put("grade", course.grade());
+            row.put("instructor", course.instructorName());
+            rows.add(row);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("email", email);
+        body.put("courses", rows);
+        List<TermGpa> terms = studentId != -1 ? GPA.findTerms(conn, studentId) : List.of();
+        List<Object> termRows = new ArrayList<>();
+        for (TermGpa term : terms) {
+            termRows.add(gpaBody(term));
+        }
+        body.put("terms", termRows);
+        body.put("cumulative", gpaBody(TermGpa.cumulative(terms)));
+        return ok(body);
+    }
+
+    private static Map<String, Object> gpaBody(TermGpa term) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("semester", term.semester());
+        row.put("gpa", term.gpa());
+        row.put("gradedCredits", term.gradedCredits());
+        row.put("earnedCredits", term.earnedCredits());
+        row.put("enrolledCredits", term.enrolledCredits());
+        return row;
+    }
+
+    // GET /api/search?q=&limit=  (answered from the in-memory index, no connection needed)
+    private Response search(Map<String, String> params) {
+        String q = required(params, "q");
+        int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : 20;
+        if (limit < 1 || limit > 200) {
+            throw fail(400, "limit must be between 1 and 200");
+        }
+        SearchIndex index = SearchIndex.current();
+        if (index == null) {
+            throw fail(503, "Search index not loaded");
+        }
+        long start = System.nanoTime();
+        List<SearchIndex.Hit> hits = index.search(q, limit);
+        long micros = (System.nanoTime() - start) / 1000;
+        List<Object> rows = new ArrayList<>();
+        for (SearchIndex.Hit hit : hits) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("type", hit.kind().name().toLowerCase());
+            row.put("key", hit.key());
+            row.put("name", hit.name());
+            row.put("score", hit.cost());
+            rows.add(row);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("query", q);
+        body.put("results", rows);
+        body.put("micros", micros);
+        return ok(body);
+    }
+
+    // POST /api/enroll {"email", "courseCode", "semester", "grade"?}
+    private Response enroll(Connection conn, Map<String, Object> params) throws SQLException {
+        String email = required(params, "email");
+        String courseCode = required(params, "courseCode").toUpperCase();
+        String semester = semester(params);
+        String grade = grade(params, true);
+
+        int studentId = studentId(conn, email);
+        int courseId = courseId(conn, courseCode);
+        SeatReservation.Outcome outcome = seats.enroll(conn, studentId, courseId, semester, grade);
+        switch (outcome) {
+            case DUPLICATE:
+                return error(409, "Student is already enrolled in this course for this semester");
+            case FULL:
+                return error(409, "Enrollment blocked: classroom capacity exceeded");
+            default:
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("enrolled", true);
+                body.put("email", email);
+                body.put("courseCode", courseCode);
+                body.put("semester", semester);
+                return new Response(201, body);
+        }
+    }
+
+    // POST /api/enroll/multi {"email", "semester", "courseCodes": [...]}
+    // all or nothing, like the console's transactional workflow
+    private Response enrollMultiple(Connection conn, Map<String, Object> params) throws SQLException {
+        String email = required(params, "email");
+        String semester = semester(params);
+        Object codesValue = params.get("courseCodes");
+        if (!(codesValue instanceof List) || ((List<?>) codesValue).isEmpty()) {
+            throw fail(400, "courseCodes must be a non-empty array");
+        }
+        List<String> courseCodes = new ArrayList<>();
+        for (Object code : (List<?>) codesValue) {
+            courseCodes.add(String.valueOf(code).trim().toUpperCase());
+        }
+
+        int studentId = studentId(conn, email);
+        List<String> failed = new ArrayList<>();
+        // started over after a deadlock or lock wait timeout; once the retries run out the error
+        // goes to route() and becomes a 503
+        seats.inTransaction(conn, c -> {
+            failed.clear();
+            Map<String, Integer> courseIds = COURSES.findIdsByCodes(c, courseCodes);
+            Set<Integer> alreadyEnrolled = ENROLLMENTS.findEnrolledCourseIds(c, studentId, semester, courseIds.values());
+            List<Integer> toInsert = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (String code : courseCodes) {
+                Integer courseId = courseIds.get(code);
+                if (courseId == null) {
+                    failed.add(code + " (not found)");
+                } else if (alreadyEnrolled.contains(courseId) || !seen.add(courseId)) {
+                    failed.add(code + " (duplicate)");
+                } else {
+                    toInsert.add(courseId);
+                }
+            }
+
+            if (failed.isEmpty()) {
+                SeatReservation.lockSections(c, semester, toInsert);
+                try {
+                    ENROLLMENTS.insertBatch(c, studentId, semester, toInsert);
+                } catch (BatchUpdateException e) {
+                    if (SeatReservation.isRetryable(e)) {
+                        throw e;
+                    }
+                    failed.add(e.getMessage());
+                }
+            }
+            return failed.isEmpty();
+        });
+
+        if (!failed.isEmpty()) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("error", "Transaction rolled back - no enrollments created");
+            body.put("failed", failed);
+            return new Response(409, body);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enrolled", courseCodes);
+        body.put("email", email);
+        body.put("semester", semester);
+        return new Response(201, body);
+    }
+
+    // POST /api/grade {"email", "courseCode", "semester", "grade"}
+    private Response updateGrade(Connection conn, Map<String, Object> params) throws SQLException {
+        String email = required(params, "email");
+        String courseCode = required(params, "courseCode").toUpperCase();
+        String semester = semester(params);
+        String grade = grade(params, false);
+
+        if (ENROLLMENTS.updateGrade(conn, studentId(conn, email), courseId(conn, courseCode), semester, grade) == 0) {
+            throw fail(404, "Enrollment not found");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("updated", true);
+        body.put("grade", grade);
+        return ok(body);
+    }
+
+    // POST /api/drop {"email", "courseCode", "semester"}
+    private Response drop(Connection conn, Map<String, Object> params) throws SQLException {
+        String email = required(params, "email");
+        String courseCode = required(params, "courseCode").toUpperCase();
+        String semester = semester(params);
+
+        if (ENROLLMENTS.drop(conn, studentId(conn, email), courseId(conn, courseCode), semester) == 0) {
+            throw fail(404, "Enrollment not found");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("dropped", true);
+        return ok(body);
+    }
+}
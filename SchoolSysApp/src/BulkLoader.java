@@ -0,0 +1,488 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+
+// bulk loader for the Student, Instructor, Classroom and Course tables (java Main load <table> <file.csv>)
+// rows are sent as multi-row INSERTs, or with LOAD DATA LOCAL INFILE when the server and driver allow it
+// duplicate emails / course codes are skipped or upserted depending on the policy instead of aborting the load
+public class BulkLoader {
+    public enum DuplicatePolicy { SKIP, UPSERT }
+
+    // column types for parsing and binding
+    private static final char TEXT = 'S';
+    private static final char INT = 'I';
+    private static final char DATE = 'D';
+
+    private static final Map<String, TableSpec> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("student", new TableSpec("Student", "email",
+            new String[] {"first_name", "last_name", "email", "dob"},
+            new char[] {TEXT, TEXT, TEXT, DATE},
+            new boolean[] {true, true, true, false}));
+        TABLES.put("instructor", new TableSpec("Instructor", "email",
+            new String[] {"first_name", "last_name", "email", "department"},
+            new char[] {TEXT, TEXT, TEXT, TEXT},
+            new boolean[] {true, true, true, false}));
+        // classrooms have no natural unique key, so every row is inserted
+        TABLES.put("classroom", new TableSpec("Classroom", null,
+            new String[] {"building", "room_number", "capacity"},
+            new char[] {TEXT, TEXT, INT},
+            new boolean[] {true, true, true}));
+        TABLES.put("course", new TableSpec("Course", "course_code",
+            new String[] {"course_name", "course_code", "credits", "instructor_id", "classroom_id"},
+            new char[] {TEXT, TEXT, INT, INT, INT},
+            new boolean[] {true, true, true, true, true}));
+    }
+
+    private final ConnectionPool pool;
+    private final int batchSize;
+    private final DuplicatePolicy policy;
+
+    private long rowsRead = 0;
+    private long rowsInserted = 0;
+    private long rowsUpdated = 0;
+    private long rowsSkipped = 0;
+    // @@warning_count after LOAD DATA, -1 when the rows went through INSERT
+    private long infileWarnings = -1;
+    private long rowsRejected = 0;
+
+    public BulkLoader(ConnectionPool pool, int batchSize, DuplicatePolicy policy) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.policy = policy;
+    }
+
+    public static Set<String> tableNames() {
+        return TABLES.keySet();
+    }
+
+    // mode is "auto" (LOAD DATA if possible, otherwise INSERT), "insert" or "infile"
+    public void load(String tableName, String inputPath, String mode, String rejectsPath)
+            throws IOException, SQLException {
+        TableSpec spec = TABLES.get(tableName.toLowerCase());
+        if (spec == null) {
+            throw new IllegalArgumentException("Unknown table: " + tableName + " (expected one of " + TABLES.keySet() + ")");
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = pool.getConnection()) {
+            boolean useInfile = false;
+            if (mode.equals("infile")) {
+                if (policy == DuplicatePolicy.UPSERT) {
+                    throw new IllegalArgumentException("LOAD DATA can't upsert; use --mode insert with --on-duplicate upsert");
+                }
+                useInfile = true;
+            } else if (mode.equals("auto")) {
+                // LOAD DATA can only skip duplicates (REPLACE would delete and cascade), so upserts use INSERT
+                useInfile = policy == DuplicatePolicy.SKIP && localInfileEnabled(conn);
+            }
+
+            if (useInfile) {
+                try {
+                    loadWithInfile(conn, spec, inputPath);
+                    printSummary(start, rejectsPath);
+                    return;
+                } catch (SQLException e) {
+                    if (mode.equals("infile")) {
+                        throw e;
+                    }
+                    System.out.println("LOAD DATA LOCAL INFILE not available (" + e.getMessage() + "), using INSERT batches");
+                }
+            }
+            loadWithInserts(conn, spec, inputPath, rejectsPath);
+        }
+        printSummary(start, rejectsPath);
+    }
+
+    private static boolean localInfileEnabled(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT @@GLOBAL.local_infile")) {
+            return rs.next() && rs.getInt(1) == 1;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // LOAD DATA LOCAL INFILE ... IGNORE: duplicate keys become warnings instead of errors
+    // needs local_infile=ON on the server and db.driver.allowLoadLocalInfile=true
+    private void loadWithInfile(Connection conn, TableSpec spec, String inputPath) throws IOException, SQLException {
+        List<String> header;
+        try (BufferedReader in = new BufferedReader(
+                 new InputStreamReader(new FileInputStream(inputPath), StandardCharsets.UTF_8))) {
+            String headerLine = in.readLine();
+            if (headerLine == null) {
+                return;
+            }
+            header = Csv.parseLine(headerLine);
+        }
+        checkHeader(spec, Csv.headerIndex(header));
+
+        // read every file column into a user variable, then assign the ones this table uses
+        StringBuilder vars = new StringBuilder();
+        StringBuilder sets = new StringBuilder();
+        for (int i = 0; i < header.size(); i++) {
+            if (i > 0) {
+                vars.append(", ");
+            }
+            vars.append("@v").append(i);
+            int column = spec.columnIndex(header.get(i).toLowerCase());
+            if (column >= 0) {
+                if (sets.length() > 0) {
+                    sets.append(", ");
+                }
+                // same normalization as the insert path: Csv.parseLine trims every field and parseRow
+                // uppercases course codes
+                String value = "TRIM(TRIM(TRAILING '\\r' FROM @v" + i + "))";
+                if (spec.columns[column].equals("course_code")) {
+                    value = "UPPER(" + value + ")";
+                }
+                sets.append(spec.columns[column]).append(" = NULLIF(").append(value).append(", '')");
+            }
+        }
+
+        String path = new File(inputPath).getAbsolutePath().replace("\\", "\\\\").replace("'", "\\'");
+        String sql = "LOAD DATA LOCAL INFILE '" + path + "' IGNORE INTO TABLE " + spec.table + " " +
+                     "CHARACTER SET utf8mb4 " +
+                     "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' " +
+                     "LINES TERMINATED BY '\\n' IGNORE 1 LINES " +
+                     "(" + vars + ") SET " + sets;
+
+        System.out.println("Loading " + spec.table + " with LOAD DATA LOCAL INFILE...");
+        try (Statement stmt = conn.createStatement()) {
+            rowsInserted = stmt.executeUpdate(sql);
+            try (ResultSet rs = stmt.executeQuery("SELECT @@warning_count")) {
+                if (rs.next()) {
+                    // with IGNORE, skipped duplicates are warnings, but so are truncated or converted values,
+                    // so the count can't be reported as duplicates
+                    infileWarnings = rs.getLong(1);
+                }
+            }
+        }
+        // LOAD DATA doesn't say how many lines it read
+        rowsRead = rowsInserted;
+    }
+
+    private void loadWithInserts(Connection conn, TableSpec spec, String inputPath, String rejectsPath)
+            throws IOException, SQLException {
+        try (BufferedReader in = new BufferedReader(
+                 new InputStreamReader(new FileInputStream(inputPath), StandardCharsets.UTF_8), 1 << 16);
+             BufferedWriter rejects = new BufferedWriter(
+                 new OutputStreamWriter(new FileOutputStream(rejectsPath), StandardCharsets.UTF_8), 1 << 16)) {
+
+            String headerLine = in.readLine();
+            if (headerLine == null) {
+                System.out.println("Input file is empty.");
+                return;
+            }
+            Map<String, Integer> header = Csv.headerIndex(Csv.parseLine(headerLine));
+            checkHeader(spec, header);
+            rejects.write(headerLine + ",reject_reason");
+            rejects.newLine();
+
+            System.out.println("Loading " + spec.table + " with multi-row INSERT batches of " + batchSize + "...");
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                List<PendingRow> batch = new ArrayList<>(batchSize);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    rowsRead++;
+                    List<String> fields = Csv.parseLine(line);
+                    Object[] values = new Object[spec.columns.length];
+                    String reason = parseRow(spec, header, fields, values);
+                    if (reason != null) {
+                        reject(rejects, line, reason);
+                        continue;
+                    }
+                    batch.add(new PendingRow(line, values));
+                    if (batch.size() >= batchSize) {
+                        flush(conn, spec, batch, rejects);
+                    }
+                }
+                flush(conn, spec, batch, rejects);
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(originalAutoCommit);
+            }
+        }
+    }
+
+    private static void checkHeader(TableSpec spec, Map<String, Integer> header) {
+        for (int i = 0; i < spec.columns.length; i++) {
+            if (spec.required[i] && !header.containsKey(spec.columns[i])) {
+                throw new IllegalArgumentException("Header is missing column " + spec.columns[i] +
+                    " (expected " + String.join(",", spec.columns) + ")");
+            }
+        }
+    }
+
+    // parse the CSV fields into values; returns a reject reason or null if the row is fine
+    private static String parseRow(TableSpec spec, Map<String, Integer> header, List<String> fields, Object[] values) {
+        for (int i = 0; i < spec.columns.length; i++) {
+            String raw = Csv.field(fields, header.get(spec.columns[i]));
+            if (raw.isEmpty()) {
+                if (spec.required[i]) {
+                    return "missing " + spec.columns[i];
+                }
+                values[i] = null;
+                continue;
+            }
+            try {
+                switch (spec.types[i]) {
+                    case INT:
+                        values[i] = Integer.parseInt(raw);
+                        break;
+                    case DATE:
+                        values[i] = java.sql.Date.valueOf(raw);
+                        break;
+                    default:
+                        values[i] = spec.columns[i].equals("course_code") ? raw.toUpperCase() : raw;
+                }
+            } catch (IllegalArgumentException e) {
+                return "invalid " + spec.columns[i] + ": " + raw;
+            }
+        }
+        return null;
+    }
+
+    // one batch = one multi-row INSERT in its own short transaction
+    private void flush(Connection conn, TableSpec spec, List<PendingRow> batch, BufferedWriter rejects)
+            throws SQLException, IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<PendingRow> rows = batch;
+        Set<String> existing = Collections.emptySet();
+        if (spec.keyColumn != null) {
+            rows = dedupeByKey(spec, batch);
+            existing = findExistingKeys(conn, spec, rows);
+            if (policy == DuplicatePolicy.SKIP) {
+                List<PendingRow> fresh = new ArrayList<>(rows.size());
+                for (PendingRow row : rows) {
+                    if (existing.contains(row.key(spec))) {
+                        rowsSkipped++;
+                    } else {
+                        fresh.add(row);
+                    }
+                }
+                rows = fresh;
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            try {
+                executeInsert(conn, spec, rows);
+                countResults(spec, rows, existing);
+            } catch (SQLException e) {
+                // a bad row fails the whole statement; undo and retry one at a time to find it
+                conn.rollback();
+                for (PendingRow row : rows) {
+                    try {
+                        executeInsert(conn, spec, Collections.singletonList(row));
+                        countResults(spec, Collections.singletonList(row), existing);
+                    } catch (SQLException rowError) {
+                        reject(rejects, row.line, describe(rowError));
+                    }
+                }
+            }
+        }
+        conn.commit();
+        batch.clear();
+    }
+
+    // keep one row per key inside a batch: the first for SKIP, the last for UPSERT
+    private List<PendingRow> dedupeByKey(TableSpec spec, List<PendingRow> batch) {
+        Map<String, PendingRow> byKey = new LinkedHashMap<>();
+        for (PendingRow row : batch) {
+            String key = row.key(spec);
+            if (!byKey.containsKey(key)) {
+                byKey.put(key, row);
+            } else {
+                if (policy == DuplicatePolicy.UPSERT) {
+                    byKey.put(key, row);
+                }
+                rowsSkipped++;
+            }
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static Set<String> findExistingKeys(Connection conn, TableSpec spec, List<PendingRow> rows) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(spec.keyColumn).append(" FROM ").append(spec.table)
+            .append(" WHERE ").append(spec.keyColumn).append(" IN (");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < rows.size(); i++) {
+                pstmt.setString(i + 1, rows.get(i).key(spec));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).toLowerCase());
+                }
+            }
+        }
+        return existing;
+    }
+
+    private void executeInsert(Connection conn, TableSpec spec, List<PendingRow> rows) throws SQLException {
+        String sql = spec.insertSql(rows.size(), policy);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (PendingRow row : rows) {
+                for (int i = 0; i < spec.columns.length; i++) {
+                    bind(pstmt, index++, spec.types[i], row.values[i]);
+                }
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void countResults(TableSpec spec, List<PendingRow> rows, Set<String> existing) {
+        for (PendingRow row : rows) {
+            if (spec.keyColumn != null && existing.contains(row.key(spec))) {
+                rowsUpdated++;
+            } else {
+                rowsInserted++;
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement pstmt, int index, char type, Object value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, type == DATE ? Types.DATE : type == INT ? Types.INTEGER : Types.VARCHAR);
+        } else if (type == INT) {
+            pstmt.setInt(index, (Integer) value);
+        } else if (type == DATE) {
+            pstmt.setDate(index, (java.sql.Date) value);
+        } else {
+            pstmt.setString(index, (String) value);
+        }
+    }
+
+    private static String describe(SQLException e) {
+        if ("23000".equals(e.getSQLState())) {
+            return "constraint violation: " + e.getMessage();
+        }
+        return "database error: " + e.getMessage();
+    }
+
+    private void reject(BufferedWriter rejects, String line, String reason) throws IOException {
+        rowsRejected++;
+        rejects.write(line);
+        rejects.write(',');
+        rejects.write(Csv.escape(reason));
+        rejects.newLine();
+    }
+
+    private void printSummary(long start, String rejectsPath) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.println("\nLoad complete");
+        System.out.println("Rows read: " + rowsRead);
+        System.out.println("Rows inserted: " + rowsInserted);
+        System.out.println("Rows updated: " + rowsUpdated);
+        if (infileWarnings >= 0) {
+            System.out.println("Warnings (skipped duplicates, truncated or converted values): " + infileWarnings);
+        } else {
+            System.out.println("Rows skipped (duplicates): " + rowsSkipped);
+        }
+        System.out.println("Rows rejected: " + rowsRejected + (rowsRejected > 0 ? " (see " + rejectsPath + ")" : ""));
+        System.out.printf("Elapsed: %.2f s (%.0f rows/sec)%n", seconds, seconds > 0 ? rowsRead / seconds : 0.0);
+    }
+
+    private static final class TableSpec {
+        final String table;
+        final String keyColumn;
+        final String[] columns;
+        final char[] types;
+        final boolean[] required;
+        final int keyIndex;
+
+        TableSpec(String table, String keyColumn, String[] columns, char[] types, boolean[] required) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+            this.columns = columns;
+            this.types = types;
+            this.required = required;
+            this.keyIndex = keyColumn == null ? -1 : columnIndex(keyColumn);
+        }
+
+        int columnIndex(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // INSERT INTO T (a, b) VALUES (?, ?), (?, ?) [ON DUPLICATE KEY UPDATE ...]
+        String insertSql(int rowCount, DuplicatePolicy policy) {
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0; i < columns.length; i++) {
+                row.append(i == 0 ? "?" : ", ?");
+            }
+            row.append(")");
+
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+            for (int i = 0; i < rowCount; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(row);
+            }
+
+            if (keyColumn != null) {
+                sql.append(" ON DUPLICATE KEY UPDATE ");
+                if (policy == DuplicatePolicy.SKIP) {
+                    // no-op update: a row inserted concurrently since the key check is left alone
+                    sql.append(keyColumn).append(" = ").append(keyColumn);
+                } else {
+                    boolean first = true;
+                    for (String column : columns) {
+                        if (column.equals(keyColumn)) {
+                            continue;
+                        }
+                        if (!first) {
+                            sql.append(", ");
+                        }
+                        sql.append(column).append(" = VALUES(").append(column).append(")");
+                        first = false;
+                    }
+                }
+            }
+            return sql.toString();
+        }
+    }
+
+    private static final class PendingRow {
+        final String line;
+        final Object[] values;
+
+        PendingRow(String line, Object[] values) {
+            this.line = line;
+            this.values = values;
+        }
+
+        // unique keys compare case-insensitively, like the MySQL default collation
+        String key(TableSpec spec) {
+            return ((String) values[spec.keyIndex]).toLowerCase();
+        }
+    }
+}
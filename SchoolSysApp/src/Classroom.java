@@ -0,0 +1,6 @@
+// one row of the Classroom table
+public record Classroom(int classroomId, String building, String roomNumber, int capacity) {
+    public String location() {
+        return building + " " + roomNumber;
+    }
+}
@@ -0,0 +1,45 @@
+import java.sql.*;
+import java.util.*;
+
+// data access for the Classroom table
+public class ClassroomRepository {
+    public List<Classroom> findAll(Connection conn) throws SQLException {
+        List<Classroom> classrooms = new ArrayList<>();
+        String sql = "SELECT classroom_id, building, room_number, capacity FROM Classroom ORDER BY building, room_number";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                classrooms.add(new Classroom(
+                    rs.getInt("classroom_id"),
+                    rs.getString("building"),
+                    rs.getString("room_number"),
+                    rs.getInt("capacity")));
+            }
+        }
+        return classrooms;
+    }
+
+    public boolean exists(Connection conn, int classroomId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM Classroom WHERE classroom_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, classroomId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    // one JDBC batch; classroom_id of the records is ignored
+    public int[] insertBatch(Connection conn, List<Classroom> classrooms) throws SQLException {
+        String sql = "INSERT INTO Classroom (building, room_number, capacity) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Classroom classroom : classrooms) {
+                pstmt.setString(1, classroom.building());
+                pstmt.setString(2, classroom.roomNumber());
+                pstmt.setInt(3, classroom.capacity());
+                pstmt.addBatch();
+            }
+            return pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,420 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// built-in JDBC connection pool
+// callers borrow with getConnection() and give the connection back by calling close() on it,
+// so the usual try-with-resources blocks work unchanged
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final Properties connectionProps;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long borrowTimeoutMs;
+    private final long validationIntervalMs;
+    private final String validationQuery;
+    private final int statementCacheSize;
+
+    // idle connections, most recently returned first
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    // one permit per connection that may be handed out at the same time
+    private final Semaphore permits;
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // stats
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder discardedCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    public ConnectionPool(String url, Properties connectionProps, int minSize, int maxSize,
+                          long idleTimeoutMs, long maxLifetimeMs, long borrowTimeoutMs,
+                          String validationQuery, long validationIntervalMs,
+                          int statementCacheSize) throws SQLException {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.connectionProps = connectionProps;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationQuery = validationQuery;
+        this.validationIntervalMs = validationIntervalMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        // open the minimum connections up front so bad credentials fail at startup
+        for (int i = 0; i < minSize; i++) {
+            idle.offerLast(openEntry());
+        }
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMs, 30000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // build a pool from the db.* settings in app.properties
+    public static ConnectionPool fromProperties(Properties props) throws SQLException {
+        String url = props.getProperty("db.url");
+        Properties connProps = new Properties();
+        connProps.setProperty("user", props.getProperty("db.username"));
+        connProps.setProperty("password", props.getProperty("db.password"));
+        // db.driver.* entries are passed straight to the JDBC driver (e.g. db.driver.useServerPrepStmts)
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith("db.driver.")) {
+                connProps.setProperty(key.substring("db.driver.".length()), props.getProperty(key).trim());
+            }
+        }
+
+        return new ConnectionPool(url, connProps,
+            intProperty(props, "db.pool.min", 2),
+            intProperty(props, "db.pool.max", 10),
+            longProperty(props, "db.pool.idleTimeoutMs", 600000),
+            longProperty(props, "db.pool.maxLifetimeMs", 1800000),
+            longProperty(props, "db.pool.borrowTimeoutMs", 30000),
+            props.getProperty("db.pool.validationQuery", "SELECT 1").trim(),
+            longProperty(props, "db.pool.validationIntervalMs", 30000),
+            intProperty(props, "db.stmt.cacheSize", 64));
+    }
+
+    static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+
+    static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+
+    // borrow a connection, waiting up to borrowTimeoutMs if all are in use
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed", "08003");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", "08001", e);
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException(
+                "Timed out after " + borrowTimeoutMs + " ms waiting for a database connection (" +
+                activeCount.get() + " active, max " + maxSize + ")", "08001");
+        }
+
+        try {
+            PooledEntry entry = takeIdle();
+            if (entry == null) {
+                entry = openEntry();
+            }
+            activeCount.incrementAndGet();
+            borrowCount.increment();
+            return entry.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // pop idle connections until a usable one is found
+    private PooledEntry takeIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (now - entry.createdAt > maxLifetimeMs) {
+                discard(entry);
+                continue;
+            }
+            if (now - entry.lastUsedAt > validationIntervalMs && !isUsable(entry.physical)) {
+                validationFailures.increment();
+                discard(entry);
+                continue;
+            }
+            return entry;
+        }
+        return null;
+    }
+
+    private boolean isUsable(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (validationQuery.isEmpty()) {
+                return physical.isValid(5);
+            }
+            try (Statement stmt = physical.createStatement()) {
+                stmt.setQueryTimeout(5);
+                stmt.execute(validationQuery);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry openEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProps);
+        totalCount.incrementAndGet();
+        createdCount.increment();
+        return new PooledEntry(physical);
+    }
+
+    private void discard(PooledEntry entry) {
+        totalCount.decrementAndGet();
+        discardedCount.increment();
+        try {
+            if (entry.statements != null) {
+                entry.statements.closeAll();
+            }
+            entry.physical.close();
+        } catch (SQLException e) {
+            // connection is already broken, nothing else to do
+        }
+    }
+
+    // called when a borrowed connection is closed by the caller
+    private void release(PooledEntry entry) {
+        activeCount.decrementAndGet();
+        try {
+            boolean reusable = !closed && !entry.physical.isClosed()
+                && System.currentTimeMillis() - entry.createdAt <= maxLifetimeMs;
+            if (reusable && !entry.physical.getAutoCommit()) {
+                // caller left a transaction open, don't leak it to the next borrower
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                entry.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                discard(entry);
+            }
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // close connections idle past the timeout or lifetime and top back up to the minimum
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledEntry entry = it.next();
+            boolean expired = now - entry.createdAt > maxLifetimeMs;
+            boolean stale = now - entry.lastUsedAt > idleTimeoutMs && totalCount.get() > minSize;
+            if ((expired || stale) && idle.removeFirstOccurrence(entry)) {
+                discard(entry);
+            }
+        }
+        try {
+            while (!closed && totalCount.get() < minSize && activeCount.get() + idle.size() < maxSize) {
+                idle.offerLast(openEntry());
+            }
+        } catch (SQLException e) {
+            // database is unreachable right now, try again on the next run
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    // stats
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.sum() + timeoutCount.sum();
+        return borrows == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getStatementCacheHits() {
+        return statementHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementEvictions.sum();
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public String statsSummary() {
+        return String.format(
+            "active=%d idle=%d total=%d max=%d borrows=%d timeouts=%d avgWait=%.3fms maxWait=%.3fms " +
+            "created=%d closed=%d validationFailures=%d stmtHits=%d stmtMisses=%d stmtEvictions=%d",
+            getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getBorrowCount(), getTimeoutCount(),
+            getAverageWaitMillis(), getMaxWaitMillis(), createdCount.sum(), discardedCount.sum(),
+            validationFailures.sum(), statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+    }
+
+    // one physical connection owned by the pool
+    private final class PooledEntry {
+        final Connection physical;
+        final StatementCache statements;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementHits, statementMisses, statementEvictions)
+                : null;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new Lease(this));
+        }
+    }
+
+    // the handle given to callers; close() returns the connection instead of closing it,
+    // prepareStatement(sql) goes through the connection's statement cache and statements are
+    // wrapped by Metrics when it is on
+    private final class Lease implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned = false;
+
+        Lease(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!returned) {
+                    returned = true;
+                    release(entry);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned || entry.physical.isClosed();
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString")) {
+                return "PooledConnection[" + entry.physical + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool", "08003");
+            }
+            Object result;
+            if (name.equals("prepareStatement") && args.length == 1 && entry.statements != null) {
+                result = entry.statements.prepare((String) args[0]);
+            } else {
+                try {
+                    result = method.invoke(entry.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            // statements are timed and counted per operation while metrics or the slow-query log are on
+            if (result instanceof Statement && (Metrics.isEnabled() || SlowQueryLog.isEnabled())) {
+                return Metrics.wrap((Statement) result, method.getReturnType(),
+                    args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+// one row of the Course table
+public record Course(int courseId, String courseCode, String courseName, int credits, int instructorId, int classroomId) {
+}
@@ -0,0 +1,3 @@
+// a course joined with its instructor and classroom, as shown in the course listings
+public record CourseDetail(Course course, Instructor instructor, Classroom classroom) {
+}
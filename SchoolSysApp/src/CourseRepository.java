@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+// data access for the Course table
+public class CourseRepository {
+    private static final String DETAIL_SELECT =
+        "SELECT c.course_id, c.course_code, c.course_name, c.credits, c.instructor_id, c.classroom_id, " +
+        "i.first_name AS instructor_first, i.last_name AS instructor_last, i.email AS instructor_email, " +
+        "i.department AS instructor_department, " +
+        "cl.building, cl.room_number, cl.capacity " +
+        "FROM Course c " +
+        "JOIN Instructor i ON c.instructor_id = i.instructor_id " +
+        "JOIN Classroom cl ON c.classroom_id = cl.classroom_id ";
+
+    // course_code -> course_id, shared by the whole process (see StudentRepository)
+    private static volatile LookupCache<String, Integer> idCache = new LookupCache<>(10000, 300000);
+
+    static void configureIdCache(int maxSize, long ttlMs) {
+        idCache = new LookupCache<>(maxSize, ttlMs);
+    }
+
+    static LookupCache<String, Integer> idCache() {
+        return idCache;
+    }
+
+    private static String idKey(String courseCode) {
+        return courseCode.toUpperCase(Locale.ROOT);
+    }
+
+    public Optional<CourseDetail> findDetailByCode(Connection conn, String courseCode) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(DETAIL_SELECT + "WHERE c.course_code = ?")) {
+            pstmt.setString(1, courseCode);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapDetail(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    // up to `limit` courses in findAllDetails' order after `after` (null for the first page);
+    // course_code is unique, so it is the whole keyset
+    public List<CourseDetail> findDetailPage(Connection conn, CourseDetail after, int limit) throws SQLException {
+        List<CourseDetail> courses = new ArrayList<>();
+        String sql = DETAIL_SELECT + (after != null ? "WHERE c.course_code > ? " : "") + "ORDER BY c.course_code LIMIT ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (after != null) {
+                pstmt.setString(index++, after.course().courseCode());
+            }
+            pstmt.setInt(index, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    courses.add(mapDetail(rs));
+                }
+            }
+        }
+        return courses;
+    }
+
+    public List<CourseDetail> findAllDetails(Connection conn) throws SQLException {
+        List<CourseDetail> courses = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(DETAIL_SELECT + "ORDER BY c.course_code");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                courses.add(mapDetail(rs));
+            }
+        }
+        return courses;
+    }
+
+    // same rows as findAllDetails, handed over one at a time without holding the catalog in memory
+    public void streamAllDetails(Connection conn, RowHandler<CourseDetail> handler) throws SQLException, IOException {
+        streamAllDetails(conn, null, handler);
+    }
+
+    // the rest of the catalog after `after` (null for all of it), streamed
+    public void streamAllDetails(Connection conn, CourseDetail after, RowHandler<CourseDetail> handler)
+            throws SQLException, IOException {
+        String sql = DETAIL_SELECT + (after != null ? "WHERE c.course_code > ? " : "") + "ORDER BY c.course_code";
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            if (after != null) {
+                pstmt.setString(1, after.course().courseCode());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapDetail(rs));
+                }
+            }
+        }
+    }
+
+    public List<Course> findByInstructorEmail(Connection conn, String email) throws SQLException {
+        List<Course> courses = new ArrayList<>();
+        String sql = "SELECT c.course_id, c.course_code, c.course_name, c.credits, c.instructor_id, c.classroom_id " +
+                     "FROM Course c " +
+                     "JOIN Instructor i ON c.instructor_id = i.instructor_id " +
+                     "WHERE i.email = ? " +
+                     "ORDER BY c.course_code";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    courses.add(map(rs));
+                }
+            }
+        }
+        return courses;
+    }
+
+    // course_id for a code, or -1 if there is no such course (cached)
+    public int findIdByCode(Connection conn, String courseCode) throws SQLException {
+        LookupCache<String, Integer> cache = idCache;
+        Integer cached = cache.get(idKey(courseCode));
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        String sql = "SELECT course_id FROM Course WHERE course_code = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, courseCode);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    int id = rs.getInt("course_id");
+                    cache.put(idKey(courseCode), id, stamp);
+                    return id;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // upper-cased course_code -> course_id for many codes; cache misses are resolved with one IN (...) query
+    // and unknown codes are left out
+    public Map<String, Integer> findIdsByCodes(Connection conn, Collection<String> courseCodes) throws SQLException {
+        LookupCache<String, Integer> cache = idCache;
+        Map<String, Integer> ids = new HashMap<>();
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String code : courseCodes) {
+            Integer cached = cache.get(idKey(code));
+            if (cached != null) {
+                ids.put(idKey(code), cached);
+            } else {
+                distinct.add(code);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return ids;
+        }
+        long stamp = cache.stamp();
+        String sql = "SELECT course_id, course_code FROM Course WHERE course_code IN (" + Jdbc.placeholders(distinct.size()) + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (String code : distinct) {
+                pstmt.setString(i++, code);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String key = idKey(rs.getString("course_code"));
+                    ids.put(key, rs.getInt("course_id"));
+                    cache.put(key, rs.getInt("course_id"), stamp);
+                }
+            }
+        }
+        return ids;
+    }
+
+    public int insert(Connection conn, String courseName, String courseCode, int credits, int instructorId, int classroomId)
+            throws SQLException {
+        String sql = "INSERT INTO Course (course_name, course_code, credits, instructor_id, classroom_id) " +
+                     "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, courseName);
+            pstmt.setString(2, courseCode);
+            pstmt.setInt(3, credits);
+            pstmt.setInt(4, instructorId);
+            pstmt.setInt(5, classroomId);
+            int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                SearchIndex.update(index -> index.putCourse(courseCode, courseName));
+            }
+            return rows;
+        }
+    }
+
+    // one JDBC batch; course_id of the records is ignored
+    public int[] insertBatch(Connection conn, List<Course> courses) throws SQLException {
+        String sql = "INSERT INTO Course (course_name, course_code, credits, instructor_id, classroom_id) " +
+                     "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Course course : courses) {
+                pstmt.setString(1, course.courseName());
+                pstmt.setString(2, course.courseCode());
+                pstmt.setInt(3, course.credits());
+                pstmt.setInt(4, course.instructorId());
+                pstmt.setInt(5, course.classroomId());
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            SearchIndex.update(index -> {
+                for (Course course : courses) {
+                    index.putCourse(course.courseCode(), course.courseName());
+                }
+            });
+            return counts;
+        }
+    }
+
+    public int updateCredits(Connection conn, String courseCode, int credits) throws SQLException {
+        String sql = "UPDATE Course SET credits = ? WHERE course_code = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, credits);
+            pstmt.setString(2, courseCode);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // enrollments go with the course (ON DELETE CASCADE)
+    public int deleteByCode(Connection conn, String courseCode) throws SQLException {
+        String sql = "DELETE FROM Course WHERE course_code = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, courseCode);
+            int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                SearchIndex.update(index -> index.remove(SearchIndex.Kind.COURSE, courseCode));
+            }
+            return rows;
+        } finally {
+            idCache.invalidate(idKey(courseCode));
+        }
+    }
+
+    private static Course map(ResultSet rs) throws SQLException {
+        return new Course(
+            rs.getInt("course_id"),
+            rs.getString("course_code"),
+            rs.getString("course_name"),
+            rs.getInt("credits"),
+            rs.getInt("instructor_id"),
+            rs.getInt("classroom_id"));
+    }
+
+    private static CourseDetail mapDetail(ResultSet rs) throws SQLException {
+        Course course = map(rs);
+        Instructor instructor = new Instructor(
+            course.instructorId(),
+            rs.getString("instructor_first"),
+            rs.getString("instructor_last"),
+            rs.getString("instructor_email"),
+            rs.getString("instructor_department"));
+        Classroom classroom = new Classroom(
+            course.classroomId(),
+            rs.getString("building"),
+            rs.getString("room_number"),
+            rs.getInt("capacity"));
+        return new CourseDetail(course, instructor, classroom);
+    }
+}
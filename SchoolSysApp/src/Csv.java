@@ -0,0 +1,66 @@
+import java.util.*;
+
+// minimal RFC 4180 style CSV helpers for the import/load commands
+// (quoted fields may contain commas and doubled quotes, but not line breaks)
+final class Csv {
+    private Csv() {
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    // quote a value only when it needs it
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // header name -> column index, case-insensitive
+    static Map<String, Integer> headerIndex(List<String> header) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            index.put(header.get(i).toLowerCase(), i);
+        }
+        return index;
+    }
+
+    static String field(List<String> row, Integer column) {
+        if (column == null || column >= row.size()) {
+            return "";
+        }
+        return row.get(column);
+    }
+}
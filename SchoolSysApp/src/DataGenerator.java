@@ -0,0 +1,670 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// "generate" command: synthetic instructors, classrooms, courses, students and enrollments at any scale
+// distributions are meant to look like a real campus: course demand follows a Zipf curve (a few
+// intro courses everyone takes, a long tail of small ones), popular courses fill their rooms so students
+// spill over to others, students attend a window of terms, take lighter Winter/Summer sessions,
+// and grades lean towards A/B with a per-student bias. the newest term has no grades yet.
+// rows go in with batched multi-row inserts (rewriteBatchedStatements), students in parallel id
+// ranges and enrollments one semester per worker, since the enrollment triggers only lock rows of
+// their own semester. everything generated uses the GEN_DOMAIN email domain so it can be removed
+public class DataGenerator {
+    static final String GEN_DOMAIN = "@gen.sjsu.edu";
+
+    // MySQL error codes that mean "try the batch again"
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String[] SEASONS = {"Winter", "Spring", "Summer", "Fall"};
+    private static final String[][] DEPARTMENTS = {
+        {"CS", "Computer Science", "Programming", "Data Structures", "Algorithms", "Databases", "Networks", "Operating Systems"},
+        {"MATH", "Mathematics", "Calculus", "Linear Algebra", "Discrete Mathematics", "Number Theory", "Analysis"},
+        {"STAT", "Statistics", "Probability", "Statistical Methods", "Regression", "Bayesian Inference"},
+        {"PHYS", "Physics", "Mechanics", "Electromagnetism", "Thermodynamics", "Quantum Physics", "Optics"},
+        {"CHEM", "Chemistry", "General Chemistry", "Organic Chemistry", "Biochemistry", "Physical Chemistry"},
+        {"BIOL", "Biology", "Cell Biology", "Genetics", "Ecology", "Microbiology", "Physiology"},
+        {"ENGL", "English", "Composition", "American Literature", "Creative Writing", "Rhetoric", "Shakespeare"},
+        {"HIST", "History", "World History", "US History", "Modern Europe", "Ancient Civilizations"},
+        {"ECON", "Economics", "Microeconomics", "Macroeconomics", "Econometrics", "Game Theory"},
+        {"PSYC", "Psychology", "General Psychology", "Cognitive Psychology", "Social Psychology", "Research Methods"},
+        {"EE", "Electrical Engineering", "Circuits", "Signals and Systems", "Digital Design", "Electronics"},
+        {"ME", "Mechanical Engineering", "Statics", "Dynamics", "Fluid Mechanics", "Machine Design"},
+        {"BUS", "Business", "Accounting", "Marketing", "Finance", "Management", "Business Law"},
+        {"PHIL", "Philosophy", "Ethics", "Logic", "Philosophy of Mind", "Political Philosophy"},
+        {"COMM", "Communication Studies", "Public Speaking", "Media Studies", "Interpersonal Communication"},
+        {"ART", "Art", "Drawing", "Art History", "Design", "Photography"},
+    };
+    private static final String[] LEVELS = {"Introduction to", "Foundations of", "Intermediate", "Topics in", "Advanced", "Seminar in"};
+    private static final String[] BUILDINGS = {
+        "Duncan Hall", "MacQuarrie Hall", "Clark Hall", "Sweeney Hall", "Boccardo Hall", "Hugh Gillis Hall",
+        "Dudley Moorhead Hall", "Washington Square Hall", "Science Building", "Engineering Annex"};
+    // rooms come in these sizes; a course gets the smallest one that fits its expected demand
+    private static final int[] ROOM_SIZES = {25, 35, 45, 60, 80, 120, 200, 300, 500};
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "Michael", "Jennifer", "David", "Linda", "Daniel", "Maria", "Jose", "Sarah", "Wei", "Priya",
+        "Luis", "Emily", "Kevin", "Jessica", "Anh", "Ashley", "Juan", "Aisha", "Ethan", "Sophia", "Carlos", "Olivia",
+        "Minh", "Isabella", "Raj", "Emma", "Andrew", "Mia", "Jason", "Chloe", "Ryan", "Hannah", "Eric", "Grace",
+        "Brandon", "Nicole", "Tyler", "Samantha", "Omar", "Fatima", "Hiroshi", "Yuki", "Diego", "Camila", "Arjun",
+        "Ananya", "Noah", "Ava", "Liam", "Zoe", "Mateo", "Lucia", "Ivan", "Elena", "Samuel", "Leah", "Joshua", "Rachel"};
+    private static final String[] LAST_NAMES = {
+        "Nguyen", "Garcia", "Smith", "Chen", "Lee", "Martinez", "Kim", "Patel", "Tran", "Johnson", "Lopez", "Wang",
+        "Rodriguez", "Williams", "Hernandez", "Le", "Brown", "Gonzalez", "Singh", "Pham", "Liu", "Jones", "Perez",
+        "Zhang", "Davis", "Sanchez", "Wong", "Miller", "Ramirez", "Huang", "Wilson", "Torres", "Shah", "Park",
+        "Anderson", "Flores", "Kumar", "Lin", "Taylor", "Rivera", "Ho", "Thomas", "Gomez", "Yang", "Moore", "Diaz",
+        "Khan", "Cruz", "Jackson", "Reyes", "Wu", "Martin", "Morales", "Chang", "White", "Ortiz", "Nair", "Lam"};
+    private static final String[] GRADES = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F"};
+    private static final double[] GRADE_WEIGHTS = {22, 13, 13, 15, 9, 7, 8, 4, 4, 5};
+    // per-student shift applied to the grade index: -2 (stronger) .. +2 (weaker)
+    private static final double[] ABILITY_WEIGHTS = {10, 20, 40, 20, 10};
+    private static final int[] CREDIT_VALUES = {3, 4, 2, 1, 5};
+    private static final double[] CREDIT_WEIGHTS = {70, 18, 5, 4, 3};
+    // offset from the mean course load of a regular term
+    private static final double[] LOAD_WEIGHTS = {5, 20, 45, 25, 5};
+
+    private final ConnectionPool pool;
+    private final int workers;
+    private final int batchSize;
+
+    // generation parameters
+    public record Settings(int students, int courses, int sections, int semesters, String lastSemester,
+                           int coursesPerTerm, double skew, long seed) {
+    }
+
+    private record Term(String name, boolean regular, int regularIndex, int sections, double participation) {
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement pstmt, int row) throws SQLException;
+    }
+
+    public DataGenerator(ConnectionPool pool, int workers, int batchSize) {
+        if (workers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Workers and batch size must be at least 1");
+        }
+        this.pool = pool;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    public boolean generate(Settings settings) throws SQLException, InterruptedException {
+        if (!Main.isValidSemester(settings.lastSemester())) {
+            System.err.println("Invalid --last-semester (expected e.g. \"Spring 2026\"): " + settings.lastSemester());
+            return false;
+        }
+        if (settings.students() < 1 || settings.courses() < 1 || settings.semesters() < 1 || settings.coursesPerTerm() < 1) {
+            System.err.println("--students, --courses, --semesters and --courses-per-term must be at least 1");
+            return false;
+        }
+        int sections = Math.min(settings.sections(), settings.courses());
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        List<Term> terms = terms(settings, sections);
+
+        int firstInstructor;
+        int firstClassroom;
+        int firstCourse;
+        int firstStudent;
+        try (Connection conn = pool.getConnection()) {
+            if (generatedDataPresent(conn)) {
+                System.err.println("Generated data is already loaded - remove it first with: java Main generate --remove");
+                return false;
+            }
+            firstInstructor = nextId(conn, "Instructor", "instructor_id");
+            firstClassroom = nextId(conn, "Classroom", "classroom_id");
+            firstCourse = nextId(conn, "Course", "course_id");
+            firstStudent = nextId(conn, "Student", "student_id");
+        }
+
+        if (workers > pool.getMaxSize()) {
+            System.out.println("Note: " + workers + " workers but db.pool.max is " + pool.getMaxSize()
+                + "; workers will wait for connections");
+        }
+        long start = System.nanoTime();
+        System.out.printf("Generating %d students, %d courses (%d sections per regular term), %d semesters %s .. %s%n",
+            settings.students(), settings.courses(), sections, terms.size(), terms.get(0).name(), settings.lastSemester());
+
+        // students: a window of regular terms each, a name, a birthday and a grade bias
+        int regularTerms = (int) terms.stream().filter(Term::regular).count();
+        int[] startTerm = new int[settings.students()];
+        byte[] termCount = new byte[settings.students()];
+        byte[] ability = new byte[settings.students()];
+        short[] firstName = new short[settings.students()];
+        short[] lastName = new short[settings.students()];
+        // age when starting: 18 for most, up to 25; plus the day of the year
+        short[] birthOffset = new short[settings.students()];
+        double[] firstNameWeights = zipfWeights(FIRST_NAMES.length, 0.8);
+        double[] lastNameWeights = zipfWeights(LAST_NAMES.length, 0.9);
+        for (int s = 0; s < settings.students(); s++) {
+            startTerm[s] = random.nextInt(-7, regularTerms);
+            double r = random.nextDouble();
+            // most stay four years, some longer, some leave early
+            termCount[s] = (byte) (r < 0.6 ? 8 : r < 0.8 ? random.nextInt(9, 13) : random.nextInt(1, 5));
+            ability[s] = (byte) (pick(ABILITY_WEIGHTS, random) - 2);
+            firstName[s] = (short) pick(firstNameWeights, random);
+            lastName[s] = (short) pick(lastNameWeights, random);
+            birthOffset[s] = (short) ((random.nextInt(10) < 8 ? 0 : random.nextInt(1, 8)) * 365 + random.nextInt(365));
+        }
+
+        // courses ranked by popularity; rooms sized from each course's expected share of the busiest term
+        int courseCount = settings.courses();
+        double[] popularity = zipfWeights(courseCount, settings.skew());
+        double totalPopularity = 0;
+        for (double weight : popularity) {
+            totalPopularity += weight;
+        }
+        long busiestTerm = 0;
+        for (int t = 0; t < regularTerms; t++) {
+            long active = 0;
+            for (int s = 0; s < settings.students(); s++) {
+                if (startTerm[s] <= t && t < startTerm[s] + termCount[s]) {
+                    active++;
+                }
+            }
+            busiestTerm = Math.max(busiestTerm, active);
+        }
+        double offeredShare = (double) sections / courseCount;
+        int[] roomSize = new int[courseCount];
+        int[] roomsBySize = new int[ROOM_SIZES.length];
+        for (int c = 0; c < courseCount; c++) {
+            double demand = busiestTerm * settings.coursesPerTerm() * popularity[c] / (totalPopularity * offeredShare);
+            int size = ROOM_SIZES.length - 1;
+            for (int k = 0; k < ROOM_SIZES.length; k++) {
+                if (ROOM_SIZES[k] >= demand * 1.15) {
+                    size = k;
+                    break;
+                }
+            }
+            roomSize[c] = size;
+            roomsBySize[size]++;
+        }
+        // rooms are shared by up to four courses (different time slots)
+        int[] firstRoomOfSize = new int[ROOM_SIZES.length];
+        int classroomCount = 0;
+        for (int k = 0; k < ROOM_SIZES.length; k++) {
+            firstRoomOfSize[k] = classroomCount;
+            classroomCount += (roomsBySize[k] + 3) / 4;
+        }
+        int[] capacity = new int[courseCount];
+        int[] usedOfSize = new int[ROOM_SIZES.length];
+        int[] classroomOf = new int[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            int k = roomSize[c];
+            classroomOf[c] = firstRoomOfSize[k] + usedOfSize[k]++ / 4;
+            capacity[c] = ROOM_SIZES[k];
+        }
+        int[] roomCapacity = new int[classroomCount];
+        for (int k = 0; k < ROOM_SIZES.length; k++) {
+            for (int room = firstRoomOfSize[k]; room < firstRoomOfSize[k] + (roomsBySize[k] + 3) / 4; room++) {
+                roomCapacity[room] = ROOM_SIZES[k];
+            }
+        }
+        int instructorCount = Math.max(DEPARTMENTS.length, courseCount / 3);
+
+        try (Connection conn = pool.getConnection()) {
+            long stepStart = System.nanoTime();
+            insert(conn, "INSERT INTO Instructor (instructor_id, first_name, last_name, email, department) VALUES (?, ?, ?, ?, ?)",
+                instructorCount, (pstmt, i) -> {
+                    String first = FIRST_NAMES[(i * 7) % FIRST_NAMES.length];
+                    String last = LAST_NAMES[(i * 11) % LAST_NAMES.length];
+                    pstmt.setInt(1, firstInstructor + i);
+                    pstmt.setString(2, first);
+                    pstmt.setString(3, last);
+                    pstmt.setString(4, (first.charAt(0) + last + ".i" + (i + 1)).toLowerCase() + GEN_DOMAIN);
+                    pstmt.setString(5, DEPARTMENTS[i % DEPARTMENTS.length][1]);
+                });
+            report("Instructors", instructorCount, stepStart);
+
+            stepStart = System.nanoTime();
+            insert(conn, "INSERT INTO Classroom (classroom_id, building, room_number, capacity) VALUES (?, ?, ?, ?)",
+                classroomCount, (pstmt, i) -> {
+                    pstmt.setInt(1, firstClassroom + i);
+                    pstmt.setString(2, BUILDINGS[i % BUILDINGS.length]);
+                    pstmt.setString(3, String.valueOf(100 + i / BUILDINGS.length));
+                    pstmt.setInt(4, roomCapacity[i]);
+                });
+            report("Classrooms", classroomCount, stepStart);
+
+            stepStart = System.nanoTime();
+            SplittableRandom courseRandom = random.split();
+            int[] credits = new int[courseCount];
+            for (int c = 0; c < courseCount; c++) {
+                credits[c] = CREDIT_VALUES[pick(CREDIT_WEIGHTS, courseRandom)];
+            }
+            insert(conn, "INSERT INTO Course (course_id, course_name, course_code, credits, instructor_id, classroom_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", courseCount, (pstmt, c) -> {
+                    // popular courses are spread over the departments and get the introductory titles
+                    int department = c % DEPARTMENTS.length;
+                    int number = c / DEPARTMENTS.length;
+                    String[] dept = DEPARTMENTS[department];
+                    int topics = dept.length - 2;
+                    String level = LEVELS[Math.min(LEVELS.length - 1, (int) ((long) c * LEVELS.length / courseCount))];
+                    String name = level + " " + dept[2 + number % topics];
+                    if (number >= topics) {
+                        name += " " + (number / topics + 1);
+                    }
+                    pstmt.setInt(1, firstCourse + c);
+                    pstmt.setString(2, name);
+                    pstmt.setString(3, dept[0] + (1000 + number));
+                    pstmt.setInt(4, credits[c]);
+                    // instructors of the same department, in turn
+                    int perDepartment = Math.max(1, instructorCount / DEPARTMENTS.length);
+                    pstmt.setInt(5, firstInstructor + department + DEPARTMENTS.length * (number % perDepartment));
+                    pstmt.setInt(6, firstClassroom + classroomOf[c]);
+                });
+            report("Courses", courseCount, stepStart);
+        }
+
+        long stepStart = System.nanoTime();
+        LocalDate lastDay = LocalDate.of(Integer.parseInt(settings.lastSemester().substring(settings.lastSemester().indexOf(' ') + 1)), 1, 1);
+        long studentRows = runParallel(partition(settings.students(), workers), range -> {
+            try (Connection conn = pool.getConnection()) {
+                return insertRange(conn, "INSERT INTO Student (student_id, first_name, last_name, dob, email) VALUES (?, ?, ?, ?, ?)",
+                    range[0], range[1], (pstmt, s) -> {
+                        String first = FIRST_NAMES[firstName[s]];
+                        String last = LAST_NAMES[lastName[s]];
+                        // regular terms are half a year apart
+                        LocalDate dob = lastDay.plusMonths(6L * (startTerm[s] - regularTerms))
+                            .minusYears(18).minusDays(birthOffset[s]);
+                        pstmt.setInt(1, firstStudent + s);
+                        pstmt.setString(2, first);
+                        pstmt.setString(3, last);
+                        pstmt.setDate(4, java.sql.Date.valueOf(dob));
+                        pstmt.setString(5, (first + "." + last + "." + (s + 1)).toLowerCase() + GEN_DOMAIN);
+                    });
+            }
+        });
+        report("Students", studentRows, stepStart);
+
+        // enrollments: one task per semester, each with its own random stream so the data doesn't
+        // depend on how the tasks are scheduled
+        stepStart = System.nanoTime();
+        List<int[]> semesterTasks = new ArrayList<>();
+        for (int t = 0; t < terms.size(); t++) {
+            semesterTasks.add(new int[] {t});
+        }
+        long enrollmentRows = runParallel(semesterTasks, task -> {
+            Term term = terms.get(task[0]);
+            long termStart = System.nanoTime();
+            long[] unplaced = new long[1];
+            long rows;
+            try (Connection conn = pool.getConnection()) {
+                rows = enrollTerm(conn, term, task[0] == terms.size() - 1, settings, popularity, capacity,
+                    startTerm, termCount, ability, firstStudent, firstCourse, unplaced);
+            }
+            double seconds = (System.nanoTime() - termStart) / 1_000_000_000.0;
+            System.out.printf("  %-12s %9d enrollments in %6.1f s (%.0f rows/sec)%s%n", term.name(), rows, seconds,
+                seconds > 0 ? rows / seconds : 0.0,
+                unplaced[0] > 0 ? ", " + unplaced[0] + " course requests found no open section" : "");
+            return rows;
+        });
+        report("Enrollments", enrollmentRows, stepStart);
+
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE Student, Instructor, Classroom, Course, Enrollment, SectionEnrollmentCount, " +
+                "TranscriptEntry, StudentTermGpa");
+        }
+        System.out.printf("%nGenerated %d rows in %.1f s%n",
+            instructorCount + classroomCount + courseCount + studentRows + enrollmentRows,
+            (System.nanoTime() - start) / 1_000_000_000.0);
+        return true;
+    }
+
+    // the requested number of terms ending with lastSemester, in calendar order
+    private static List<Term> terms(Settings settings, int sections) {
+        String last = settings.lastSemester();
+        int season = Arrays.asList(SEASONS).indexOf(last.substring(0, last.indexOf(' ')));
+        int year = Integer.parseInt(last.substring(last.indexOf(' ') + 1));
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < settings.semesters(); i++) {
+            names.add(0, SEASONS[season] + " " + year);
+            if (--season < 0) {
+                season = SEASONS.length - 1;
+                year--;
+            }
+        }
+        List<Term> terms = new ArrayList<>();
+        int regularIndex = -1;
+        for (String name : names) {
+            boolean regular = name.startsWith("Spring") || name.startsWith("Fall");
+            if (regular) {
+                regularIndex++;
+                terms.add(new Term(name, true, regularIndex, sections, 1.0));
+            } else {
+                // short sessions: fewer sections, and only some of the students enrolled around them
+                terms.add(new Term(name, false, Math.max(0, regularIndex), Math.max(1, sections / 5),
+                    name.startsWith("Summer") ? 0.2 : 0.06));
+            }
+        }
+        return terms;
+    }
+
+    private long enrollTerm(Connection conn, Term term, boolean current, Settings settings, double[] popularity,
+                            int[] capacity, int[] startTerm, byte[] termCount, byte[] ability,
+                            int firstStudent, int firstCourse, long[] unplaced) throws SQLException {
+        SplittableRandom random = new SplittableRandom(settings.seed() * 31 + term.name().hashCode());
+
+        // the most popular tenth of the sections is always offered, the rest are a random pick
+        int courseCount = popularity.length;
+        int[] offered = new int[term.sections()];
+        int[] order = new int[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            order[c] = c;
+        }
+        int always = Math.min(term.sections(), Math.max(1, term.sections() / 10));
+        for (int k = always; k < term.sections(); k++) {
+            int j = random.nextInt(k, courseCount);
+            int swap = order[k];
+            order[k] = order[j];
+            order[j] = swap;
+        }
+        System.arraycopy(order, 0, offered, 0, term.sections());
+        WeightTree open = new WeightTree(offered.length);
+        for (int k = 0; k < offered.length; k++) {
+            open.set(k, popularity[offered[k]]);
+        }
+        int[] taken = new int[offered.length];
+
+        int[] students = new int[batchSize];
+        int[] courses = new int[batchSize];
+        String[] grades = new String[batchSize];
+        int pending = 0;
+        long rows = 0;
+        String sql = "INSERT INTO Enrollment (student_id, course_id, semester, grade) VALUES (?, ?, ?, ?)";
+        int[] picked = new int[16];
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int s = 0; s < startTerm.length; s++) {
+                int regularIndex = term.regularIndex();
+                if (regularIndex < startTerm[s] || regularIndex >= startTerm[s] + termCount[s]) {
+                    continue;
+                }
+                if (!term.regular() && random.nextDouble() >= term.participation()) {
+                    continue;
+                }
+                int load = term.regular()
+                    ? Math.max(1, settings.coursesPerTerm() + pick(LOAD_WEIGHTS, random) - 2)
+                    : random.nextInt(1, 3);
+                load = Math.min(load, picked.length);
+                int count = 0;
+                for (int attempt = 0; count < load && attempt < load * 4; attempt++) {
+                    if (open.total() <= 1e-9) {
+                        break;
+                    }
+                    int k = open.find(random.nextDouble() * open.total());
+                    if (taken[k] >= capacity[offered[k]] || contains(picked, count, k)) {
+                        continue;
+                    }
+                    picked[count++] = k;
+                    if (++taken[k] == capacity[offered[k]]) {
+                        open.set(k, 0);
+                    }
+                    students[pending] = firstStudent + s;
+                    courses[pending] = firstCourse + offered[k];
+                    grades[pending] = current ? null
+                        : GRADES[Math.max(0, Math.min(GRADES.length - 1, pick(GRADE_WEIGHTS, random) + ability[s]))];
+                    if (++pending == batchSize) {
+                        rows += flush(conn, pstmt, term.name(), students, courses, grades, pending);
+                        pending = 0;
+                    }
+                }
+                unplaced[0] += load - count;
+            }
+            rows += flush(conn, pstmt, term.name(), students, courses, grades, pending);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return rows;
+    }
+
+    // one batch in its own transaction, retried on deadlock / lock wait timeout
+    private static int flush(Connection conn, PreparedStatement pstmt, String semester, int[] students, int[] courses,
+                             String[] grades, int count) throws SQLException {
+        if (count == 0) {
+            return 0;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                for (int i = 0; i < count; i++) {
+                    pstmt.setInt(1, students[i]);
+                    pstmt.setInt(2, courses[i]);
+                    pstmt.setString(3, semester);
+                    pstmt.setString(4, grades[i]);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return count;
+            } catch (SQLException e) {
+                conn.rollback();
+                pstmt.clearBatch();
+                if ((e.getErrorCode() != ER_LOCK_DEADLOCK && e.getErrorCode() != ER_LOCK_WAIT_TIMEOUT) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void insert(Connection conn, String sql, int rows, Binder binder) throws SQLException {
+        insertRange(conn, sql, 0, rows, binder);
+    }
+
+    // rows [from, to) in batches, one transaction per batch
+    private long insertRange(Connection conn, String sql, int from, int to, Binder binder) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int row = from; row < to; row++) {
+                binder.bind(pstmt, row);
+                pstmt.addBatch();
+                if ((row - from + 1) % batchSize == 0) {
+                    pstmt.executeBatch();
+                    conn.commit();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return to - from;
+    }
+
+    private interface Task {
+        long run(int[] argument) throws Exception;
+    }
+
+    // runs the tasks on the worker pool and returns the sum of their results
+    private long runParallel(List<int[]> arguments, Task task) throws SQLException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, arguments.size()));
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int[] argument : arguments) {
+            futures.add(executor.submit(() -> task.run(argument)));
+        }
+        executor.shutdown();
+        long total = 0;
+        SQLException failure = null;
+        for (Future<Long> future : futures) {
+            try {
+                total += future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof SQLException sql ? sql : new SQLException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return total;
+    }
+
+    // [from, to) ranges splitting n rows into one part per worker
+    private static List<int[]> partition(int n, int parts) {
+        List<int[]> ranges = new ArrayList<>();
+        int size = (n + parts - 1) / parts;
+        for (int from = 0; from < n; from += size) {
+            ranges.add(new int[] {from, Math.min(n, from + size)});
+        }
+        return ranges;
+    }
+
+    // deletes everything generate added: students (their enrollments, transcript rows and GPA totals
+    // cascade) in id chunks so no single transaction gets huge, then courses, instructors and rooms
+    public boolean remove() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            int[] range = new int[2];
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT MIN(student_id), MAX(student_id) FROM Student WHERE email LIKE ?")) {
+                pstmt.setString(1, "%" + GEN_DOMAIN);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    range[0] = rs.getInt(1);
+                    range[1] = rs.getInt(2);
+                }
+            }
+            long students = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "DELETE FROM Student WHERE student_id BETWEEN ? AND ? AND email LIKE ?")) {
+                for (int from = range[0]; range[1] > 0 && from <= range[1]; from += 10000) {
+                    pstmt.setInt(1, from);
+                    pstmt.setInt(2, Math.min(range[1], from + 9999));
+                    pstmt.setString(3, "%" + GEN_DOMAIN);
+                    students += pstmt.executeUpdate();
+                }
+            }
+            int courses;
+            int instructors;
+            int classrooms;
+            try (PreparedStatement deleteCourses = conn.prepareStatement(
+                     "DELETE FROM Course WHERE instructor_id IN (SELECT instructor_id FROM Instructor WHERE email LIKE ?)");
+                 PreparedStatement deleteInstructors = conn.prepareStatement("DELETE FROM Instructor WHERE email LIKE ?")) {
+                deleteCourses.setString(1, "%" + GEN_DOMAIN);
+                courses = deleteCourses.executeUpdate();
+                deleteInstructors.setString(1, "%" + GEN_DOMAIN);
+                instructors = deleteInstructors.executeUpdate();
+            }
+            StringBuilder sql = new StringBuilder("DELETE FROM Classroom WHERE building IN (");
+            for (int i = 0; i < BUILDINGS.length; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(") AND NOT EXISTS (SELECT 1 FROM Course c WHERE c.classroom_id = Classroom.classroom_id)");
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < BUILDINGS.length; i++) {
+                    pstmt.setString(i + 1, BUILDINGS[i]);
+                }
+                classrooms = pstmt.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE TABLE Student, Instructor, Classroom, Course, Enrollment, SectionEnrollmentCount, " +
+                    "TranscriptEntry, StudentTermGpa");
+            }
+            System.out.printf("Removed %d students, %d courses, %d instructors, %d classrooms in %.1f s%n",
+                students, courses, instructors, classrooms, (System.nanoTime() - start) / 1_000_000_000.0);
+            return true;
+        }
+    }
+
+    private static boolean generatedDataPresent(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM Instructor WHERE email LIKE ? UNION ALL SELECT 1 FROM Student WHERE email LIKE ? LIMIT 1")) {
+            pstmt.setString(1, "%" + GEN_DOMAIN);
+            pstmt.setString(2, "%" + GEN_DOMAIN);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // ids are assigned here rather than by AUTO_INCREMENT so rows can reference each other without reading them back
+    private static int nextId(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void report(String label, long rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%-12s %10d rows in %6.1f s (%.0f rows/sec)%n", label, rows, seconds, seconds > 0 ? rows / seconds : 0.0);
+    }
+
+    // 1 / rank^skew for ranks 1..n
+    private static double[] zipfWeights(int n, double skew) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, skew);
+        }
+        return weights;
+    }
+
+    // index drawn with probability proportional to its weight
+    private static int pick(double[] weights, SplittableRandom random) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Fenwick tree over section weights: draw a section by popularity and drop full ones, both O(log n)
+    private static final class WeightTree {
+        private final double[] tree;
+        private final double[] weights;
+        private double total;
+
+        WeightTree(int size) {
+            tree = new double[size + 1];
+            weights = new double[size];
+        }
+
+        void set(int index, double weight) {
+            double delta = weight - weights[index];
+            weights[index] = weight;
+            total += delta;
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        double total() {
+            return total;
+        }
+
+        // the index whose cumulative weight range contains target
+        int find(double target) {
+            int index = 0;
+            for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+                int next = index + step;
+                if (next < tree.length && tree[next] <= target) {
+                    index = next;
+                    target -= tree[next];
+                }
+            }
+            return Math.min(index, weights.length - 1);
+        }
+    }
+}
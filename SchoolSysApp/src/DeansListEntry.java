@@ -0,0 +1,13 @@
+import java.math.BigDecimal;
+
+// a student who made the dean's list for a semester, with that term's graded credits and quality points
+public record DeansListEntry(int studentId, String firstName, String lastName, String email,
+                             int gradedCredits, BigDecimal qualityPoints) {
+    public String studentName() {
+        return firstName + " " + lastName;
+    }
+
+    public BigDecimal gpa() {
+        return TermGpa.gpa(qualityPoints, gradedCredits);
+    }
+}
@@ -0,0 +1,288 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+
+// bulk enrollment import from CSV (java Main import enrollments.csv)
+// expected header: email,course_code,semester[,grade]
+// the file is read one line at a time; students and courses are resolved through maps
+// loaded once at the start, and rows go to the database in JDBC batches
+public class EnrollmentImporter {
+    private static final String INSERT_SQL =
+        "INSERT INTO Enrollment (student_id, course_id, semester, grade) VALUES (?, ?, ?, ?)";
+
+    private final ConnectionPool pool;
+    private final int batchSize;
+    private final int commitEvery;
+
+    // lookups built once per run
+    private final Map<String, Integer> studentIds = new HashMap<>();
+    private final Map<String, Integer> courseIds = new HashMap<>();
+    private final Map<Integer, Integer> courseCapacity = new HashMap<>();
+    // "course_id|semester" -> current enrollment count, kept up to date as rows are inserted
+    private final Map<String, Integer> sectionCounts = new HashMap<>();
+    // enrollments added by this run, to catch duplicates inside the file without a round trip
+    private final Set<String> importedKeys = new HashSet<>();
+
+    private long rowsRead = 0;
+    private long rowsInserted = 0;
+    private long rowsRejected = 0;
+
+    public EnrollmentImporter(ConnectionPool pool, int batchSize, int commitEvery) {
+        if (batchSize < 1 || commitEvery < 1) {
+            throw new IllegalArgumentException("Batch size and commit interval must be at least 1");
+        }
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.commitEvery = commitEvery;
+    }
+
+    public void importFile(String inputPath, String rejectsPath) throws IOException, SQLException {
+        long start = System.nanoTime();
+
+        try (Connection conn = pool.getConnection();
+             BufferedReader in = new BufferedReader(
+                 new InputStreamReader(new FileInputStream(inputPath), StandardCharsets.UTF_8), 1 << 16);
+             BufferedWriter rejects = new BufferedWriter(
+                 new OutputStreamWriter(new FileOutputStream(rejectsPath), StandardCharsets.UTF_8), 1 << 16)) {
+
+            System.out.println("Loading lookup tables...");
+            loadLookups(conn);
+            System.out.printf("Loaded %d students, %d courses, %d sections%n",
+                studentIds.size(), courseIds.size(), sectionCounts.size());
+
+            String headerLine = in.readLine();
+            if (headerLine == null) {
+                System.out.println("Input file is empty.");
+                return;
+            }
+            Map<String, Integer> header = Csv.headerIndex(Csv.parseLine(headerLine));
+            Integer emailCol = header.get("email");
+            Integer codeCol = header.get("course_code");
+            Integer semesterCol = header.get("semester");
+            Integer gradeCol = header.get("grade");
+            if (emailCol == null || codeCol == null || semesterCol == null) {
+                System.out.println("Error: Header must contain email, course_code and semester columns.");
+                return;
+            }
+            rejects.write(headerLine + ",reject_reason");
+            rejects.newLine();
+
+            conn.setAutoCommit(false);
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            long sinceCommit = 0;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    rowsRead++;
+                    List<String> fields = Csv.parseLine(line);
+                    String email = Csv.field(fields, emailCol);
+                    String courseCode = Csv.field(fields, codeCol).toUpperCase();
+                    String semester = Csv.field(fields, semesterCol);
+                    String grade = Csv.field(fields, gradeCol).toUpperCase();
+
+                    String reason = validate(email, courseCode, semester, grade);
+                    if (reason != null) {
+                        reject(rejects, line, reason);
+                        continue;
+                    }
+
+                    PendingRow row = new PendingRow(line, studentIds.get(email.toLowerCase()),
+                        courseIds.get(courseCode), semester, grade.isEmpty() ? null : grade);
+                    reserve(row);
+                    batch.add(row);
+
+                    if (batch.size() >= batchSize) {
+                        sinceCommit += flush(conn, pstmt, batch, rejects);
+                        if (sinceCommit >= commitEvery) {
+                            conn.commit();
+                            sinceCommit = 0;
+                            printProgress(start);
+                        }
+                    }
+                }
+                flush(conn, pstmt, batch, rejects);
+                conn.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                // rows already committed stay; only the open batch is lost
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.println("\nImport complete");
+        System.out.println("Rows read: " + rowsRead);
+        System.out.println("Rows inserted: " + rowsInserted);
+        System.out.println("Rows rejected: " + rowsRejected + (rowsRejected > 0 ? " (see " + rejectsPath + ")" : ""));
+        System.out.printf("Elapsed: %.2f s (%.0f rows/sec)%n", seconds, seconds > 0 ? rowsRead / seconds : 0.0);
+    }
+
+    private void loadLookups(Connection conn) throws SQLException {
+        try (Statement stmt = streamingStatement(conn);
+             ResultSet rs = stmt.executeQuery("SELECT student_id, email FROM Student")) {
+            while (rs.next()) {
+                studentIds.put(rs.getString("email").toLowerCase(), rs.getInt("student_id"));
+            }
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT c.course_id, c.course_code, cl.capacity " +
+                 "FROM Course c JOIN Classroom cl ON c.classroom_id = cl.classroom_id")) {
+            while (rs.next()) {
+                courseIds.put(rs.getString("course_code").toUpperCase(), rs.getInt("course_id"));
+                courseCapacity.put(rs.getInt("course_id"), rs.getInt("capacity"));
+            }
+        }
+        try (Statement stmt = streamingStatement(conn);
+             ResultSet rs = stmt.executeQuery("SELECT course_id, semester, enrolled FROM SectionEnrollmentCount")) {
+            while (rs.next()) {
+                sectionCounts.put(sectionKey(rs.getInt("course_id"), rs.getString("semester")), rs.getInt("enrolled"));
+            }
+        }
+    }
+
+    // forward-only statement that streams rows instead of buffering the whole result (MySQL driver)
+    private static Statement streamingStatement(Connection conn) throws SQLException {
+        Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+
+    // same rules as the console enrollment: known student/course, semester format, grade set, capacity
+    private String validate(String email, String courseCode, String semester, String grade) {
+        if (email.isEmpty() || courseCode.isEmpty() || semester.isEmpty()) {
+            return "missing email, course_code or semester";
+        }
+        Integer studentId = studentIds.get(email.toLowerCase());
+        if (studentId == null) {
+            return "student not found";
+        }
+        Integer courseId = courseIds.get(courseCode);
+        if (courseId == null) {
+            return "course not found";
+        }
+        if (!Main.isValidSemester(semester)) {
+            return "invalid semester format";
+        }
+        if (!grade.isEmpty() && !Main.isValidGrade(grade)) {
+            return "invalid grade";
+        }
+        if (importedKeys.contains(studentId + "|" + sectionKey(courseId, semester))) {
+            return "already enrolled";
+        }
+        int enrolled = sectionCounts.getOrDefault(sectionKey(courseId, semester), 0);
+        if (enrolled >= courseCapacity.get(courseId)) {
+            return "classroom capacity exceeded";
+        }
+        return null;
+    }
+
+    // count the row against its section before it is sent, so later rows in the same batch see it
+    private void reserve(PendingRow row) {
+        sectionCounts.merge(sectionKey(row.courseId, row.semester), 1, Integer::sum);
+        importedKeys.add(row.studentId + "|" + sectionKey(row.courseId, row.semester));
+    }
+
+    private void unreserve(PendingRow row) {
+        sectionCounts.merge(sectionKey(row.courseId, row.semester), -1, Integer::sum);
+        importedKeys.remove(row.studentId + "|" + sectionKey(row.courseId, row.semester));
+    }
+
+    // send one batch; if the database rejects it, undo to a savepoint and retry row by row
+    // so that only the bad rows end up in the rejects file
+    private int flush(Connection conn, PreparedStatement pstmt, List<PendingRow> batch, BufferedWriter rejects)
+            throws SQLException, IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int inserted = 0;
+        Savepoint beforeBatch = conn.setSavepoint();
+        try {
+            for (PendingRow row : batch) {
+                bind(pstmt, row);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            inserted = batch.size();
+        } catch (BatchUpdateException e) {
+            pstmt.clearBatch();
+            conn.rollback(beforeBatch);
+            for (PendingRow row : batch) {
+                bind(pstmt, row);
+                try {
+                    pstmt.executeUpdate();
+                    inserted++;
+                } catch (SQLException rowError) {
+                    unreserve(row);
+                    reject(rejects, row.line, describe(rowError));
+                }
+            }
+        }
+        conn.releaseSavepoint(beforeBatch);
+        rowsInserted += inserted;
+        batch.clear();
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement pstmt, PendingRow row) throws SQLException {
+        pstmt.setInt(1, row.studentId);
+        pstmt.setInt(2, row.courseId);
+        pstmt.setString(3, row.semester);
+        if (row.grade == null) {
+            pstmt.setNull(4, Types.CHAR);
+        } else {
+            pstmt.setString(4, row.grade);
+        }
+    }
+
+    private static String describe(SQLException e) {
+        if ("23000".equals(e.getSQLState())) {
+            return "already enrolled";
+        }
+        if ("45000".equals(e.getSQLState())) {
+            return e.getMessage();
+        }
+        return "database error: " + e.getMessage();
+    }
+
+    private void reject(BufferedWriter rejects, String line, String reason) throws IOException {
+        rowsRejected++;
+        rejects.write(line);
+        rejects.write(',');
+        rejects.write(Csv.escape(reason));
+        rejects.newLine();
+    }
+
+    private void printProgress(long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("  %d rows read, %d inserted, %d rejected (%.0f rows/sec)%n",
+            rowsRead, rowsInserted, rowsRejected, seconds > 0 ? rowsRead / seconds : 0.0);
+    }
+
+    private static String sectionKey(int courseId, String semester) {
+        return courseId + "|" + semester;
+    }
+
+    private static final class PendingRow {
+        final String line;
+        final int studentId;
+        final int courseId;
+        final String semester;
+        final String grade;
+
+        PendingRow(String line, int studentId, int courseId, String semester, String grade) {
+            this.line = line;
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.semester = semester;
+            this.grade = grade;
+        }
+    }
+}
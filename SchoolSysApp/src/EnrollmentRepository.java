@@ -0,0 +1,321 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+// data access for the Enrollment table and the materialized transcript (TranscriptEntry)
+public class EnrollmentRepository {
+    private static final String ROW_COLUMNS =
+        "s.student_id, s.first_name, s.last_name, s.email, " +
+        "c.course_id, c.course_code, c.course_name, e.semester, e.grade " +
+        "FROM Enrollment e " +
+        "JOIN Student s ON e.student_id = s.student_id " +
+        "JOIN Course c ON e.course_id = c.course_id ";
+    private static final String ROW_SELECT = "SELECT " + ROW_COLUMNS;
+    // for the queries filtered on Enrollment's own columns: read the matching Enrollment rows through
+    // their index and look up each row's student and course
+    private static final String ENROLLMENT_FIRST_SELECT = "SELECT /*+ JOIN_PREFIX(e) */ " + ROW_COLUMNS;
+    // listing order for findAll/findPage/streamAll: idx_enroll_semester's (semester, course_id, student_id),
+    // which is unique, so the keyset never skips or repeats a row, and is read in index order without a sort
+    private static final String ALL_ORDER_BY = "ORDER BY e.semester, e.course_id, e.student_id";
+    private static final String ALL_SEEK = Jdbc.seekAfter("e.semester", "e.course_id", "e.student_id");
+    // one page: the keyset and LIMIT run on Enrollment alone (a range of idx_enroll_semester), and the
+    // student and course columns are joined in for just the rows of the page (the page first, so the
+    // final ORDER BY only sorts those rows)
+    private static final String PAGE_SELECT =
+        "SELECT /*+ JOIN_PREFIX(e) */ s.student_id, s.first_name, s.last_name, s.email, " +
+        "c.course_id, c.course_code, c.course_name, e.semester, e.grade " +
+        "FROM (SELECT e.student_id, e.course_id, e.semester, e.grade FROM Enrollment e %s" +
+        ALL_ORDER_BY + " LIMIT ?) e " +
+        "JOIN Student s ON e.student_id = s.student_id " +
+        "JOIN Course c ON e.course_id = c.course_id " + ALL_ORDER_BY;
+    private static final String TRANSCRIPT_COLUMNS =
+        "email, semester, course_code, course_name, credits, grade, instructor_first_name, instructor_last_name";
+    private static final String INSERT_SQL =
+        "INSERT INTO Enrollment (student_id, course_id, semester, grade) VALUES (?, ?, ?, ?)";
+
+    public boolean exists(Connection conn, int studentId, int courseId, String semester) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM Enrollment WHERE student_id = ? AND course_id = ? AND semester = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, studentId);
+            pstmt.setInt(2, courseId);
+            pstmt.setString(3, semester);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    // which of the given courses the student is already enrolled in for the semester
+    public Set<Integer> findEnrolledCourseIds(Connection conn, int studentId, String semester,
+                                              Collection<Integer> courseIds) throws SQLException {
+        Set<Integer> enrolled = new HashSet<>();
+        if (courseIds.isEmpty()) {
+            return enrolled;
+        }
+        String sql = "SELECT course_id FROM Enrollment WHERE student_id = ? AND semester = ? " +
+                     "AND course_id IN (" + Jdbc.placeholders(courseIds.size()) + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, studentId);
+            pstmt.setString(2, semester);
+            int i = 3;
+            for (int courseId : courseIds) {
+                pstmt.setInt(i++, courseId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    enrolled.add(rs.getInt("course_id"));
+                }
+            }
+        }
+        return enrolled;
+    }
+
+    // a plain insert; capacity is enforced by the database trigger, seat locking is up to the caller
+    public int insert(Connection conn, int studentId, int courseId, String semester, String grade) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            setInsertParameters(pstmt, studentId, courseId, semester, grade);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // one student into several courses with one JDBC batch, no grades
+    public int[] insertBatch(Connection conn, int studentId, String semester, List<Integer> courseIds) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            for (int courseId : courseIds) {
+                setInsertParameters(pstmt, studentId, courseId, semester, null);
+                pstmt.addBatch();
+            }
+            return pstmt.executeBatch();
+        }
+    }
+
+    public List<EnrollmentRow> findByStudentEmail(Connection conn, String email) throws SQLException {
+        return query(conn, ROW_SELECT + "WHERE s.email = ? ORDER BY e.semester, c.course_code", email);
+    }
+
+    public List<EnrollmentRow> findRoster(Connection conn, String courseCode, String semester) throws SQLException {
+        return query(conn, ROW_SELECT + "WHERE c.course_code = ? AND e.semester = ? ORDER BY s.last_name, s.first_name",
+                     courseCode, semester);
+    }
+
+    public List<EnrollmentRow> findAll(Connection conn) throws SQLException {
+        return query(conn, ENROLLMENT_FIRST_SELECT + ALL_ORDER_BY);
+    }
+
+    // up to `limit` rows in findAll's order after `after` (null for the first page), by keyset
+    public List<EnrollmentRow> findPage(Connection conn, EnrollmentRow after, int limit) throws SQLException {
+        List<EnrollmentRow> rows = new ArrayList<>();
+        String sql = String.format(PAGE_SELECT, after != null ? "WHERE " + ALL_SEEK + " " : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = bindAfter(pstmt, after);
+            pstmt.setInt(index, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(map(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // same rows as findAll, handed over one at a time without holding the table in memory
+    public void streamAll(Connection conn, RowHandler<EnrollmentRow> handler) throws SQLException, IOException {
+        streamAll(conn, null, handler);
+    }
+
+    // the rest of findAll's rows after `after` (null for all of them), streamed
+    public void streamAll(Connection conn, EnrollmentRow after, RowHandler<EnrollmentRow> handler)
+            throws SQLException, IOException {
+        String sql = ENROLLMENT_FIRST_SELECT + (after != null ? "WHERE " + ALL_SEEK + " " : "") + ALL_ORDER_BY;
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            bindAfter(pstmt, after);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(map(rs));
+                }
+            }
+        }
+    }
+
+    // the semester's rows come from a range of idx_enroll_semester and are then sorted; only that
+    // semester is sorted, never the whole table
+    public List<EnrollmentRow> findBySemester(Connection conn, String semester) throws SQLException {
+        return query(conn, ENROLLMENT_FIRST_SELECT + "WHERE e.semester = ? ORDER BY c.course_code, s.last_name", semester);
+    }
+
+    public void streamBySemester(Connection conn, String semester, RowHandler<EnrollmentRow> handler)
+            throws SQLException, IOException {
+        stream(conn, ENROLLMENT_FIRST_SELECT + "WHERE e.semester = ? ORDER BY c.course_code, s.last_name", handler, semester);
+    }
+
+    // lowest and highest student_id with enrollments, or null if there are none (for range partitioning)
+    public int[] findStudentIdRange(Connection conn) throws SQLException {
+        String sql = "SELECT MIN(student_id), MAX(student_id) FROM Enrollment";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+        }
+    }
+
+    public List<String> findSemesters(Connection conn) throws SQLException {
+        List<String> semesters = new ArrayList<>();
+        String sql = "SELECT DISTINCT semester FROM Enrollment ORDER BY semester";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                semesters.add(rs.getString(1));
+            }
+        }
+        return semesters;
+    }
+
+    // enrollments with fromStudentId <= student_id < toStudentId in primary key order, streamed;
+    // a range scan on the primary key, so partitions can be read in parallel without overlapping
+    public void streamByStudentRange(Connection conn, int fromStudentId, int toStudentId,
+                                     RowHandler<EnrollmentRow> handler) throws SQLException, IOException {
+        String sql = ENROLLMENT_FIRST_SELECT + "WHERE e.student_id >= ? AND e.student_id < ? " +
+                     "ORDER BY e.student_id, e.course_id, e.semester";
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            pstmt.setInt(1, fromStudentId);
+            pstmt.setInt(2, toStudentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(map(rs));
+                }
+            }
+        }
+    }
+
+    public List<EnrollmentRow> findByCourseCode(Connection conn, String courseCode) throws SQLException {
+        return query(conn, ROW_SELECT + "WHERE c.course_code = ? ORDER BY e.semester, s.last_name", courseCode);
+    }
+
+    // one student's transcript from the materialized TranscriptEntry table: a range scan on its
+    // (student_id, semester, course_code) primary key, already in transcript order
+    public List<TranscriptRow> findTranscript(Connection conn, int studentId) throws SQLException {
+        String sql = "SELECT " + TRANSCRIPT_COLUMNS + " FROM TranscriptEntry WHERE student_id = ? " +
+                     "ORDER BY semester, course_code";
+        List<TranscriptRow> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapTranscript(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // every student's transcript (in student_id order), or just one student's if email is given, streamed
+    public void streamTranscripts(Connection conn, String email, RowHandler<TranscriptRow> handler)
+            throws SQLException, IOException {
+        String sql = "SELECT " + TRANSCRIPT_COLUMNS + " FROM TranscriptEntry " +
+                     (email != null ? "WHERE student_id = (SELECT student_id FROM Student WHERE email = ?) " : "") +
+                     "ORDER BY student_id, semester, course_code";
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            if (email != null) {
+                pstmt.setString(1, email);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapTranscript(rs));
+                }
+            }
+        }
+    }
+
+    // by primary key; callers resolve the ids through the cached lookups instead of joining on email/code
+    public int updateGrade(Connection conn, int studentId, int courseId, String semester, String grade)
+            throws SQLException {
+        String sql = "UPDATE Enrollment SET grade = ? WHERE student_id = ? AND course_id = ? AND semester = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, grade);
+            pstmt.setInt(2, studentId);
+            pstmt.setInt(3, courseId);
+            pstmt.setString(4, semester);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    public int drop(Connection conn, int studentId, int courseId, String semester) throws SQLException {
+        String sql = "DELETE FROM Enrollment WHERE student_id = ? AND course_id = ? AND semester = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, studentId);
+            pstmt.setInt(2, courseId);
+            pstmt.setString(3, semester);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private static void setInsertParameters(PreparedStatement pstmt, int studentId, int courseId, String semester,
+                                            String grade) throws SQLException {
+        pstmt.setInt(1, studentId);
+        pstmt.setInt(2, courseId);
+        pstmt.setString(3, semester);
+        Jdbc.setNullableString(pstmt, 4, grade, Types.CHAR);
+    }
+
+    private static int bindAfter(PreparedStatement pstmt, EnrollmentRow after) throws SQLException {
+        if (after == null) {
+            return 1;
+        }
+        return Jdbc.bindSeekAfter(pstmt, 1, after.semester(), after.courseId(), after.studentId());
+    }
+
+    private static List<EnrollmentRow> query(Connection conn, String sql, String... params) throws SQLException {
+        List<EnrollmentRow> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(map(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void stream(Connection conn, String sql, RowHandler<EnrollmentRow> handler, String... params)
+            throws SQLException, IOException {
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(map(rs));
+                }
+            }
+        }
+    }
+
+    private static TranscriptRow mapTranscript(ResultSet rs) throws SQLException {
+        return new TranscriptRow(
+            rs.getString("email"),
+            rs.getString("semester"),
+            rs.getString("course_code"),
+            rs.getString("course_name"),
+            rs.getInt("credits"),
+            rs.getString("grade"),
+            rs.getString("instructor_first_name"),
+            rs.getString("instructor_last_name"));
+    }
+
+    private static EnrollmentRow map(ResultSet rs) throws SQLException {
+        return new EnrollmentRow(
+            rs.getInt("student_id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getInt("course_id"),
+            rs.getString("course_code"),
+            rs.getString("course_name"),
+            rs.getString("semester"),
+            rs.getString("grade"));
+    }
+}
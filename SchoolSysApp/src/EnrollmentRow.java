@@ -0,0 +1,8 @@
+// an enrollment joined with its student and course, as shown in rosters and enrollment listings
+public record EnrollmentRow(int studentId, String firstName, String lastName, String email,
+                            int courseId, String courseCode, String courseName,
+                            String semester, String grade) {
+    public String studentName() {
+        return firstName + " " + lastName;
+    }
+}
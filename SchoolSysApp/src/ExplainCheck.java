@@ -0,0 +1,388 @@
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+
+// "explain-check" command: EXPLAINs the SQL behind every menu operation and fails if a query reads a
+// large table with a full table scan, or sorts (filesort / temporary table) a large number of rows
+// the repository methods themselves are called on a connection whose statements run EXPLAIN instead
+// of the query, so what is checked is exactly the SQL the app sends. --seed N adds N synthetic
+// students (plus courses and enrollments) first so the optimizer sees a large dataset
+public class ExplainCheck {
+    private static final String SEED_DOMAIN = "@explain.seed";
+    private static final String[] SEED_SEMESTERS = {"Fall 2030", "Spring 2031", "Fall 2031", "Spring 2032"};
+
+    private static final StudentRepository STUDENTS = new StudentRepository();
+    private static final CourseRepository COURSES = new CourseRepository();
+    private static final EnrollmentRepository ENROLLMENTS = new EnrollmentRepository();
+    private static final InstructorRepository INSTRUCTORS = new InstructorRepository();
+    private static final ClassroomRepository CLASSROOMS = new ClassroomRepository();
+    private static final GpaRepository GPA = new GpaRepository();
+
+    private final ConnectionPool pool;
+    private final long minRows;
+
+    // one operation to check; fullScan marks whole-table reads (listing the rest, exports) where
+    // reading every row is the point, so only sorting counts against them. sorts marks operations
+    // whose order comes from joined tables (course code, student name, GPA), which no index can give:
+    // they may sort the rows their index filter selects (one course, one semester), never a whole table
+    private record Check(String name, boolean fullScan, boolean sorts, Call call) {
+        Check(String name, boolean fullScan, Call call) {
+            this(name, fullScan, false, call);
+        }
+    }
+
+    private interface Call {
+        void run(Connection conn) throws SQLException, IOException;
+    }
+
+    // the EXPLAIN output for one statement
+    private record Plan(String sql, List<Map<String, String>> rows) {
+    }
+
+    public ExplainCheck(ConnectionPool pool, long minRows) {
+        this.pool = pool;
+        this.minRows = minRows;
+    }
+
+    // returns true if no check failed
+    public boolean run(int seedStudents, boolean keep) throws SQLException, IOException {
+        // the id lookups must reach the database to be explained
+        StudentRepository.configureIdCache(0, 0);
+        CourseRepository.configureIdCache(0, 0);
+
+        try (Connection conn = pool.getConnection()) {
+            if (seedStudents > 0) {
+                seed(conn, seedStudents);
+            }
+            try {
+                return check(conn);
+            } finally {
+                if (seedStudents > 0 && !keep) {
+                    removeSeed(conn);
+                }
+            }
+        }
+    }
+
+    private boolean check(Connection conn) throws SQLException, IOException {
+        Optional<EnrollmentRow> first = sampleEnrollment(conn);
+        if (first.isEmpty()) {
+            System.out.println("No enrollments to check against - load data or use --seed N");
+            return false;
+        }
+        EnrollmentRow enrollment = first.get();
+        Student student = STUDENTS.findByEmail(conn, enrollment.email()).orElseThrow();
+        CourseDetail course = COURSES.findDetailByCode(conn, enrollment.courseCode()).orElseThrow();
+        String instructorEmail = course.instructor().email();
+        String semester = enrollment.semester();
+        RowHandler<Object> ignore = row -> { };
+
+        List<Check> checks = List.of(
+            new Check("View All Students (first page)", false, c -> STUDENTS.findPage(c, null, 50)),
+            new Check("View All Students (next page)", false, c -> STUDENTS.findPage(c, student, 50)),
+            new Check("View All Students (all remaining)", true, c -> STUDENTS.streamAll(c, student, ignore::handle)),
+            new Check("View Student by Email", false, c -> STUDENTS.findByEmail(c, student.email())),
+            new Check("Student id lookup", false, c -> STUDENTS.findIdByEmail(c, student.email())),
+            new Check("Student id lookup (many)", false, c -> STUDENTS.findIdsByEmails(c, List.of(student.email(), "x@y"))),
+            new Check("View Student Enrollments", false, c -> ENROLLMENTS.findByStudentEmail(c, student.email())),
+            new Check("View All Courses (first page)", false, c -> COURSES.findDetailPage(c, null, 50)),
+            new Check("View All Courses (next page)", false, c -> COURSES.findDetailPage(c, course, 50)),
+            new Check("View All Courses (all remaining)", true, c -> COURSES.streamAllDetails(c, course, ignore::handle)),
+            new Check("View Course by Code", false, c -> COURSES.findDetailByCode(c, course.course().courseCode())),
+            new Check("Course id lookup", false, c -> COURSES.findIdByCode(c, course.course().courseCode())),
+            new Check("View Course Roster", false, c -> ENROLLMENTS.findRoster(c, course.course().courseCode(), semester)),
+            new Check("View Courses by Instructor", false, c -> COURSES.findByInstructorEmail(c, instructorEmail)),
+            new Check("View All Enrollments (first page)", false, c -> ENROLLMENTS.findPage(c, null, 50)),
+            new Check("View All Enrollments (next page)", false, c -> ENROLLMENTS.findPage(c, enrollment, 50)),
+            new Check("View All Enrollments (all remaining)", true, c -> ENROLLMENTS.streamAll(c, enrollment, ignore::handle)),
+            new Check("View Enrollments by Semester", false, true, c -> ENROLLMENTS.findBySemester(c, semester)),
+            new Check("View Enrollments by Course", false, true, c -> ENROLLMENTS.findByCourseCode(c, course.course().courseCode())),
+            new Check("View Student Transcript", false, c -> ENROLLMENTS.findTranscript(c, student.studentId())),
+            new Check("Transcript GPA", false, c -> GPA.findTerms(c, student.studentId())),
+            new Check("View Dean's List", false, true,
+                c -> GPA.streamDeansList(c, semester, new java.math.BigDecimal("3.5"), 12, ignore::handle)),
+            new Check("Add New Course (instructor list)", false, INSTRUCTORS::findAll),
+            new Check("Add New Course (classroom list)", false, CLASSROOMS::findAll),
+            new Check("Enrollment duplicate check", false,
+                c -> ENROLLMENTS.exists(c, student.studentId(), enrollment.courseId(), semester)),
+            new Check("Multi-course duplicate check", false,
+                c -> ENROLLMENTS.findEnrolledCourseIds(c, student.studentId(), semester, List.of(enrollment.courseId()))),
+            new Check("Update Student Email", false, c -> STUDENTS.updateEmail(c, student.email(), student.email())),
+            new Check("Update Course Credits", false, c -> COURSES.updateCredits(c, course.course().courseCode(), 3)),
+            new Check("Update Grade", false,
+                c -> ENROLLMENTS.updateGrade(c, student.studentId(), enrollment.courseId(), semester, "A")),
+            new Check("Drop Enrollment", false,
+                c -> ENROLLMENTS.drop(c, student.studentId(), enrollment.courseId(), semester)),
+            new Check("Delete Student", false, c -> STUDENTS.deleteByEmail(c, student.email())),
+            new Check("Delete Course", false, c -> COURSES.deleteByCode(c, course.course().courseCode())),
+            new Check("Export enrollments by student range", false,
+                c -> ENROLLMENTS.streamByStudentRange(c, student.studentId(), student.studentId() + 1000, ignore::handle)),
+            new Check("Export enrollments by semester", false, true, c -> ENROLLMENTS.streamBySemester(c, semester, ignore::handle)),
+            new Check("Export transcripts", true, c -> ENROLLMENTS.streamTranscripts(c, null, ignore::handle)),
+            new Check("Export partition planning", false, c -> {
+                ENROLLMENTS.findStudentIdRange(c);
+                ENROLLMENTS.findSemesters(c);
+            }));
+
+        System.out.printf("EXPLAIN check: %d operations, tables over %d rows must not be fully scanned or sorted%n%n",
+            checks.size(), minRows);
+        int failed = 0;
+        for (Check check : checks) {
+            List<Plan> plans = new ArrayList<>();
+            check.call().run(explaining(conn, plans));
+            List<String> problems = new ArrayList<>();
+            for (Plan plan : plans) {
+                problems.addAll(problems(plan, check));
+            }
+            if (problems.isEmpty()) {
+                System.out.println("  ok    " + check.name());
+            } else {
+                failed++;
+                System.out.println("  FAIL  " + check.name());
+                for (String problem : problems) {
+                    System.out.println("          " + problem);
+                }
+                for (Plan plan : plans) {
+                    System.out.println("          " + plan.sql());
+                    for (Map<String, String> row : plan.rows()) {
+                        System.out.println("            " + row);
+                    }
+                }
+            }
+        }
+        System.out.printf("%n%d of %d operations passed%n", checks.size() - failed, checks.size());
+        System.out.println(failed == 0 ? "PASSED" : "FAILED");
+        return failed == 0;
+    }
+
+    // real values to bind: an enrollment in the busiest semester
+    private static Optional<EnrollmentRow> sampleEnrollment(Connection conn) throws SQLException {
+        String busiest = null;
+        String sql = "SELECT semester FROM Enrollment GROUP BY semester ORDER BY COUNT(*) DESC LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                busiest = rs.getString(1);
+            }
+        }
+        if (busiest == null) {
+            return Optional.empty();
+        }
+        String email = null;
+        sql = "SELECT s.email FROM Enrollment e JOIN Student s ON s.student_id = e.student_id WHERE e.semester = ? LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, busiest);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    email = rs.getString(1);
+                }
+            }
+        }
+        for (EnrollmentRow row : ENROLLMENTS.findByStudentEmail(conn, email)) {
+            if (row.semester().equals(busiest)) {
+                return Optional.of(row);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<String> problems(Plan plan, Check check) {
+        List<String> problems = new ArrayList<>();
+        for (Map<String, String> row : plan.rows()) {
+            String table = row.get("table");
+            long rows = row.get("rows") != null ? Long.parseLong(row.get("rows")) : 0;
+            String extra = Objects.toString(row.get("Extra"), "");
+            if (table == null || table.startsWith("<") || rows < minRows) {
+                continue;
+            }
+            String type = Objects.toString(row.get("type"), "");
+            if (type.equals("ALL") && !check.fullScan()) {
+                problems.add("full table scan of " + table + " (~" + rows + " rows)");
+            }
+            // the rows sorted are the ones an index lookup selected, bounded by that filter
+            boolean filtered = type.equals("ref") || type.equals("range") || type.equals("eq_ref") || type.equals("const");
+            boolean sortAllowed = check.sorts() && filtered;
+            if (extra.contains("Using filesort") && !sortAllowed) {
+                problems.add("filesort on " + table + " (~" + rows + " rows)");
+            }
+            if (extra.contains("Using temporary") && !sortAllowed) {
+                problems.add("temporary table on " + table + " (~" + rows + " rows)");
+            }
+        }
+        return problems;
+    }
+
+    // a connection whose prepared statements run EXPLAIN <sql> with the same parameters, record the
+    // plan and return no rows / 0 updated rows, so even the update and delete paths change nothing
+    private static Connection explaining(Connection conn, List<Plan> plans) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("prepareStatement")) {
+                    return explainStatement(conn, (String) args[0], plans);
+                }
+                if (method.getName().equals("close")) {
+                    return null;
+                }
+                return invoke(method, conn, args);
+            });
+    }
+
+    private static PreparedStatement explainStatement(Connection conn, String sql, List<Plan> plans)
+            throws SQLException {
+        PreparedStatement explain = conn.prepareStatement("EXPLAIN " + sql);
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "executeQuery":
+                    case "executeUpdate":
+                    case "execute":
+                        plans.add(new Plan(sql, readPlan(explain)));
+                        if (method.getName().equals("executeQuery")) {
+                            return emptyResultSet();
+                        }
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : Integer.valueOf(0);
+                    case "setFetchSize":
+                        return null;
+                    default:
+                        return invoke(method, explain, args);
+                }
+            });
+    }
+
+    private static List<Map<String, String>> readPlan(PreparedStatement explain) throws SQLException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (ResultSet rs = explain.executeQuery()) {
+            ResultSetMetaData meta = rs.getMetaData();
+            while (rs.next()) {
+                Map<String, String> row = new LinkedHashMap<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    row.put(meta.getColumnLabel(i), rs.getString(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    // no rows; getters return null / 0 and wasNull() is true
+    private static ResultSet emptyResultSet() {
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class },
+            (proxy, method, args) -> {
+                Class<?> type = method.getReturnType();
+                if (method.getName().equals("wasNull")) {
+                    return Boolean.TRUE;
+                }
+                if (type == boolean.class) {
+                    return Boolean.FALSE;
+                }
+                if (type == int.class || type == short.class || type == byte.class) {
+                    return 0;
+                }
+                if (type == long.class) {
+                    return 0L;
+                }
+                if (type == double.class || type == float.class) {
+                    return type == double.class ? (Object) 0.0 : (Object) 0.0f;
+                }
+                return null;
+            });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // seed data: one instructor and classroom, students/100 courses (at least 20), and every
+    // student enrolled in one course in each of four future semesters; all recognisable by
+    // SEED_DOMAIN emails and SEED course codes, and removed again unless --keep is given
+    private void seed(Connection conn, int students) throws SQLException {
+        if (STUDENTS.findIdByEmail(conn, "seed1" + SEED_DOMAIN) != -1) {
+            System.out.println("Seed data already present, not adding more");
+            return;
+        }
+        int courses = Math.max(20, students / 100);
+        long start = System.nanoTime();
+        System.out.printf("Seeding %d students, %d courses, %d enrollments...%n",
+            students, courses, (long) students * SEED_SEMESTERS.length);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SESSION cte_max_recursion_depth = " + (Math.max(students, courses) + 1));
+            stmt.executeUpdate("INSERT INTO Instructor (first_name, last_name, email, department) " +
+                "VALUES ('Seed', 'Instructor', 'instructor" + SEED_DOMAIN + "', 'Seed')");
+            stmt.executeUpdate("INSERT INTO Classroom (building, room_number, capacity) VALUES ('SEED', 'S1', 32000)");
+        }
+        String courseSql =
+            "INSERT INTO Course (course_name, course_code, credits, instructor_id, classroom_id) " +
+            "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < ?) " +
+            "SELECT CONCAT('Seed Course ', n), CONCAT('SEED', LPAD(n, 5, '0')), 1 + n % 4, " +
+            "(SELECT instructor_id FROM Instructor WHERE email = ?), " +
+            "(SELECT MAX(classroom_id) FROM Classroom WHERE building = 'SEED') FROM seq";
+        try (PreparedStatement pstmt = conn.prepareStatement(courseSql)) {
+            pstmt.setInt(1, courses - 1);
+            pstmt.setString(2, "instructor" + SEED_DOMAIN);
+            pstmt.executeUpdate();
+        }
+        String studentSql =
+            "INSERT INTO Student (first_name, last_name, dob, email) " +
+            "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < ?) " +
+            "SELECT CONCAT('Seed', n), CONCAT('Student', n % 1000), NULL, CONCAT('seed', n, ?) FROM seq";
+        try (PreparedStatement pstmt = conn.prepareStatement(studentSql)) {
+            pstmt.setInt(1, students);
+            pstmt.setString(2, SEED_DOMAIN);
+            pstmt.executeUpdate();
+        }
+        StringBuilder terms = new StringBuilder();
+        for (int k = 0; k < SEED_SEMESTERS.length; k++) {
+            terms.append(k == 0 ? "SELECT " : " UNION ALL SELECT ").append(k).append(" AS k, '")
+                .append(SEED_SEMESTERS[k]).append("' AS semester");
+        }
+        String enrollmentSql =
+            "INSERT INTO Enrollment (student_id, course_id, semester, grade) " +
+            "SELECT s.student_id, c.course_id, t.semester, " +
+            "ELT(1 + (s.student_id + t.k) % 11, 'A', 'A-', 'B+', 'B', 'B-', 'C+', 'C', 'C-', 'D', 'F', NULL) " +
+            "FROM Student s JOIN (" + terms + ") t " +
+            "JOIN Course c ON c.course_code = CONCAT('SEED', LPAD((s.student_id * 7 + t.k * 13) % ?, 5, '0')) " +
+            "WHERE s.email LIKE ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(enrollmentSql)) {
+            pstmt.setInt(1, courses);
+            pstmt.setString(2, "seed%" + SEED_DOMAIN);
+            pstmt.executeUpdate();
+        }
+        analyze(conn);
+        System.out.printf("Seeded in %.1f s%n%n", (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private void removeSeed(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        // enrollments, transcript rows and GPA totals go with the students and courses (ON DELETE CASCADE)
+        try (PreparedStatement students = conn.prepareStatement("DELETE FROM Student WHERE email LIKE ?");
+             PreparedStatement courses = conn.prepareStatement("DELETE FROM Course WHERE course_code LIKE 'SEED%'");
+             PreparedStatement instructor = conn.prepareStatement("DELETE FROM Instructor WHERE email = ?");
+             PreparedStatement classroom = conn.prepareStatement("DELETE FROM Classroom WHERE building = 'SEED'")) {
+            students.setString(1, "seed%" + SEED_DOMAIN);
+            students.executeUpdate();
+            courses.executeUpdate();
+            instructor.setString(1, "instructor" + SEED_DOMAIN);
+            instructor.executeUpdate();
+            classroom.executeUpdate();
+        }
+        analyze(conn);
+        System.out.printf("Seed data removed in %.1f s%n", (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static void analyze(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE Student, Course, Enrollment, Instructor, Classroom, TranscriptEntry, StudentTermGpa");
+        }
+    }
+}
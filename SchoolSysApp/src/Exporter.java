@@ -0,0 +1,391 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+// "export" command: streams enrollments or transcripts straight from a forward-only result set
+// to a CSV or JSON Lines file (optionally gzipped); one row is in memory at a time
+// exportParallel splits Enrollment into partitions that are read on separate pooled connections
+public class Exporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] DATASETS = {"enrollments", "transcripts"};
+
+    private static final String[] ENROLLMENT_COLUMNS = {
+        "student_id", "first_name", "last_name", "email", "course_id", "course_code", "course_name", "semester", "grade"};
+    private static final String[] TRANSCRIPT_COLUMNS = {
+        "email", "semester", "course_code", "course_name", "credits", "grade", "instructor"};
+
+    private final ConnectionPool pool;
+    private final long progressEvery;
+    private final EnrollmentRepository enrollments = new EnrollmentRepository();
+
+    public Exporter(ConnectionPool pool, long progressEvery) {
+        this.pool = pool;
+        this.progressEvery = progressEvery;
+    }
+
+    static String[] datasetNames() {
+        return DATASETS.clone();
+    }
+
+    // fills a file with rows from one connection
+    private interface Query {
+        void run(Connection conn, RecordSink sink) throws SQLException, IOException;
+    }
+
+    // one slice of Enrollment for the parallel export: a student_id range or a semester
+    private record Partition(int number, String description, Query query) {
+    }
+
+    private record PartitionResult(Partition partition, Path file, long rows, double seconds) {
+    }
+
+    // format is csv, jsonl, csv.gz or jsonl.gz; semester filters enrollments, email picks one transcript
+    // returns false for an unknown dataset or format
+    public boolean export(String dataset, String format, String outPath, String semester, String email)
+            throws SQLException, IOException {
+        if (!checkFormat(format)) {
+            return false;
+        }
+        String[] columns;
+        Query query;
+        if (dataset.equals("enrollments")) {
+            columns = ENROLLMENT_COLUMNS;
+            query = semester != null
+                ? (conn, sink) -> enrollments.streamBySemester(conn, semester, row -> writeEnrollment(sink, row))
+                : (conn, sink) -> enrollments.streamAll(conn, row -> writeEnrollment(sink, row));
+        } else if (dataset.equals("transcripts")) {
+            columns = TRANSCRIPT_COLUMNS;
+            query = (conn, sink) -> enrollments.streamTranscripts(conn, email, row -> writeTranscript(sink, row));
+        } else {
+            System.out.println("Unknown dataset: " + dataset + " (use " + String.join(", ", DATASETS) + ")");
+            return false;
+        }
+
+        System.out.println("Exporting " + dataset + " to " + outPath);
+        long start = System.nanoTime();
+        long rows = writeFile(Paths.get(outPath), format, columns, true, progressEvery, query);
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.println("\nExport complete");
+        System.out.println("Rows written: " + rows);
+        System.out.println("File size: " + Files.size(Paths.get(outPath)) + " bytes");
+        System.out.printf("Elapsed: %.2f s (%.0f rows/sec)%n", seconds, seconds > 0 ? rows / seconds : 0.0);
+        return true;
+    }
+
+    // Enrollment split by student_id range ("student-id", `partitions` equal ranges) or one partition per
+    // semester ("semester"), each read on its own pooled connection by `workers` threads and written to
+    // its own file (<name>-p001.<format>, ...). With merge the files are concatenated into outPath
+    // afterwards (gzip files concatenate into a valid multi-member gzip)
+    public boolean exportParallel(String format, String outPath, String partitionBy, int partitions, int workers,
+                                  boolean merge) throws SQLException, IOException, InterruptedException {
+        if (!checkFormat(format)) {
+            return false;
+        }
+        List<Partition> plan;
+        try (Connection conn = pool.getConnection()) {
+            if (partitionBy.equals("student-id")) {
+                plan = studentIdPartitions(conn, partitions);
+            } else if (partitionBy.equals("semester")) {
+                plan = semesterPartitions(conn);
+            } else {
+                System.out.println("Unknown partitioning: " + partitionBy + " (use student-id or semester)");
+                return false;
+            }
+        }
+        if (plan.isEmpty()) {
+            System.out.println("No enrollments to export.");
+            return true;
+        }
+        if (workers > pool.getMaxSize()) {
+            System.out.println("Note: " + workers + " workers but db.pool.max is " + pool.getMaxSize()
+                + "; workers will wait for connections");
+        }
+
+        System.out.printf("Exporting enrollments in %d partitions (%s) with %d workers%n", plan.size(), partitionBy, workers);
+        long start = System.nanoTime();
+        boolean csvHeaders = !merge;
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        for (Partition partition : plan) {
+            Path file = partitionPath(outPath, format, partition.number());
+            futures.add(executor.submit(() -> {
+                long partitionStart = System.nanoTime();
+                long rows = writeFile(file, format, ENROLLMENT_COLUMNS, csvHeaders, 0, partition.query());
+                double seconds = (System.nanoTime() - partitionStart) / 1_000_000_000.0;
+                System.out.printf("  partition %d (%s): %d rows in %.2f s (%.0f rows/sec)%n", partition.number(),
+                    partition.description(), rows, seconds, seconds > 0 ? rows / seconds : 0.0);
+                return new PartitionResult(partition, file, rows, seconds);
+            }));
+        }
+        executor.shutdown();
+
+        List<PartitionResult> results = new ArrayList<>();
+        boolean failed = false;
+        for (Future<PartitionResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                failed = true;
+                System.err.println("  Partition failed: " + e.getCause().getMessage());
+            }
+        }
+        if (failed) {
+            for (PartitionResult result : results) {
+                Files.deleteIfExists(result.file());
+            }
+            System.out.println("Export failed - partition files removed");
+            return false;
+        }
+
+        long totalRows = 0;
+        double busySeconds = 0;
+        for (PartitionResult result : results) {
+            totalRows += result.rows();
+            busySeconds += result.seconds();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        if (merge) {
+            long mergeStart = System.nanoTime();
+            List<Path> files = new ArrayList<>();
+            for (PartitionResult result : results) {
+                files.add(result.file());
+            }
+            merge(files, Paths.get(outPath), format);
+            System.out.printf("Merged into %s (%d bytes) in %.2f s%n", outPath, Files.size(Paths.get(outPath)),
+                (System.nanoTime() - mergeStart) / 1_000_000_000.0);
+            seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        }
+
+        System.out.println("\nExport complete");
+        System.out.println("Partitions: " + results.size());
+        System.out.println("Rows written: " + totalRows);
+        System.out.printf("Elapsed: %.2f s (%.0f rows/sec aggregate, %.1fx parallel speedup over partition time)%n",
+            seconds, seconds > 0 ? totalRows / seconds : 0.0, seconds > 0 ? busySeconds / seconds : 0.0);
+        return true;
+    }
+
+    private List<Partition> studentIdPartitions(Connection conn, int partitions) throws SQLException {
+        List<Partition> plan = new ArrayList<>();
+        int[] range = enrollments.findStudentIdRange(conn);
+        if (range == null) {
+            return plan;
+        }
+        long span = (long) range[1] - range[0] + 1;
+        int count = (int) Math.max(1, Math.min(partitions, span));
+        for (int i = 0; i < count; i++) {
+            int from = (int) (range[0] + span * i / count);
+            int to = (int) (range[0] + span * (i + 1) / count);
+            plan.add(new Partition(i + 1, "student_id " + from + "-" + (to - 1),
+                (c, sink) -> enrollments.streamByStudentRange(c, from, to, row -> writeEnrollment(sink, row))));
+        }
+        return plan;
+    }
+
+    private List<Partition> semesterPartitions(Connection conn) throws SQLException {
+        List<Partition> plan = new ArrayList<>();
+        for (String semester : enrollments.findSemesters(conn)) {
+            plan.add(new Partition(plan.size() + 1, semester,
+                (c, sink) -> enrollments.streamBySemester(c, semester, row -> writeEnrollment(sink, row))));
+        }
+        return plan;
+    }
+
+    // enrollments.csv.gz -> enrollments-p003.csv.gz
+    private static Path partitionPath(String outPath, String format, int number) {
+        String suffix = "." + format;
+        String base = outPath.endsWith(suffix) ? outPath.substring(0, outPath.length() - suffix.length()) : outPath;
+        return Paths.get(String.format("%s-p%03d%s", base, number, suffix));
+    }
+
+    // partition files (CSV without headers) appended in order after one header, then removed
+    private static void merge(List<Path> files, Path target, String format) throws IOException {
+        Path partial = Paths.get(target + ".part");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_SIZE)) {
+            if (format.startsWith("csv")) {
+                byte[] header = (String.join(",", ENROLLMENT_COLUMNS) + "\n").getBytes(StandardCharsets.UTF_8);
+                if (format.endsWith(".gz")) {
+                    ByteArrayOutputStream member = new ByteArrayOutputStream();
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+                        gzip.write(header);
+                    }
+                    header = member.toByteArray();
+                }
+                out.write(header);
+            }
+            for (Path file : files) {
+                Files.copy(file, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        for (Path file : files) {
+            Files.delete(file);
+        }
+    }
+
+    private static boolean checkFormat(String format) {
+        String base = format.endsWith(".gz") ? format.substring(0, format.length() - 3) : format;
+        if (base.equals("csv") || base.equals("jsonl")) {
+            return true;
+        }
+        System.out.println("Unknown format: " + format + " (use csv, jsonl, csv.gz or jsonl.gz)");
+        return false;
+    }
+
+    // writes one file under a temporary name and moves it into place once complete; returns the row count
+    private long writeFile(Path target, String format, String[] columns, boolean csvHeader, long progress, Query query)
+            throws SQLException, IOException {
+        boolean gzip = format.endsWith(".gz");
+        Path partial = Paths.get(target + ".part");
+        long rows;
+        try {
+            try (Writer writer = open(partial, gzip);
+                 Connection conn = pool.getConnection()) {
+                RecordSink sink = format.startsWith("csv")
+                    ? new CsvSink(writer, columns, csvHeader)
+                    : new JsonLinesSink(writer, columns);
+                sink.progressEvery = progress;
+                query.run(conn, sink);
+                rows = sink.rows;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return rows;
+    }
+
+    private static void writeEnrollment(RecordSink sink, EnrollmentRow row) throws IOException {
+        sink.value(row.studentId()).value(row.firstName()).value(row.lastName()).value(row.email())
+            .value(row.courseId()).value(row.courseCode()).value(row.courseName())
+            .value(row.semester()).value(row.grade());
+        sink.endRow();
+    }
+
+    private static void writeTranscript(RecordSink sink, TranscriptRow row) throws IOException {
+        sink.value(row.email()).value(row.semester()).value(row.courseCode()).value(row.courseName())
+            .value(row.credits()).value(row.grade()).value(row.instructorName());
+        sink.endRow();
+    }
+
+    private static Writer open(Path path, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // one output format; values are given in column order, then endRow()
+    private abstract static class RecordSink {
+        protected final Writer out;
+        protected final String[] columns;
+        protected final StringBuilder line = new StringBuilder(256);
+        protected int column = 0;
+        private char[] chars = new char[256];
+        private final long start = System.nanoTime();
+        long rows = 0;
+        long progressEvery = 0;
+
+        RecordSink(Writer out, String[] columns) {
+            this.out = out;
+            this.columns = columns;
+        }
+
+        abstract RecordSink value(String value);
+
+        abstract RecordSink value(int value);
+
+        void endRow() throws IOException {
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            line.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
+            out.write('\n');
+            line.setLength(0);
+            column = 0;
+            rows++;
+            if (progressEvery > 0 && rows % progressEvery == 0) {
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.printf("  %d rows written (%.0f rows/sec)%n", rows, seconds > 0 ? rows / seconds : 0.0);
+            }
+        }
+    }
+
+    // optional header line, then comma separated values; null is an empty field
+    private static class CsvSink extends RecordSink {
+        CsvSink(Writer out, String[] columns, boolean header) throws IOException {
+            super(out, columns);
+            if (header) {
+                out.write(String.join(",", columns));
+                out.write('\n');
+            }
+        }
+
+        @Override
+        RecordSink value(String value) {
+            separator();
+            if (value != null) {
+                line.append(Csv.escape(value));
+            }
+            return this;
+        }
+
+        @Override
+        RecordSink value(int value) {
+            separator();
+            line.append(value);
+            return this;
+        }
+
+        private void separator() {
+            if (column++ > 0) {
+                line.append(',');
+            }
+        }
+    }
+
+    // one JSON object per line, keyed by column name
+    private static class JsonLinesSink extends RecordSink {
+        JsonLinesSink(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        RecordSink value(String value) {
+            key();
+            Json.appendQuoted(line, value);
+            return this;
+        }
+
+        @Override
+        RecordSink value(int value) {
+            key();
+            line.append(value);
+            return this;
+        }
+
+        @Override
+        void endRow() throws IOException {
+            line.append('}');
+            super.endRow();
+        }
+
+        private void key() {
+            line.append(column == 0 ? '{' : ',');
+            Json.appendQuoted(line, columns[column++]);
+            line.append(':');
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+// reads the per-student, per-semester GPA totals in StudentTermGpa (maintained by triggers)
+public class GpaRepository {
+    private static final String COLUMNS =
+        "semester, enrolled_credits, graded_credits, earned_credits, quality_points";
+
+    // one student's terms in semester order: a range scan on the (student_id, semester) primary key
+    // rows left at zero by dropped enrollments are skipped
+    public List<TermGpa> findTerms(Connection conn, int studentId) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM StudentTermGpa " +
+                     "WHERE student_id = ? AND enrolled_credits > 0 ORDER BY semester";
+        List<TermGpa> terms = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    terms.add(new TermGpa(
+                        rs.getString("semester"),
+                        rs.getInt("enrolled_credits"),
+                        rs.getInt("graded_credits"),
+                        rs.getInt("earned_credits"),
+                        rs.getBigDecimal("quality_points")));
+                }
+            }
+        }
+        return terms;
+    }
+
+    // students whose term GPA is at least minGpa over at least minCredits graded credits, best GPA first
+    // one pass over the semester's StudentTermGpa rows (idx_term_gpa_semester), no per-student queries
+    public void streamDeansList(Connection conn, String semester, BigDecimal minGpa, int minCredits,
+                                RowHandler<DeansListEntry> handler) throws SQLException, IOException {
+        String sql = "SELECT s.student_id, s.first_name, s.last_name, s.email, t.graded_credits, t.quality_points " +
+                     "FROM StudentTermGpa t JOIN Student s ON s.student_id = t.student_id " +
+                     "WHERE t.semester = ? AND t.graded_credits >= ? AND t.quality_points >= ? * t.graded_credits " +
+                     "ORDER BY t.quality_points / t.graded_credits DESC, s.last_name, s.first_name, s.student_id";
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            pstmt.setString(1, semester);
+            pstmt.setInt(2, Math.max(1, minCredits));
+            pstmt.setBigDecimal(3, minGpa);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(new DeansListEntry(
+                        rs.getInt("student_id"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("email"),
+                        rs.getInt("graded_credits"),
+                        rs.getBigDecimal("quality_points")));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.sql.*;
+
+// maintenance for the StudentTermGpa totals (java Main gpa check|rebuild)
+// the triggers keep them current; check recomputes them from Enrollment, Course and GradePoint
+// and compares, rebuild replaces them with the recomputed values
+public class GpaStore {
+    private static final String COLUMNS =
+        "student_id, semester, enrolled_credits, graded_credits, earned_credits, quality_points";
+    private static final String SOURCE =
+        "SELECT e.student_id, e.semester, SUM(c.credits) AS enrolled_credits, " +
+        "SUM(IF(g.grade IS NULL, 0, c.credits)) AS graded_credits, " +
+        "SUM(IF(g.earns_credit, c.credits, 0)) AS earned_credits, " +
+        "SUM(IFNULL(g.points * c.credits, 0)) AS quality_points " +
+        "FROM Enrollment e " +
+        "JOIN Course c ON c.course_id = e.course_id " +
+        "LEFT JOIN GradePoint g ON g.grade = e.grade " +
+        "GROUP BY e.student_id, e.semester";
+
+    private final ConnectionPool pool;
+
+    public GpaStore(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // replaces every row in one transaction; grade changes made meanwhile wait for it
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int removed;
+                int inserted;
+                try (Statement stmt = conn.createStatement()) {
+                    removed = stmt.executeUpdate("DELETE FROM StudentTermGpa");
+                    inserted = stmt.executeUpdate("INSERT INTO StudentTermGpa (" + COLUMNS + ") " + SOURCE);
+                }
+                conn.commit();
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.printf("GPA totals rebuilt: %d rows removed, %d rows written in %.2f s%n",
+                    removed, inserted, seconds);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // returns true if every student/semester total matches its enrollments
+    public boolean check(int sampleLimit) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            long wrong = report(conn, "Missing or wrong totals",
+                "SELECT src.student_id, src.semester FROM (" + SOURCE + ") src " +
+                "LEFT JOIN StudentTermGpa t ON t.student_id = src.student_id AND t.semester = src.semester " +
+                "WHERE t.student_id IS NULL OR t.enrolled_credits <> src.enrolled_credits " +
+                "OR t.graded_credits <> src.graded_credits OR t.earned_credits <> src.earned_credits " +
+                "OR t.quality_points <> src.quality_points", sampleLimit);
+            // rows for terms with no enrollments left must have gone back to zero
+            long extra = report(conn, "Totals with no enrollments",
+                "SELECT t.student_id, t.semester FROM StudentTermGpa t " +
+                "WHERE NOT EXISTS (SELECT 1 FROM Enrollment e WHERE e.student_id = t.student_id " +
+                "AND e.semester = t.semester) " +
+                "AND (t.enrolled_credits <> 0 OR t.graded_credits <> 0 OR t.earned_credits <> 0 " +
+                "OR t.quality_points <> 0)", sampleLimit);
+
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            boolean consistent = wrong == 0 && extra == 0;
+            System.out.printf("%nGPA check: %d missing or wrong, %d left over (%.2f s)%n", wrong, extra, seconds);
+            System.out.println(consistent ? "CONSISTENT" : "INCONSISTENT - run: java Main gpa rebuild");
+            return consistent;
+        }
+    }
+
+    // counts the rows of one check and prints the first few student/semester keys
+    private static long report(Connection conn, String label, String sql, int sampleLimit) throws SQLException {
+        long count = 0;
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                if (count < sampleLimit) {
+                    if (count == 0) {
+                        System.out.println(label + ":");
+                    }
+                    System.out.printf("  student_id=%d semester=%s%n", rs.getInt(1), rs.getString(2));
+                }
+                count++;
+            }
+        }
+        if (count > sampleLimit) {
+            System.out.println("  ... and " + (count - sampleLimit) + " more");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,6 @@
+// one row of the Instructor table
+public record Instructor(int instructorId, String firstName, String lastName, String email, String department) {
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,69 @@
+import java.sql.*;
+import java.util.*;
+
+// data access for the Instructor table
+public class InstructorRepository {
+    private static final String COLUMNS = "instructor_id, first_name, last_name, email, department";
+
+    public List<Instructor> findAll(Connection conn) throws SQLException {
+        List<Instructor> instructors = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM Instructor ORDER BY last_name, first_name";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                instructors.add(map(rs));
+            }
+        }
+        return instructors;
+    }
+
+    public Optional<Instructor> findByEmail(Connection conn, String email) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Instructor WHERE email = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Optional.of(map(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    public boolean exists(Connection conn, int instructorId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM Instructor WHERE instructor_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, instructorId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    // one JDBC batch; instructor_id of the records is ignored
+    public int[] insertBatch(Connection conn, List<Instructor> instructors) throws SQLException {
+        String sql = "INSERT INTO Instructor (first_name, last_name, email, department) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Instructor instructor : instructors) {
+                pstmt.setString(1, instructor.firstName());
+                pstmt.setString(2, instructor.lastName());
+                pstmt.setString(3, instructor.email());
+                Jdbc.setNullableString(pstmt, 4, instructor.department(), Types.VARCHAR);
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            SearchIndex.update(index -> {
+                for (Instructor instructor : instructors) {
+                    index.putInstructor(instructor.firstName(), instructor.lastName(), instructor.email());
+                }
+            });
+            return counts;
+        }
+    }
+
+    private static Instructor map(ResultSet rs) throws SQLException {
+        return new Instructor(
+            rs.getInt("instructor_id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            rs.getString("department"));
+    }
+}
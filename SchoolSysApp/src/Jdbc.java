@@ -0,0 +1,79 @@
+import java.sql.*;
+
+// small JDBC helpers shared by the repositories
+final class Jdbc {
+    private Jdbc() {
+    }
+
+    // forward-only, read-only statement that streams rows one at a time instead of
+    // buffering the whole result set in memory (MySQL driver convention: fetch size Integer.MIN_VALUE)
+    // these are not cached, so the fetch size never leaks into a cached statement
+    static PreparedStatement streaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(Integer.MIN_VALUE);
+        return pstmt;
+    }
+
+    // "?, ?, ?" for building IN lists
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    // keyset ("seek") condition for rows that sort after a given row: for columns a, b, c it is
+    // (a > ? OR (a = ? AND (b > ? OR (b = ? AND c > ?)))), written out instead of a row comparison
+    // so MySQL can use a range scan on an index over the same columns
+    static String seekAfter(String... columns) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i < columns.length - 1) {
+                sb.append('(').append(columns[i]).append(" > ? OR (").append(columns[i]).append(" = ? AND ");
+            } else {
+                sb.append(columns[i]).append(" > ?");
+            }
+        }
+        for (int i = 0; i < columns.length - 1; i++) {
+            sb.append("))");
+        }
+        return sb.toString();
+    }
+
+    // binds the values of the last row seen for seekAfter (every column but the last appears twice),
+    // returns the next parameter index
+    static int bindSeekAfter(PreparedStatement pstmt, int index, Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            pstmt.setObject(index++, values[i]);
+            if (i < values.length - 1) {
+                pstmt.setObject(index++, values[i]);
+            }
+        }
+        return index;
+    }
+
+    static void setNullableString(PreparedStatement pstmt, int index, String value, int sqlType) throws SQLException {
+        if (value == null || value.isEmpty()) {
+            pstmt.setNull(index, sqlType);
+        } else {
+            pstmt.setString(index, value);
+        }
+    }
+
+    static void setNullableDate(PreparedStatement pstmt, int index, java.time.LocalDate value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, Types.DATE);
+        } else {
+            pstmt.setDate(index, java.sql.Date.valueOf(value));
+        }
+    }
+
+    static java.time.LocalDate getLocalDate(ResultSet rs, String column) throws SQLException {
+        java.sql.Date date = rs.getDate(column);
+        return date != null ? date.toLocalDate() : null;
+    }
+}
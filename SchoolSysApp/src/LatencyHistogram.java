@@ -0,0 +1,140 @@
+import java.io.PrintWriter;
+
+// latency histogram in the layout HdrHistogram uses: values below 2048 get a bucket each, larger
+// values share power-of-two ranges split into 1024 buckets, so any recorded value is kept to within
+// 0.1% whatever its size and percentiles come out without storing the samples
+// values are microseconds up to one hour; not thread-safe, each thread records its own and they are merged
+final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 2048;
+    private static final int HALF = SUB_BUCKETS / 2;
+    static final long MAX_VALUE = 3_600_000_000L;
+
+    private final long[] counts = new long[index(MAX_VALUE) + 1];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts[index(value)]++;
+        totalCount++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    long count() {
+        return totalCount;
+    }
+
+    long max() {
+        return max;
+    }
+
+    double mean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    // smallest recorded value that percentile% of the values are at or below (to within a bucket)
+    long percentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(highestEquivalent(i), max));
+            }
+        }
+        return max;
+    }
+
+    // the percentile distribution in HdrHistogram's .hgrm text format (values in ms), which its
+    // plotter reads; the percentiles get closer together towards the tail, five steps per halving
+    void printDistribution(PrintWriter out) {
+        out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+        if (totalCount > 0) {
+            // 0, 10 .. 50, then 55 .. 75, then 77.5 .. 87.5, ... until the maximum is reached
+            double percentile = 0;
+            double step = 10;
+            double half = 50;
+            long value;
+            do {
+                value = percentile(percentile);
+                out.printf("%12.3f %2.12f %10d %14.2f%n", value / 1000.0, percentile / 100, countAtOrBelow(value),
+                    1 / (1 - percentile / 100));
+                percentile += step;
+                if (percentile >= half - 1e-9) {
+                    half += (100 - half) / 2;
+                    step /= 2;
+                }
+            } while (value < max && percentile < 100);
+            out.printf("%12.3f %2.12f %10d%n", max / 1000.0, 1.0, totalCount);
+        }
+        out.printf("#[Mean    = %12.3f, StdDeviation   = %12.3f]%n", mean() / 1000, standardDeviation() / 1000);
+        out.printf("#[Max     = %12.3f, Total count    = %12d]%n", max / 1000.0, totalCount);
+        out.printf("#[Buckets = %12d, SubBuckets     = %12d]%n", (counts.length - SUB_BUCKETS) / HALF + 1, SUB_BUCKETS);
+    }
+
+    private long countAtOrBelow(long value) {
+        long seen = 0;
+        int last = index(value);
+        for (int i = 0; i <= last; i++) {
+            seen += counts[i];
+        }
+        return seen;
+    }
+
+    private double standardDeviation() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double mean = mean();
+        double squares = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                double deviation = (lowestEquivalent(i) + highestEquivalent(i)) / 2.0 - mean;
+                squares += counts[i] * deviation * deviation;
+            }
+        }
+        return Math.sqrt(squares / totalCount);
+    }
+
+    // values below SUB_BUCKETS are their own index; above, the top 11 bits pick the bucket
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 10;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >> shift) - HALF);
+    }
+
+    private static long lowestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        return ((long) (index - SUB_BUCKETS) % HALF + HALF) << shift;
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        return lowestEquivalent(index) + (1L << shift) - 1;
+    }
+}
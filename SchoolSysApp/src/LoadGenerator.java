@@ -0,0 +1,506 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// load generator for the menu's database work (java Main loadtest ...)
+// worker threads pick operations from a weighted mix and run the repository calls the menu runs for
+// them (without the console input and table output), each on its own pooled connection.
+// reads use students, courses and enrollments sampled from the database; writes go to one load-test
+// semester that no real data uses, and are deleted afterwards.
+// with no --rate the workers are a closed loop (the next operation starts when the last one ends);
+// with --rate each operation has a scheduled start and its latency is counted from that schedule,
+// so time spent waiting behind a slow operation is part of the result and not silently left out
+public class LoadGenerator {
+    enum Op {
+        ENROLL("enroll"), MULTI_ENROLL("multi-enroll"), ROSTER("roster"), TRANSCRIPT("transcript"), GRADE("grade");
+
+        final String label;
+        // statements are counted under "loadtest <label>" while metrics are on
+        final String metricsName;
+
+        Op(String label) {
+            this.label = label;
+            this.metricsName = "loadtest " + label;
+        }
+
+        static Op of(String label) {
+            for (Op op : values()) {
+                if (op.label.equals(label)) {
+                    return op;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation: " + label + " (expected enroll, multi-enroll, roster, transcript or grade)");
+        }
+    }
+
+    static final String DEFAULT_MIX = "enroll=40,multi-enroll=10,roster=25,transcript=20,grade=5";
+    // writes only go to semesters after every real one, so the clean-up can't touch real data
+    private static final int FIRST_LOAD_YEAR = 2100;
+    private static final int SAMPLES = 10000;
+    private static final int MULTI_ENROLL_COURSES = 3;
+    // recent enrollments made by the run, which the grade updates pick from
+    private static final int RECENT = 4096;
+    private static final String[] GRADES = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F"};
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    private static final StudentRepository STUDENTS = new StudentRepository();
+    private static final CourseRepository COURSES = new CourseRepository();
+    private static final EnrollmentRepository ENROLLMENTS = new EnrollmentRepository();
+    private static final GpaRepository GPA = new GpaRepository();
+
+    public record Settings(Map<Op, Integer> mix, int threads, boolean virtualThreads, double rate,
+                           int durationSec, int warmupSec, String semester, long seed, String histogramFile, boolean keep) {
+    }
+
+    private final ConnectionPool pool;
+    private final SeatReservation seats;
+    private final Settings settings;
+    private final Op[] ops;
+    private final int[] cumulativeWeights;
+
+    // one sampled enrollment per index
+    private String[] emails;
+    private String[] courseCodes;
+    private String[] semesters;
+
+    private final AtomicReferenceArray<String[]> recent = new AtomicReferenceArray<>(RECENT);
+    private final AtomicLong recentCount = new AtomicLong();
+
+    // live counters for the progress line, and the outcome of every measured operation
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<Op, Map<String, LongAdder>> outcomes = new EnumMap<>(Op.class);
+    private final AtomicLongArray errors = new AtomicLongArray(Op.values().length);
+    private final Map<String, LongAdder> errorMessages = new ConcurrentHashMap<>();
+
+    public LoadGenerator(ConnectionPool pool, SeatReservation seats, Settings settings) {
+        this.pool = pool;
+        this.seats = seats;
+        this.settings = settings;
+        List<Op> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Op, Integer> entry : settings.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The operation mix has no operation with a weight above 0");
+        }
+        ops = weighted.toArray(new Op[0]);
+        cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        for (Op op : Op.values()) {
+            outcomes.put(op, new ConcurrentHashMap<>());
+        }
+    }
+
+    // "enroll=40,roster=60" -> weights; operations left out get 0
+    static Map<Op, Integer> parseMix(String mix) {
+        Map<Op, Integer> weights = new EnumMap<>(Op.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in the mix, got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in the mix: " + part);
+            }
+            weights.put(Op.of(pair[0].trim()), weight);
+        }
+        return weights;
+    }
+
+    // returns false if the run could not start (bad settings or nothing to sample)
+    public boolean run() throws SQLException, InterruptedException, IOException {
+        Integer year = semesterYear(settings.semester());
+        if (year == null || year < FIRST_LOAD_YEAR) {
+            System.err.println("The load-test semester must be a valid semester in " + FIRST_LOAD_YEAR +
+                " or later (e.g. Summer " + FIRST_LOAD_YEAR + "), so its clean-up can't remove real enrollments");
+            return false;
+        }
+        try (Connection conn = pool.getConnection()) {
+            int leftover = removeWrites(conn);
+            if (leftover > 0) {
+                System.out.println("Removed " + leftover + " enrollments left in " + settings.semester() + " by an earlier run");
+            }
+            if (!sample(conn)) {
+                System.err.println("No enrollments to sample - load some data first (java Main generate)");
+                return false;
+            }
+        }
+        if (settings.threads() > pool.getMaxSize()) {
+            System.out.printf("Note: %d threads share %d pooled connections; the rest wait in the pool (db.pool.max)%n",
+                settings.threads(), pool.getMaxSize());
+        }
+
+        StringBuilder mix = new StringBuilder();
+        for (Map.Entry<Op, Integer> entry : settings.mix().entrySet()) {
+            mix.append(mix.length() > 0 ? "," : "").append(entry.getKey().label).append('=').append(entry.getValue());
+        }
+        System.out.printf("Load test: %d %s threads, %s, %d s measured after %d s warm-up%n", settings.threads(),
+            settings.virtualThreads() ? "virtual" : "platform",
+            settings.rate() > 0 ? String.format("target %.0f ops/s", settings.rate()) : "closed loop",
+            settings.durationSec(), settings.warmupSec());
+        System.out.printf("Mix: %s; %d sampled enrollments; writes go to %s%n", mix, emails.length, settings.semester());
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSec());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSec());
+        // per worker and operation, merged once the workers are done
+        LatencyHistogram[][] histograms = new LatencyHistogram[settings.threads()][Op.values().length];
+        ThreadFactory factory = settings.virtualThreads()
+            ? Thread.ofVirtual().name("load-", 0).factory()
+            : Thread.ofPlatform().name("load-", 0).factory();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        progress.scheduleAtFixedRate(new Runnable() {
+            private long lastCompleted;
+            private long lastTime = start;
+
+            @Override
+            public void run() {
+                long now = System.nanoTime();
+                long done = completed.sum();
+                System.out.printf("  %5.0f s %s %9.0f ops/s  %d errors%n", (now - start) / 1e9,
+                    now < measureFrom ? "(warm-up)" : "         ", (done - lastCompleted) / ((now - lastTime) / 1e9), failed.sum());
+                lastCompleted = done;
+                lastTime = now;
+            }
+        }, 5, 5, TimeUnit.SECONDS);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < settings.threads(); w++) {
+            LatencyHistogram[] own = histograms[w];
+            for (int o = 0; o < own.length; o++) {
+                own[o] = new LatencyHistogram();
+            }
+            SplittableRandom random = new SplittableRandom(settings.seed() + w);
+            // with a target rate, each worker runs every threads/rate seconds, staggered so they don't start together
+            long interval = settings.rate() > 0 ? (long) (1e9 * settings.threads() / settings.rate()) : 0;
+            long first = start + interval * w / settings.threads();
+            workers.add(factory.newThread(() -> work(random, own, first, interval, measureFrom, end)));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        progress.shutdownNow();
+        double measured = settings.durationSec();
+
+        LatencyHistogram[] merged = new LatencyHistogram[Op.values().length];
+        LatencyHistogram all = new LatencyHistogram();
+        for (Op op : Op.values()) {
+            merged[op.ordinal()] = new LatencyHistogram();
+            for (LatencyHistogram[] own : histograms) {
+                merged[op.ordinal()].add(own[op.ordinal()]);
+            }
+            all.add(merged[op.ordinal()]);
+        }
+        report(merged, all, measured);
+        if (settings.histogramFile() != null) {
+            writeHistograms(merged, all, settings.histogramFile());
+        }
+
+        if (!settings.keep()) {
+            try (Connection conn = pool.getConnection()) {
+                System.out.println("Removed the " + removeWrites(conn) + " enrollments created by the load test");
+            }
+        }
+        return true;
+    }
+
+    private void work(SplittableRandom random, LatencyHistogram[] histograms, long first, long interval, long measureFrom, long end) {
+        long scheduled = first;
+        while (true) {
+            if (interval > 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long started = interval > 0 ? scheduled : System.nanoTime();
+            if (started >= end) {
+                return;
+            }
+            Op op = pick(random);
+            String outcome;
+            try {
+                outcome = execute(op, random);
+            } catch (SQLException | RuntimeException e) {
+                // a bug in an operation is counted like a failed statement, so the worker keeps going
+                // and the report shows it instead of quietly running with one thread fewer
+                outcome = null;
+                if (started >= measureFrom) {
+                    String message = e instanceof SQLException ? e.getMessage() : e.toString();
+                    errors.incrementAndGet(op.ordinal());
+                    errorMessages.computeIfAbsent(op.label + ": " + message, k -> new LongAdder()).increment();
+                }
+                failed.increment();
+            }
+            long finished = System.nanoTime();
+            if (started >= measureFrom) {
+                histograms[op.ordinal()].record((finished - started) / 1000);
+                if (outcome != null) {
+                    outcomes.get(op).computeIfAbsent(outcome, k -> new LongAdder()).increment();
+                }
+            }
+            completed.increment();
+            scheduled += interval;
+        }
+    }
+
+    private Op pick(SplittableRandom random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < ops.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return ops[i];
+            }
+        }
+        return ops[ops.length - 1];
+    }
+
+    // one operation as the menu runs it, returning its outcome
+    @SuppressWarnings("try")
+    private String execute(Op op, SplittableRandom random) throws SQLException {
+        int i = random.nextInt(emails.length);
+        try (Metrics.Scope scope = Metrics.operation(op.metricsName);
+             Connection conn = pool.getConnection()) {
+            switch (op) {
+                case ENROLL:
+                    return enroll(conn, emails[i], courseCodes[random.nextInt(courseCodes.length)]);
+                case MULTI_ENROLL:
+                    return enrollMultiple(conn, emails[i], random);
+                case ROSTER:
+                    // Main.viewCourseRoster, for a section with real enrollments
+                    ENROLLMENTS.findRoster(conn, courseCodes[i], semesters[i]);
+                    return "ok";
+                case TRANSCRIPT:
+                    // Main.viewStudentTranscript
+                    int studentId = STUDENTS.findIdByEmail(conn, emails[i]);
+                    if (studentId == -1 || ENROLLMENTS.findTranscript(conn, studentId).isEmpty()) {
+                        return "empty";
+                    }
+                    GPA.findTerms(conn, studentId);
+                    return "ok";
+                default:
+                    return updateGrade(conn, random);
+            }
+        }
+    }
+
+    // Main.enrollStudentInCourse
+    private String enroll(Connection conn, String email, String courseCode) throws SQLException {
+        int studentId = STUDENTS.findIdByEmail(conn, email);
+        int courseId = COURSES.findIdByCode(conn, courseCode);
+        if (studentId == -1 || courseId == -1) {
+            return "not found";
+        }
+        SeatReservation.Outcome outcome = seats.enroll(conn, studentId, courseId, settings.semester(), null);
+        if (outcome == SeatReservation.Outcome.ENROLLED) {
+            remember(email, courseCode);
+        }
+        return outcome.name().toLowerCase();
+    }
+
+    // Main.enrollStudentInMultipleCourses: all or nothing in one transaction
+    private String enrollMultiple(Connection conn, String email, SplittableRandom random) throws SQLException {
+        Set<String> codes = new LinkedHashSet<>();
+        while (codes.size() < MULTI_ENROLL_COURSES && codes.size() < courseCodes.length) {
+            codes.add(courseCodes[random.nextInt(courseCodes.length)]);
+        }
+        String[] courses = codes.toArray(new String[0]);
+        conn.setAutoCommit(false);
+        try {
+            int studentId = STUDENTS.findIdByEmail(conn, email);
+            if (studentId == -1) {
+                conn.rollback();
+                return "not found";
+            }
+            List<String> enrolled = new ArrayList<>();
+            List<String> failedCourses = new ArrayList<>();
+            Main.enrollInCourses(conn, studentId, settings.semester(), courses, enrolled, failedCourses, DISCARD);
+            if (!failedCourses.isEmpty()) {
+                conn.rollback();
+                return "rolled back";
+            }
+            conn.commit();
+            for (String course : enrolled) {
+                remember(email, course);
+            }
+            return "committed";
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // Main.updateGrade, on an enrollment this run made
+    private String updateGrade(Connection conn, SplittableRandom random) throws SQLException {
+        long made = recentCount.get();
+        if (made == 0) {
+            return "nothing to grade";
+        }
+        String[] enrollment = recent.get((int) (random.nextLong(Math.min(made, RECENT))));
+        if (enrollment == null) {
+            return "nothing to grade";
+        }
+        int studentId = STUDENTS.findIdByEmail(conn, enrollment[0]);
+        int courseId = COURSES.findIdByCode(conn, enrollment[1]);
+        int rows = 0;
+        if (studentId != -1 && courseId != -1) {
+            rows = ENROLLMENTS.updateGrade(conn, studentId, courseId, settings.semester(), GRADES[random.nextInt(GRADES.length)]);
+        }
+        return rows > 0 ? "updated" : "not found";
+    }
+
+    private void remember(String email, String courseCode) {
+        recent.set((int) (recentCount.getAndIncrement() % RECENT), new String[] {email, courseCode});
+    }
+
+    private void report(LatencyHistogram[] merged, LatencyHistogram all, double seconds) {
+        System.out.printf("%nResults over %.0f s (latency in ms%s)%n", seconds,
+            settings.rate() > 0 ? ", from each operation's scheduled start" : "");
+        System.out.printf("%-14s %9s %9s %8s %8s %8s %8s %8s %8s %8s %7s%n", "Operation", "Count", "ops/s",
+            "mean", "p50", "p95", "p99", "p99.9", "max", "errors", "");
+        for (Op op : Op.values()) {
+            if (merged[op.ordinal()].count() > 0 || errors.get(op.ordinal()) > 0) {
+                printRow(op.label, merged[op.ordinal()], errors.get(op.ordinal()), seconds);
+            }
+        }
+        long totalErrors = 0;
+        for (int i = 0; i < errors.length(); i++) {
+            totalErrors += errors.get(i);
+        }
+        printRow("total", all, totalErrors, seconds);
+        if (settings.rate() > 0 && all.count() < settings.rate() * seconds * 0.95) {
+            System.out.printf("Only %.0f of the target %.0f ops/s were reached: the system (or --threads) can't keep up%n",
+                all.count() / seconds, settings.rate());
+        }
+
+        System.out.println("\nOutcomes");
+        for (Op op : Op.values()) {
+            Map<String, LongAdder> counts = outcomes.get(op);
+            if (!counts.isEmpty()) {
+                StringBuilder line = new StringBuilder();
+                for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counts).entrySet()) {
+                    line.append(line.length() > 0 ? ", " : "").append(entry.getKey()).append(' ').append(entry.getValue().sum());
+                }
+                System.out.printf("  %-14s %s%n", op.label, line);
+            }
+        }
+        long enrolled = sum(Op.ENROLL, "enrolled");
+        long committed = sum(Op.MULTI_ENROLL, "committed");
+        System.out.printf("Enrollments per second: %.1f (%d single, %d multi-course transactions of %d)%n",
+            (enrolled + committed * MULTI_ENROLL_COURSES) / seconds, enrolled, committed, MULTI_ENROLL_COURSES);
+        if (!errorMessages.isEmpty()) {
+            System.out.println("\nErrors");
+            errorMessages.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(10)
+                .forEach(entry -> System.out.printf("  %6d  %s%n", entry.getValue().sum(), entry.getKey()));
+        }
+        System.out.println("Pool: " + pool.statsSummary());
+    }
+
+    private long sum(Op op, String outcome) {
+        LongAdder count = outcomes.get(op).get(outcome);
+        return count == null ? 0 : count.sum();
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram, long errors, double seconds) {
+        System.out.printf("%-14s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f %8d%n", name, histogram.count(),
+            histogram.count() / seconds, histogram.mean() / 1000, histogram.percentile(50) / 1000.0,
+            histogram.percentile(95) / 1000.0, histogram.percentile(99) / 1000.0, histogram.percentile(99.9) / 1000.0,
+            histogram.max() / 1000.0, errors);
+    }
+
+    // every operation's full distribution, one section each
+    private static void writeHistograms(LatencyHistogram[] merged, LatencyHistogram all, String file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8)))) {
+            for (Op op : Op.values()) {
+                if (merged[op.ordinal()].count() > 0) {
+                    out.println("# " + op.label);
+                    merged[op.ordinal()].printDistribution(out);
+                    out.println();
+                }
+            }
+            out.println("# total");
+            all.printDistribution(out);
+        }
+        System.out.println("Latency distributions written to " + file);
+    }
+
+    // enrollments picked by jumping to random student ids, which is cheap on any table size
+    private boolean sample(Connection conn) throws SQLException {
+        int[] range = ENROLLMENTS.findStudentIdRange(conn);
+        if (range == null) {
+            return false;
+        }
+        List<String[]> rows = new ArrayList<>();
+        String sql = "SELECT s.email, c.course_code, e.semester " +
+            "FROM Enrollment e JOIN Student s ON s.student_id = e.student_id JOIN Course c ON c.course_id = e.course_id " +
+            "WHERE e.student_id >= ? ORDER BY e.student_id LIMIT 1";
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < SAMPLES; i++) {
+                pstmt.setInt(1, range[0] + random.nextInt(range[1] - range[0] + 1));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        rows.add(new String[] {rs.getString(1), rs.getString(2), rs.getString(3)});
+                    }
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return false;
+        }
+        emails = new String[rows.size()];
+        courseCodes = new String[rows.size()];
+        semesters = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            emails[i] = rows.get(i)[0];
+            courseCodes[i] = rows.get(i)[1];
+            semesters[i] = rows.get(i)[2];
+        }
+        return true;
+    }
+
+    // deletes the load-test semester (a range of idx_enroll_semester); transcript rows cascade, and the
+    // triggers leave zeroed counters and GPA totals behind
+    private int removeWrites(Connection conn) throws SQLException {
+        int removed;
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM Enrollment WHERE semester = ?")) {
+            pstmt.setString(1, settings.semester());
+            removed = pstmt.executeUpdate();
+        }
+        for (String table : new String[] {"SectionEnrollmentCount", "StudentTermGpa"}) {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + table + " WHERE semester = ?")) {
+                pstmt.setString(1, settings.semester());
+                pstmt.executeUpdate();
+            }
+        }
+        return removed;
+    }
+
+    private static Integer semesterYear(String semester) {
+        if (!Main.isValidSemester(semester)) {
+            return null;
+        }
+        return Integer.parseInt(semester.substring(semester.indexOf(' ') + 1));
+    }
+}
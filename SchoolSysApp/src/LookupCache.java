@@ -0,0 +1,127 @@
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// small bounded cache with LRU eviction and a time-to-live, used in front of the id lookups
+// (email -> student_id, course_code -> course_id); maxSize 0 turns it off
+// entries are only ever added for rows that were found, so a miss always goes to the database
+// a miss is filled with put(key, value, stamp) using the stamp() taken before the database read; an
+// invalidate() in between bumps the generation and the put is dropped, so a read that raced an update
+// can't put the old value back
+final class LookupCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // bumped by every invalidate() and clear(), guarded by entries
+    private long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    LookupCache(int maxSize, long ttlMs) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LookupCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // cached value, or null if absent or expired
+    V get(K key) {
+        if (maxSize == 0) {
+            misses.increment();
+            return null;
+        }
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    // take before reading the value from the database
+    long stamp() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    void put(K key, V value, long stamp) {
+        if (maxSize == 0) {
+            return;
+        }
+        synchronized (entries) {
+            if (stamp != generation) {
+                // something was invalidated while the value was loaded, it may be stale
+                return;
+            }
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(key);
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    long getExpirations() {
+        return expirations.sum();
+    }
+
+    double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
@@ -1,14 +1,54 @@
 import java.io.*;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
 // CS157A Final Project - School Management System
 public class Main {
     private static final String PROPERTIES_FILE = "app.properties";
+    static final String[] VALID_GRADES = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F"};
+    static final Pattern SEMESTER_FORMAT = Pattern.compile("^(Fall|Spring|Summer|Winter) \\d{4}$");
+    
+    // data access; the methods below only prompt and print
+    private static final StudentRepository STUDENTS = new StudentRepository();
+    private static final CourseRepository COURSES = new CourseRepository();
+    private static final EnrollmentRepository ENROLLMENTS = new EnrollmentRepository();
+    private static final InstructorRepository INSTRUCTORS = new InstructorRepository();
+    private static final ClassroomRepository CLASSROOMS = new ClassroomRepository();
+    private static final GpaRepository GPA = new GpaRepository();
+    
+    // metrics operation names of the menu choices, in menu order
+    private static final String[] VIEW_OPERATIONS = {"viewAllStudents", "viewStudentByEmail", "viewStudentEnrollments",
+        "viewAllCourses", "viewCourseByCode", "viewCourseRoster", "viewCoursesByInstructor", "viewAllEnrollments",
+        "viewEnrollmentsBySemester", "viewEnrollmentsByCourse", "viewStudentTranscript", "viewDeansList", "searchDirectory"};
+    private static final String[] INSERT_OPERATIONS = {"addNewStudent", "addNewCourse", "enrollStudentInCourse"};
+    private static final String[] UPDATE_OPERATIONS = {"updateStudentEmail", "updateCourseCredits", "updateGrade"};
+    private static final String[] DELETE_OPERATIONS = {"deleteStudent", "deleteCourse", "dropEnrollment"};
+    
+    // enrollment insert path with section locking and deadlock retry (settings from app.properties)
+    private static SeatReservation seats = new SeatReservation(5, 20);
+    
+    // rows per page in the "view all" listings (view.pageSize)
+    private static int pageSize = 50;
+    
+    // dean's list thresholds: term GPA and graded credits (gpa.deansList.minGpa / minCredits)
+    private static BigDecimal deansListMinGpa = new BigDecimal("3.50");
+    private static int deansListMinCredits = 12;
     
     public static void main(String[] args) {
+        // command-line modes (e.g. "java Main import enrollments.csv") skip the menu
+        if (args.length > 0) {
+            if (!runCommand(args)) {
+                System.exit(1);
+            }
+            return;
+        }
+        
         Scanner scanner = new Scanner(System.in);
-        Connection conn = null;
+        ConnectionPool pool = null;
         
         try {
             // load database config
@@ -23,7 +63,14 @@ public class Main {
             }
             
             System.out.println("Connecting to database...");
-            conn = DriverManager.getConnection(url, username, password);
+            pool = ConnectionPool.fromProperties(props);
+            seats = SeatReservation.fromProperties(props);
+            configureLookupCaches(props);
+            configureDeansList(props);
+            pageSize = Math.max(1, ConnectionPool.intProperty(props, "view.pageSize", 50));
+            startSearchIndex(pool, props);
+            Metrics.start(pool, props);
+            SlowQueryLog.start(pool, props);
             System.out.println("Connected!\n");
             
             // main menu loop
@@ -34,19 +81,22 @@ public class Main {
                 
                 switch (choice) {
                     case 1:
-                        handleViewOperations(conn, scanner);
+                        handleViewOperations(pool, scanner);
                         break;
                     case 2:
-                        handleInsertOperations(conn, scanner);
+                        handleInsertOperations(pool, scanner);
                         break;
                     case 3:
-                        handleUpdateOperations(conn, scanner);
+                        handleUpdateOperations(pool, scanner);
                         break;
                     case 4:
-                        handleDeleteOperations(conn, scanner);
+                        handleDeleteOperations(pool, scanner);
                         break;
                     case 5:
-                        handleTransactionalWorkflow(conn, scanner);
+                        handleTransactionalWorkflow(pool, scanner);
+                        break;
+                    case 6:
+                        printSystemStats(pool);
                         break;
                     case 9:
                         running = false;
@@ -72,19 +122,269 @@ public class Main {
             System.err.println("Unexpected error: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            if (conn != null) {
-                try {
-                    conn.close();
-                } catch (SQLException e) {
-                    System.err.println("Error closing connection: " + e.getMessage());
-                }
+            SlowQueryLog.stop();
+            Metrics.stop();
+            if (pool != null) {
+                pool.close();
             }
             scanner.close();
         }
     }
     
+    // non-interactive commands, returns false if the command failed
+    private static boolean runCommand(String[] args) {
+        ConnectionPool pool = null;
+        try {
+            // commands that don't touch the database
+            if (args[0].equals("render-bench")) {
+                boolean windows = System.getProperty("os.name", "").startsWith("Windows");
+                return RenderBenchmark.run(
+                    Integer.parseInt(optionValue(args, "--rows", "200000")),
+                    Integer.parseInt(optionValue(args, "--rounds", "5")),
+                    optionValue(args, "--out", windows ? "NUL" : "/dev/null"));
+            }
+            if (args[0].equals("startup-probe")) {
+                return StartupCheck.probe();
+            }
+            if (args[0].equals("startup-report")) {
+                return StartupCheck.report(optionValue(args, "--archive", null),
+                    Integer.parseInt(optionValue(args, "--runs", "5")));
+            }
+            
+            Properties props = loadProperties();
+            if (args[0].equals("slowlog")) {
+                if (args.length < 2 || !args[1].equals("report")) {
+                    System.err.println("Usage: java Main slowlog report [--file slow-queries.jsonl] [--top 20] [--by total|max|avg|count]");
+                    return false;
+                }
+                return SlowQueryLog.report(optionValue(args, "--file", props.getProperty("slowlog.file", "slow-queries.jsonl").trim()),
+                    Integer.parseInt(optionValue(args, "--top", "20")), optionValue(args, "--by", "total"));
+            }
+            pool = ConnectionPool.fromProperties(props);
+            seats = SeatReservation.fromProperties(props);
+            configureLookupCaches(props);
+            configureDeansList(props);
+            
+            switch (args[0]) {
+                case "import":
+                    if (args.length < 2) {
+                        System.err.println("Usage: java Main import <enrollments.csv> [--batch-size N] [--commit-every N] [--rejects file]");
+                        return false;
+                    }
+                    EnrollmentImporter importer = new EnrollmentImporter(pool,
+                        Integer.parseInt(optionValue(args, "--batch-size", props.getProperty("import.batchSize", "1000"))),
+                        Integer.parseInt(optionValue(args, "--commit-every", props.getProperty("import.commitEvery", "5000"))));
+                    importer.importFile(args[1], optionValue(args, "--rejects", args[1] + ".rejects.csv"));
+                    break;
+                case "load":
+                    if (args.length < 3) {
+                        System.err.println("Usage: java Main load <" + String.join("|", BulkLoader.tableNames()) + "> <file.csv> " +
+                            "[--on-duplicate skip|upsert] [--mode auto|insert|infile] [--batch-size N] [--rejects file]");
+                        return false;
+                    }
+                    BulkLoader.DuplicatePolicy policy =
+                        BulkLoader.DuplicatePolicy.valueOf(optionValue(args, "--on-duplicate", "skip").toUpperCase());
+                    String mode = optionValue(args, "--mode", "auto");
+                    if (mode.equals("infile") && policy == BulkLoader.DuplicatePolicy.UPSERT) {
+                        System.err.println("--mode infile can only skip duplicates; use --mode insert (or auto) with --on-duplicate upsert");
+                        return false;
+                    }
+                    BulkLoader loader = new BulkLoader(pool,
+                        Integer.parseInt(optionValue(args, "--batch-size", props.getProperty("load.batchSize", "500"))),
+                        policy);
+                    loader.load(args[1], args[2], mode,
+                        optionValue(args, "--rejects", args[2] + ".rejects.csv"));
+                    break;
+                case "export":
+                    if (args.length < 2) {
+                        System.err.println("Usage: java Main export <" + String.join("|", Exporter.datasetNames()) + "> " +
+                            "[--format csv|jsonl|csv.gz|jsonl.gz] [--out file] [--semester \"Fall 2025\"] [--email student@school.edu] " +
+                            "[--parallel student-id|semester] [--partitions N] [--workers N] [--merge]");
+                        return false;
+                    }
+                    String format = optionValue(args, "--format", "csv");
+                    Exporter exporter = new Exporter(pool, ConnectionPool.longProperty(props, "export.progressEvery", 100000));
+                    String partitionBy = optionValue(args, "--parallel", null);
+                    if (partitionBy != null) {
+                        if (!args[1].equals("enrollments")) {
+                            System.err.println("--parallel is only supported for enrollments");
+                            return false;
+                        }
+                        int workers = Integer.parseInt(optionValue(args, "--workers",
+                            props.getProperty("export.workers", "4")));
+                        return exporter.exportParallel(format,
+                            optionValue(args, "--out", args[1] + "." + format),
+                            partitionBy,
+                            Integer.parseInt(optionValue(args, "--partitions", String.valueOf(workers * 2))),
+                            workers,
+                            hasFlag(args, "--merge"));
+                    }
+                    return exporter.export(args[1], format,
+                        optionValue(args, "--out", args[1] + "." + format),
+                        optionValue(args, "--semester", null),
+                        optionValue(args, "--email", null));
+                case "transcripts":
+                    TranscriptStore transcripts = new TranscriptStore(pool);
+                    if (args.length >= 2 && args[1].equals("rebuild")) {
+                        transcripts.rebuild();
+                        break;
+                    }
+                    if (args.length >= 2 && args[1].equals("check")) {
+                        return transcripts.check(Integer.parseInt(optionValue(args, "--samples", "10")));
+                    }
+                    System.err.println("Usage: java Main transcripts <check|rebuild> [--samples N]");
+                    return false;
+                case "gpa":
+                    GpaStore gpa = new GpaStore(pool);
+                    if (args.length >= 2 && args[1].equals("rebuild")) {
+                        gpa.rebuild();
+                        break;
+                    }
+                    if (args.length >= 2 && args[1].equals("check")) {
+                        return gpa.check(Integer.parseInt(optionValue(args, "--samples", "10")));
+                    }
+                    if (args.length >= 2 && args[1].equals("deans-list") && optionValue(args, "--semester", null) != null) {
+                        try (Connection conn = pool.getConnection()) {
+                            printDeansList(conn, optionValue(args, "--semester", null),
+                                new BigDecimal(optionValue(args, "--min-gpa", deansListMinGpa.toPlainString())),
+                                Integer.parseInt(optionValue(args, "--min-credits", String.valueOf(deansListMinCredits))));
+                        }
+                        break;
+                    }
+                    System.err.println("Usage: java Main gpa <check|rebuild> [--samples N] | " +
+                        "gpa deans-list --semester \"Fall 2025\" [--min-gpa 3.5] [--min-credits 12]");
+                    return false;
+                case "generate":
+                    DataGenerator generator = new DataGenerator(pool,
+                        Integer.parseInt(optionValue(args, "--workers", props.getProperty("generate.workers", "4"))),
+                        Integer.parseInt(optionValue(args, "--batch-size", props.getProperty("generate.batchSize", "2000"))));
+                    if (hasFlag(args, "--remove")) {
+                        return generator.remove();
+                    }
+                    int students = Integer.parseInt(optionValue(args, "--students", "100000"));
+                    int courses = Integer.parseInt(optionValue(args, "--courses", String.valueOf(Math.max(50, students / 50))));
+                    return generator.generate(new DataGenerator.Settings(
+                        students,
+                        courses,
+                        Integer.parseInt(optionValue(args, "--sections", String.valueOf(Math.max(1, courses * 7 / 10)))),
+                        Integer.parseInt(optionValue(args, "--semesters", "9")),
+                        optionValue(args, "--last-semester", "Spring 2026"),
+                        Integer.parseInt(optionValue(args, "--courses-per-term", "4")),
+                        Double.parseDouble(optionValue(args, "--skew", "1.0")),
+                        Long.parseLong(optionValue(args, "--seed", "42"))));
+                case "migrate":
+                    Migrator migrator = Migrator.fromProperties(pool, props);
+                    String action = args.length >= 2 && !args[1].startsWith("--") ? args[1] : "up";
+                    switch (action) {
+                        case "up":
+                            return migrator.migrate(hasFlag(args, "--allow-locking"));
+                        case "status":
+                            return migrator.status();
+                        case "baseline":
+                            return migrator.baseline(Integer.parseInt(optionValue(args, "--version", "1")));
+                        case "repair":
+                            return migrator.repair();
+                        default:
+                            System.err.println("Usage: java Main migrate [up] [--allow-locking] | migrate status | " +
+                                "migrate baseline [--version N] | migrate repair");
+                            return false;
+                    }
+                case "explain-check":
+                    ExplainCheck explain = new ExplainCheck(pool, Long.parseLong(optionValue(args, "--min-rows", "1000")));
+                    return explain.run(Integer.parseInt(optionValue(args, "--seed", "0")), hasFlag(args, "--keep"));
+                case "stress":
+                    // no default course: the test fills the section to capacity, so it has to be picked on purpose
+                    String stressCourse = optionValue(args, "--course", null);
+                    if (stressCourse == null) {
+                        System.err.println("Usage: java Main stress --course <course_code> [--semester \"Winter 2099\"] " +
+                            "[--threads 32] [--students 1000] [--repeat 2] [--keep]");
+                        return false;
+                    }
+                    SeatStressTest stress = new SeatStressTest(pool, seats);
+                    return stress.run(
+                        stressCourse.toUpperCase(),
+                        optionValue(args, "--semester", "Winter 2099"),
+                        Integer.parseInt(optionValue(args, "--threads", "32")),
+                        Integer.parseInt(optionValue(args, "--students", "1000")),
+                        Integer.parseInt(optionValue(args, "--repeat", "2")),
+                        hasFlag(args, "--keep"));
+                case "loadtest":
+                    Metrics.start(pool, props);
+                    SlowQueryLog.start(pool, props);
+                    LoadGenerator load = new LoadGenerator(pool, seats, new LoadGenerator.Settings(
+                        LoadGenerator.parseMix(optionValue(args, "--mix", LoadGenerator.DEFAULT_MIX)),
+                        Integer.parseInt(optionValue(args, "--threads", "16")),
+                        hasFlag(args, "--virtual"),
+                        Double.parseDouble(optionValue(args, "--rate", "0")),
+                        Integer.parseInt(optionValue(args, "--duration", "60")),
+                        Integer.parseInt(optionValue(args, "--warmup", "10")),
+                        optionValue(args, "--semester", "Summer 2100"),
+                        Long.parseLong(optionValue(args, "--seed", "42")),
+                        optionValue(args, "--histogram", null),
+                        hasFlag(args, "--keep")));
+                    return load.run();
+                case "serve":
+                    startSearchIndex(pool, props);
+                    Metrics.start(pool, props);
+                    SlowQueryLog.start(pool, props);
+                    ApiServer server = new ApiServer(pool, seats,
+                        Integer.parseInt(optionValue(args, "--port", props.getProperty("server.port", "8080"))),
+                        ConnectionPool.intProperty(props, "server.backlog", 1024));
+                    server.start();
+                    // keep serving until the JVM is asked to stop (Ctrl+C / SIGTERM)
+                    CountDownLatch stopped = new CountDownLatch(1);
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        server.stop();
+                        stopped.countDown();
+                    }));
+                    stopped.await();
+                    break;
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+                    System.err.println("Commands: import, load, export, transcripts, gpa, generate, migrate, explain-check, stress, loadtest, slowlog, serve, render-bench, startup-report");
+                    return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Database error: " + e.getMessage());
+            e.printStackTrace();
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Unexpected error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            SlowQueryLog.stop();
+            Metrics.stop();
+            if (pool != null) {
+                pool.close();
+            }
+        }
+        return false;
+    }
+    
+    // value following a --flag on the command line, or the default if the flag is absent
+    static String optionValue(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+    
+    static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     // load properties file
-    private static Properties loadProperties() throws IOException {
+    static Properties loadProperties() throws IOException {
         Properties props = new Properties();
         FileInputStream fis = null;
         
@@ -100,6 +400,31 @@ public class Main {
         return props;
     }
     
+    // email -> student_id and course_code -> course_id caches (lookup.cache.* in app.properties)
+    private static void configureLookupCaches(Properties props) {
+        int maxSize = ConnectionPool.intProperty(props, "lookup.cache.maxSize", 10000);
+        long ttlMs = ConnectionPool.longProperty(props, "lookup.cache.ttlMs", 300000);
+        StudentRepository.configureIdCache(maxSize, ttlMs);
+        CourseRepository.configureIdCache(maxSize, ttlMs);
+    }
+    
+    // search.enabled / search.refreshMs; a failed load only disables search
+    static void startSearchIndex(ConnectionPool pool, Properties props) {
+        if (!Boolean.parseBoolean(props.getProperty("search.enabled", "true").trim())) {
+            return;
+        }
+        try {
+            SearchIndex.start(pool, ConnectionPool.longProperty(props, "search.refreshMs", 60000));
+        } catch (SQLException e) {
+            System.err.println("Search index not loaded: " + e.getMessage());
+        }
+    }
+    
+    private static void configureDeansList(Properties props) {
+        deansListMinGpa = new BigDecimal(props.getProperty("gpa.deansList.minGpa", "3.50").trim());
+        deansListMinCredits = ConnectionPool.intProperty(props, "gpa.deansList.minCredits", 12);
+    }
+    
     private static void printMainMenu() {
         System.out.println("\nSchool Management System");
         System.out.println("1. View Operations");
@@ -107,11 +432,13 @@ public class Main {
         System.out.println("3. Update Operations");
         System.out.println("4. Delete Operations");
         System.out.println("5. Transactional Workflow");
+        System.out.println("6. System Statistics");
         System.out.println("9. Exit");
         System.out.print("Enter choice: ");
     }
     
-    private static void handleViewOperations(Connection conn, Scanner scanner) {
+    @SuppressWarnings("try")
+    private static void handleViewOperations(ConnectionPool pool, Scanner scanner) {
         boolean back = false;
         
         while (!back) {
@@ -127,15 +454,24 @@ public class Main {
             System.out.println("9. View Enrollments by Semester");
             System.out.println("10. View Enrollments by Course");
             System.out.println("11. View Student Transcript");
+            System.out.println("12. View Dean's List");
+            System.out.println("13. Search Students, Courses and Instructors");
             System.out.println("0. Back");
             System.out.print("Enter choice: ");
             
-            int choice = getMenuChoice(scanner, 0, 11);
+            int choice = getMenuChoice(scanner, 0, 13);
             
-            try {
+            if (choice == 0) {
+                back = true;
+                continue;
+            }
+            
+            // borrow a connection for this one operation only
+            try (Metrics.Scope op = Metrics.operation(VIEW_OPERATIONS[choice - 1]);
+                 Connection conn = pool.getConnection()) {
                 switch (choice) {
                     case 1:
-                        viewAllStudents(conn);
+                        viewAllStudents(conn, scanner);
                         break;
                     case 2:
                         viewStudentByEmail(conn, scanner);
@@ -144,7 +480,7 @@ public class Main {
                         viewStudentEnrollments(conn, scanner);
                         break;
                     case 4:
-                        viewAllCourses(conn);
+                        viewAllCourses(conn, scanner);
                         break;
                     case 5:
                         viewCourseByCode(conn, scanner);
@@ -156,7 +492,7 @@ public class Main {
                         viewCoursesByInstructor(conn, scanner);
                         break;
                     case 8:
-                        viewAllEnrollments(conn);
+                        viewAllEnrollments(conn, scanner);
                         break;
                     case 9:
                         viewEnrollmentsBySemester(conn, scanner);
@@ -167,8 +503,11 @@ public class Main {
                     case 11:
                         viewStudentTranscript(conn, scanner);
                         break;
-                    case 0:
-                        back = true;
+                    case 12:
+                        viewDeansList(conn, scanner);
+                        break;
+                    case 13:
+                        searchDirectory(scanner);
                         break;
                     default:
                         System.out.println("Invalid choice.");
@@ -179,7 +518,8 @@ public class Main {
         }
     }
     
-    private static void handleInsertOperations(Connection conn, Scanner scanner) {
+    @SuppressWarnings("try")
+    private static void handleInsertOperations(ConnectionPool pool, Scanner scanner) {
         boolean back = false;
         
         while (!back) {
@@ -192,7 +532,14 @@ public class Main {
             
             int choice = getMenuChoice(scanner, 0, 3);
             
-            try {
+            if (choice == 0) {
+                back = true;
+                continue;
+            }
+            
+            // borrow a connection for this one operation only
+            try (Metrics.Scope op = Metrics.operation(INSERT_OPERATIONS[choice - 1]);
+                 Connection conn = pool.getConnection()) {
                 switch (choice) {
                     case 1:
                         addNewStudent(conn, scanner);
@@ -203,9 +550,6 @@ public class Main {
                     case 3:
                         enrollStudentInCourse(conn, scanner);
                         break;
-                    case 0:
-                        back = true;
-                        break;
                     default:
                         System.out.println("Invalid choice.");
                 }
@@ -215,7 +559,8 @@ public class Main {
         }
     }
     
-    private static void handleUpdateOperations(Connection conn, Scanner scanner) {
+    @SuppressWarnings("try")
+    private static void handleUpdateOperations(ConnectionPool pool, Scanner scanner) {
         boolean back = false;
         
         while (!back) {
@@ -228,7 +573,14 @@ public class Main {
             
             int choice = getMenuChoice(scanner, 0, 3);
             
-            try {
+            if (choice == 0) {
+                back = true;
+                continue;
+            }
+            
+            // borrow a connection for this one operation only
+            try (Metrics.Scope op = Metrics.operation(UPDATE_OPERATIONS[choice - 1]);
+                 Connection conn = pool.getConnection()) {
                 switch (choice) {
                     case 1:
                         updateStudentEmail(conn, scanner);
@@ -239,9 +591,6 @@ public class Main {
                     case 3:
                         updateGrade(conn, scanner);
                         break;
-                    case 0:
-                        back = true;
-                        break;
                     default:
                         System.out.println("Invalid choice.");
                 }
@@ -251,7 +600,8 @@ public class Main {
         }
     }
     
-    private static void handleDeleteOperations(Connection conn, Scanner scanner) {
+    @SuppressWarnings("try")
+    private static void handleDeleteOperations(ConnectionPool pool, Scanner scanner) {
         boolean back = false;
         
         while (!back) {
@@ -264,7 +614,14 @@ public class Main {
             
             int choice = getMenuChoice(scanner, 0, 3);
             
-            try {
+            if (choice == 0) {
+                back = true;
+                continue;
+            }
+            
+            // borrow a connection for this one operation only
+            try (Metrics.Scope op = Metrics.operation(DELETE_OPERATIONS[choice - 1]);
+                 Connection conn = pool.getConnection()) {
                 switch (choice) {
                     case 1:
                         deleteStudent(conn, scanner);
@@ -275,9 +632,6 @@ public class Main {
                     case 3:
                         dropEnrollment(conn, scanner);
                         break;
-                    case 0:
-                        back = true;
-                        break;
                     default:
                         System.out.println("Invalid choice.");
                 }
@@ -289,30 +643,77 @@ public class Main {
     
     // transactional workflow - enroll student in multiple courses
     // demonstrates COMMIT and ROLLBACK
-    private static void handleTransactionalWorkflow(Connection conn, Scanner scanner) {
+    @SuppressWarnings("try")
+    private static void handleTransactionalWorkflow(ConnectionPool pool, Scanner scanner) {
         System.out.println("\nTransactional Workflow - Multi-Course Enrollment");
         System.out.println("If any enrollment fails, all will be rolled back.");
         System.out.println();
         
-        enrollStudentInMultipleCourses(conn, scanner);
+        try (Metrics.Scope op = Metrics.operation("enrollStudentInMultipleCourses");
+             Connection conn = pool.getConnection()) {
+            enrollStudentInMultipleCourses(conn, scanner);
+        } catch (SQLException e) {
+            System.err.println("Database error: " + e.getMessage());
+        }
+    }
+    
+    // pool and cache stats, used to size db.pool.*, db.stmt.cacheSize and lookup.cache.* under load
+    private static void printSystemStats(ConnectionPool pool) {
+        System.out.println("\nSystem Statistics");
+        System.out.println("Connection pool");
+        System.out.println("  Active connections: " + pool.getActiveCount());
+        System.out.println("  Idle connections: " + pool.getIdleCount());
+        System.out.println("  Open connections: " + pool.getTotalCount() + " (max " + pool.getMaxSize() + ")");
+        System.out.println("  Borrows: " + pool.getBorrowCount());
+        System.out.printf("  Average wait: %.3f ms%n", pool.getAverageWaitMillis());
+        System.out.printf("  Max wait: %.3f ms%n", pool.getMaxWaitMillis());
+        System.out.println("  Borrow timeouts: " + pool.getTimeoutCount());
+        System.out.println("Statement cache (" + pool.getStatementCacheSize() + " per connection)");
+        System.out.println("  Hits: " + pool.getStatementCacheHits());
+        System.out.println("  Misses: " + pool.getStatementCacheMisses());
+        System.out.printf("  Hit rate: %.1f%%%n", pool.getStatementCacheHitRate() * 100);
+        System.out.println("  Evictions: " + pool.getStatementCacheEvictions());
+        printLookupCacheStats("Student id cache", StudentRepository.idCache());
+        printLookupCacheStats("Course id cache", CourseRepository.idCache());
+        printStatementMetrics();
+    }
+    
+    // totals since startup per operation (the same numbers /metrics serves)
+    private static void printStatementMetrics() {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        System.out.println("SQL statements by operation");
+        System.out.printf("  %-32s %10s %10s %12s %12s  %s%n", "Operation", "Statements", "Avg ms", "Rows read", "Rows written", "Errors");
+        for (Metrics.Operation op : Metrics.operations()) {
+            long statements = op.statements.sum();
+            StringBuilder errors = new StringBuilder();
+            for (Map.Entry<String, LongAdder> error : new TreeMap<>(op.errors).entrySet()) {
+                errors.append(errors.length() > 0 ? ", " : "").append(error.getKey()).append(": ").append(error.getValue().sum());
+            }
+            System.out.printf("  %-32s %10d %10.3f %12d %12d  %s%n", op.name, statements,
+                statements > 0 ? op.nanos.sum() / 1e6 / statements : 0.0, op.rowsRead.sum(), op.rowsWritten.sum(), errors);
+        }
+    }
+    
+    private static void printLookupCacheStats(String title, LookupCache<String, Integer> cache) {
+        System.out.println(title + " (" + cache.size() + " of " + cache.getMaxSize() + " entries)");
+        System.out.println("  Hits: " + cache.getHits());
+        System.out.println("  Misses: " + cache.getMisses());
+        System.out.printf("  Hit rate: %.1f%%%n", cache.getHitRate() * 100);
+        System.out.println("  Evictions: " + cache.getEvictions() + ", expired: " + cache.getExpirations());
     }
     
     // enroll student in multiple courses with transaction
+    // the input is read first, then the enrollments run as one transaction that is started over
+    // after a deadlock or lock wait timeout
     private static void enrollStudentInMultipleCourses(Connection conn, Scanner scanner) {
-        boolean originalAutoCommit = true;
-        
         try {
-            originalAutoCommit = conn.getAutoCommit();
-            conn.setAutoCommit(false);
-            System.out.println("Transaction started (auto-commit disabled)\n");
-            
             String email = getNonEmptyString(scanner, "Enter student email: ");
             
-            int studentId = getStudentIdByEmail(conn, email);
+            int studentId = STUDENTS.findIdByEmail(conn, email);
             if (studentId == -1) {
                 System.out.println("Error: Student not found");
-                conn.rollback();
-                System.out.println("Rollback complete");
                 return;
             }
             System.out.println("Student found: " + email + " (ID: " + studentId + ")");
@@ -324,7 +725,6 @@ public class Main {
             String coursesInput = scanner.nextLine().trim();
             if (coursesInput.isEmpty()) {
                 System.out.println("Error: Need at least one course");
-                conn.rollback();
                 return;
             }
             String[] courseCodes = coursesInput.split(",");
@@ -335,40 +735,15 @@ public class Main {
             List<String> enrolledCourses = new ArrayList<>();
             List<String> failedCourses = new ArrayList<>();
             
-            System.out.println("\nProcessing enrollments...\n");
-            
-            for (String courseCode : courseCodes) {
-                System.out.println("Processing: " + courseCode);
-                
-                int courseId = getCourseIdByCode(conn, courseCode);
-                if (courseId == -1) {
-                    System.out.println("  Error: Course not found");
-                    failedCourses.add(courseCode + " (not found)");
-                    continue;
-                }
-                
-                if (enrollmentExists(conn, studentId, courseId, semester)) {
-                    System.out.println("  Error: Already enrolled");
-                    failedCourses.add(courseCode + " (duplicate)");
-                    continue;
-                }
-                
-                String sql = "INSERT INTO Enrollment (student_id, course_id, semester, grade) VALUES (?, ?, ?, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setInt(1, studentId);
-                    pstmt.setInt(2, courseId);
-                    pstmt.setString(3, semester);
-                    pstmt.setNull(4, Types.CHAR);
-                    
-                    pstmt.executeUpdate();
-                    System.out.println("  Success");
-                    enrolledCourses.add(courseCode);
-                } catch (SQLException e) {
-                    System.out.println("  Error: " + e.getMessage());
-                    failedCourses.add(courseCode + " (" + e.getMessage() + ")");
-                }
-                System.out.println();
-            }
+            System.out.println("\nTransaction started (auto-commit disabled)");
+            System.out.println("Processing enrollments...\n");
+            seats.inTransaction(conn, c -> {
+                // a retried attempt starts over with empty results
+                enrolledCourses.clear();
+                failedCourses.clear();
+                enrollInCourses(c, studentId, semester, courseCodes, enrolledCourses, failedCourses, System.out);
+                return failedCourses.isEmpty();
+            });
             
             if (!failedCourses.isEmpty()) {
                 System.out.println("TRANSACTION FAILED");
@@ -376,32 +751,101 @@ public class Main {
                 for (String failed : failedCourses) {
                     System.out.println("  - " + failed);
                 }
-                System.out.println("\nRolling back all changes...");
-                conn.rollback();
                 System.out.println("Rollback complete - no enrollments created\n");
             } else {
                 System.out.println("All enrollments succeeded:");
                 for (String course : enrolledCourses) {
                     System.out.println("  - " + course);
                 }
-                System.out.println("\nCommitting transaction...");
-                conn.commit();
                 System.out.println("Commit complete - all enrollments saved\n");
             }
             
         } catch (SQLException e) {
-            System.err.println("Database error: " + e.getMessage());
-            try {
-                conn.rollback();
-                System.err.println("Rollback complete");
-            } catch (SQLException rollbackEx) {
-                System.err.println("Rollback failed: " + rollbackEx.getMessage());
+            if (SeatReservation.isRetryable(e)) {
+                System.err.println("Error: The courses are busy right now, please try again.");
+            } else {
+                System.err.println("Database error: " + e.getMessage());
             }
-        } finally {
+            System.err.println("Rollback complete - no enrollments created");
+        }
+    }
+    
+    // the database work of "Enroll Student in Multiple Courses" once the input has been read
+    // (also run by the benchmarks); progress goes to out, and the caller commits or rolls back
+    static void enrollInCourses(Connection conn, int studentId, String semester, String[] courseCodes,
+                                List<String> enrolledCourses, List<String> failedCourses, PrintStream out)
+            throws SQLException {
+        // resolve every code and check for existing enrollments with one query each
+        Map<String, Integer> courseIds = COURSES.findIdsByCodes(conn, Arrays.asList(courseCodes));
+        Set<Integer> alreadyEnrolled = ENROLLMENTS.findEnrolledCourseIds(conn, studentId, semester, courseIds.values());
+        
+        List<String> toInsert = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (String courseCode : courseCodes) {
+            out.println("Processing: " + courseCode);
+            
+            Integer courseId = courseIds.get(courseCode);
+            if (courseId == null) {
+                out.println("  Error: Course not found");
+                failedCourses.add(courseCode + " (not found)");
+            } else if (alreadyEnrolled.contains(courseId) || !seen.add(courseId)) {
+                out.println("  Error: Already enrolled");
+                failedCourses.add(courseCode + " (duplicate)");
+            } else {
+                out.println("  Queued");
+                toInsert.add(courseCode);
+            }
+        }
+        out.println();
+        
+        if (!toInsert.isEmpty()) {
+            insertEnrollmentBatch(conn, studentId, semester, toInsert, courseIds, enrolledCourses, failedCourses, out);
+            out.println();
+        }
+    }
+    
+    // insert all queued courses with one JDBC batch
+    // if the batch fails (e.g. capacity trigger) it is undone back to a savepoint and the rows are
+    // retried one at a time so the report can still say which course failed and why
+    // a deadlock or lock wait timeout has already rolled back the whole transaction (savepoint included),
+    // so those are thrown for the caller to start the transaction over
+    private static void insertEnrollmentBatch(Connection conn, int studentId, String semester, List<String> courseCodes,
+                                              Map<String, Integer> courseIds, List<String> enrolledCourses,
+                                              List<String> failedCourses, PrintStream out) throws SQLException {
+        // lock the section counters in course_id order first, so overlapping
+        // multi-course enrollments wait for each other instead of deadlocking
+        List<Integer> sectionIds = new ArrayList<>();
+        for (String courseCode : courseCodes) {
+            sectionIds.add(courseIds.get(courseCode));
+        }
+        SeatReservation.lockSections(conn, semester, sectionIds);
+        
+        Savepoint beforeBatch = conn.setSavepoint();
+        try {
+            ENROLLMENTS.insertBatch(conn, studentId, semester, sectionIds);
+            for (String courseCode : courseCodes) {
+                out.println(courseCode + ": Success");
+                enrolledCourses.add(courseCode);
+            }
+            return;
+        } catch (BatchUpdateException e) {
+            if (SeatReservation.isRetryable(e)) {
+                throw e;
+            }
+            conn.rollback(beforeBatch);
+        }
+        
+        for (String courseCode : courseCodes) {
             try {
-                conn.setAutoCommit(originalAutoCommit);
+                ENROLLMENTS.insert(conn, studentId, courseIds.get(courseCode), semester, null);
+                out.println(courseCode + ": Success");
+                enrolledCourses.add(courseCode);
             } catch (SQLException e) {
-                System.err.println("Error restoring auto-commit: " + e.getMessage());
+                if (SeatReservation.isRetryable(e)) {
+                    throw e;
+                }
+                out.println(courseCode + ": Error: " + e.getMessage());
+                failedCourses.add(courseCode + " (" + e.getMessage() + ")");
             }
         }
     }
@@ -455,18 +899,28 @@ public class Main {
         }
     }
     
+    static boolean isValidGrade(String grade) {
+        for (String g : VALID_GRADES) {
+            if (g.equals(grade)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static boolean isValidSemester(String semester) {
+        return SEMESTER_FORMAT.matcher(semester).matches();
+    }
+    
     private static String getValidGrade(Scanner scanner, String prompt, boolean allowEmpty) {
-        String[] validGrades = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F"};
         while (true) {
             System.out.print(prompt);
             String input = scanner.nextLine().trim().toUpperCase();
             if (allowEmpty && input.isEmpty()) {
                 return null;
             }
-            for (String g : validGrades) {
-                if (input.equals(g)) {
-                    return input;
-                }
+            if (isValidGrade(input)) {
+                return input;
             }
             System.out.println("Error: Invalid grade. Valid grades: A, A-, B+, B, B-, C+, C, C-, D, F. Please try again.");
         }
@@ -476,7 +930,7 @@ public class Main {
         while (true) {
             System.out.print(prompt);
             String input = scanner.nextLine().trim();
-            if (input.matches("^(Fall|Spring|Summer|Winter) \\d{4}$")) {
+            if (isValidSemester(input)) {
                 return input;
             }
             System.out.println("Error: Semester must be in format 'Fall YYYY', 'Spring YYYY', 'Summer YYYY', or 'Winter YYYY'. Please try again.");
@@ -484,148 +938,106 @@ public class Main {
     }
     
     private static void listInstructors(Connection conn) throws SQLException {
-        String sql = "SELECT instructor_id, first_name, last_name, email, department FROM Instructor ORDER BY last_name, first_name";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            System.out.println("\nAvailable Instructors");
-            System.out.printf("%-5s %-25s %-30s %-20s%n", "ID", "Name", "Email", "Department");
-            System.out.println("--------------------------------------------------------------------------------");
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                System.out.printf("%-5d %-25s %-30s %-20s%n",
-                    rs.getInt("instructor_id"),
-                    rs.getString("first_name") + " " + rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("department") != null ? rs.getString("department") : "N/A");
-            }
-            if (!hasData) {
-                System.out.println("No instructors found.");
-            }
-            System.out.println();
+        List<Instructor> instructors = INSTRUCTORS.findAll(conn);
+        TableRenderer table = TableRenderer.console()
+            .column("ID", 5).column("Name", 25).column("Email", 30).column("Department", 20);
+        table.line("\nAvailable Instructors");
+        table.header();
+        for (Instructor instructor : instructors) {
+            table.cell(instructor.instructorId()).cell(instructor.fullName()).cell(instructor.email())
+                .cell(instructor.department()).endRow();
         }
+        if (instructors.isEmpty()) {
+            table.line("No instructors found.");
+        }
+        table.line("");
+        table.flush();
     }
     
     private static void listClassrooms(Connection conn) throws SQLException {
-        String sql = "SELECT classroom_id, building, room_number, capacity FROM Classroom ORDER BY building, room_number";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            System.out.println("\nAvailable Classrooms");
-            System.out.printf("%-5s %-15s %-15s %-10s%n", "ID", "Building", "Room", "Capacity");
-            System.out.println("--------------------------------------------------------------------------------");
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                System.out.printf("%-5d %-15s %-15s %-10d%n",
-                    rs.getInt("classroom_id"),
-                    rs.getString("building"),
-                    rs.getString("room_number"),
-                    rs.getInt("capacity"));
-            }
-            if (!hasData) {
-                System.out.println("No classrooms found.");
-            }
-            System.out.println();
+        List<Classroom> classrooms = CLASSROOMS.findAll(conn);
+        TableRenderer table = TableRenderer.console()
+            .column("ID", 5).column("Building", 15).column("Room", 15).column("Capacity", 10);
+        table.line("\nAvailable Classrooms");
+        table.header();
+        for (Classroom classroom : classrooms) {
+            table.cell(classroom.classroomId()).cell(classroom.building()).cell(classroom.roomNumber())
+                .cell(classroom.capacity()).endRow();
         }
-    }
-    
-    private static boolean instructorExists(Connection conn, int instructorId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM Instructor WHERE instructor_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, instructorId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
+        if (classrooms.isEmpty()) {
+            table.line("No classrooms found.");
         }
-        return false;
+        table.line("");
+        table.flush();
     }
     
-    private static boolean classroomExists(Connection conn, int classroomId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM Classroom WHERE classroom_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, classroomId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-        return false;
+    // one keyset page of a listing, starting after the given row (null for the first page)
+    private interface PageQuery<T> {
+        List<T> page(T after, int limit) throws SQLException;
     }
     
-    private static int getStudentIdByEmail(Connection conn, String email) throws SQLException {
-        String sql = "SELECT student_id FROM Student WHERE email = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("student_id");
-                }
-            }
-        }
-        return -1;
+    // every row of a listing after the given row, streamed
+    private interface StreamQuery<T> {
+        void stream(T after, RowHandler<T> handler) throws SQLException, IOException;
     }
     
-    private static int getCourseIdByCode(Connection conn, String courseCode) throws SQLException {
-        String sql = "SELECT course_id FROM Course WHERE course_code = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, courseCode);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("course_id");
-                }
+    // prints a listing one page at a time; after each full page the user can go on, print everything
+    // that is left as a stream, or stop. Only the current page is ever held in memory.
+    // returns the number of rows printed
+    private static <T> long browse(Scanner scanner, TableRenderer table, PageQuery<T> pages, StreamQuery<T> rest,
+                                   java.util.function.Consumer<T> printer) throws SQLException {
+        long printed = 0;
+        T last = null;
+        while (true) {
+            List<T> page = pages.page(last, pageSize);
+            for (T row : page) {
+                printer.accept(row);
             }
-        }
-        return -1;
-    }
-    
-    private static boolean enrollmentExists(Connection conn, int studentId, int courseId, String semester) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM Enrollment WHERE student_id = ? AND course_id = ? AND semester = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, studentId);
-            pstmt.setInt(2, courseId);
-            pstmt.setString(3, semester);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
+            printed += page.size();
+            if (page.size() < pageSize) {
+                return printed;
+            }
+            last = page.get(page.size() - 1);
+            
+            table.flush();
+            System.out.print("-- " + printed + " rows shown. Enter: next page, a: all remaining, q: stop -- ");
+            String answer = scanner.nextLine().trim().toLowerCase();
+            if (answer.equals("q")) {
+                return printed;
+            }
+            if (answer.equals("a")) {
+                long[] streamed = {printed};
+                try {
+                    rest.stream(last, row -> {
+                        printer.accept(row);
+                        streamed[0]++;
+                    });
+                } catch (IOException e) {
+                    throw new SQLException(e.getMessage(), e);
                 }
+                return streamed[0];
             }
         }
-        return false;
     }
     
     // view operations - student
     
-    private static void viewAllStudents(Connection conn) throws SQLException {
-        String sql = "SELECT student_id, first_name, last_name, email, dob FROM Student ORDER BY last_name, first_name";
+    private static void viewAllStudents(Connection conn, Scanner scanner) throws SQLException {
+        TableRenderer table = TableRenderer.console()
+            .column("ID", 10).column("First Name", 20).column("Last Name", 20).column("Email", 30).column("DOB", 12);
+        table.line("\nAll Students");
+        table.header();
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            System.out.println("\nAll Students");
-            System.out.printf("%-10s %-20s %-20s %-30s %-12s%n", 
-                "ID", "First Name", "Last Name", "Email", "DOB");
-            System.out.println("--------------------------------------------------------------------------------");
-            
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                int id = rs.getInt("student_id");
-                String firstName = rs.getString("first_name");
-                String lastName = rs.getString("last_name");
-                String email = rs.getString("email");
-                java.sql.Date dob = rs.getDate("dob");
-                
-                System.out.printf("%-10d %-20s %-20s %-30s %-12s%n",
-                    id, firstName, lastName, email, dob != null ? dob.toString() : "N/A");
-            }
-            
-            if (!hasData) {
-                System.out.println("No students found.");
-            }
+        long shown = Main.<Student>browse(scanner, table,
+            (after, limit) -> STUDENTS.findPage(conn, after, limit),
+            (after, handler) -> STUDENTS.streamAll(conn, after, handler),
+            student -> table.cell(student.studentId()).cell(student.firstName()).cell(student.lastName())
+                .cell(student.email()).cell(student.dob()).endRow());
+        
+        if (shown == 0) {
+            table.line("No students found.");
         }
+        table.flush();
     }
     
     private static void viewStudentByEmail(Connection conn, Scanner scanner) throws SQLException {
@@ -637,131 +1049,89 @@ public class Main {
             return;
         }
         
-        String sql = "SELECT student_id, first_name, last_name, email, dob FROM Student WHERE email = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    System.out.println("\nStudent Details");
-                    System.out.println("ID: " + rs.getInt("student_id"));
-                    System.out.println("Name: " + rs.getString("first_name") + " " + rs.getString("last_name"));
-                    System.out.println("Email: " + rs.getString("email"));
-                    java.sql.Date dob = rs.getDate("dob");
-                    System.out.println("Date of Birth: " + (dob != null ? dob.toString() : "N/A"));
-                } else {
-                    System.out.println("Student not found with email: " + email);
-                }
-            }
+        Optional<Student> found = STUDENTS.findByEmail(conn, email);
+        TableRenderer table = TableRenderer.console();
+        if (found.isPresent()) {
+            Student student = found.get();
+            table.line("\nStudent Details");
+            table.field("ID", student.studentId());
+            table.field("Name", student.fullName());
+            table.field("Email", student.email());
+            table.field("Date of Birth", student.dob());
+        } else {
+            table.line("Student not found with email: " + email);
         }
+        table.flush();
     }
     
     private static void viewStudentEnrollments(Connection conn, Scanner scanner) throws SQLException {
         System.out.print("Enter student email: ");
         String email = scanner.nextLine().trim();
         
-        String sql = "SELECT e.semester, c.course_code, c.course_name, e.grade " +
-                     "FROM Enrollment e " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "WHERE s.email = ? " +
-                     "ORDER BY e.semester, c.course_code";
+        List<EnrollmentRow> rows = ENROLLMENTS.findByStudentEmail(conn, email);
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("\nEnrollments for " + email);
-                System.out.printf("%-15s %-15s %-30s %-10s%n", 
-                    "Semester", "Course Code", "Course Name", "Grade");
-                System.out.println("--------------------------------------------------------------------------------");
-                
-                boolean hasData = false;
-                while (rs.next()) {
-                    hasData = true;
-                    System.out.printf("%-15s %-15s %-30s %-10s%n",
-                        rs.getString("semester"),
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getString("grade") != null ? rs.getString("grade") : "N/A");
-                }
-                
-                if (!hasData) {
-                    System.out.println("No enrollments found for this student.");
-                }
-            }
+        TableRenderer table = TableRenderer.console()
+            .column("Semester", 15).column("Course Code", 15).column("Course Name", 30).column("Grade", 10);
+        table.line("\nEnrollments for " + email);
+        table.header();
+        for (EnrollmentRow row : rows) {
+            table.cell(row.semester()).cell(row.courseCode()).cell(row.courseName()).cell(row.grade()).endRow();
         }
+        if (rows.isEmpty()) {
+            table.line("No enrollments found for this student.");
+        }
+        table.flush();
     }
     
     // view operations - course
     
-    private static void viewAllCourses(Connection conn) throws SQLException {
-        String sql = "SELECT c.course_id, c.course_code, c.course_name, c.credits, " +
-                     "i.first_name AS instructor_first, i.last_name AS instructor_last, " +
-                     "cl.building, cl.room_number " +
-                     "FROM Course c " +
-                     "JOIN Instructor i ON c.instructor_id = i.instructor_id " +
-                     "JOIN Classroom cl ON c.classroom_id = cl.classroom_id " +
-                     "ORDER BY c.course_code";
+    private static void viewAllCourses(Connection conn, Scanner scanner) throws SQLException {
+        TableRenderer table = TableRenderer.console()
+            .column("ID", 10).column("Code", 15).column("Name", 30).column("Credits", 8)
+            .column("Instructor", 25).column("Location", 15);
+        table.line("\nAll Courses");
+        table.header();
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            System.out.println("\nAll Courses");
-            System.out.printf("%-10s %-15s %-30s %-8s %-25s %-15s%n",
-                "ID", "Code", "Name", "Credits", "Instructor", "Location");
-            System.out.println("--------------------------------------------------------------------------------");
-            
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                System.out.printf("%-10d %-15s %-30s %-8d %-25s %-15s%n",
-                    rs.getInt("course_id"),
-                    rs.getString("course_code"),
-                    rs.getString("course_name"),
-                    rs.getInt("credits"),
-                    rs.getString("instructor_first") + " " + rs.getString("instructor_last"),
-                    rs.getString("building") + " " + rs.getString("room_number"));
-            }
-            
-            if (!hasData) {
-                System.out.println("No courses found.");
-            }
+        long shown = Main.<CourseDetail>browse(scanner, table,
+            (after, limit) -> COURSES.findDetailPage(conn, after, limit),
+            (after, handler) -> COURSES.streamAllDetails(conn, after, handler),
+            detail -> table.cell(detail.course().courseId())
+                .cell(detail.course().courseCode())
+                .cell(detail.course().courseName())
+                .cell(detail.course().credits())
+                .cell(detail.instructor().fullName())
+                .cell(detail.classroom().location())
+                .endRow());
+        
+        if (shown == 0) {
+            table.line("No courses found.");
         }
+        table.flush();
     }
     
     private static void viewCourseByCode(Connection conn, Scanner scanner) throws SQLException {
         System.out.print("Enter course code (e.g., CS157A): ");
         String courseCode = scanner.nextLine().trim().toUpperCase();
         
-        String sql = "SELECT c.course_id, c.course_code, c.course_name, c.credits, " +
-                     "i.first_name AS instructor_first, i.last_name AS instructor_last, i.email AS instructor_email, " +
-                     "cl.building, cl.room_number, cl.capacity " +
-                     "FROM Course c " +
-                     "JOIN Instructor i ON c.instructor_id = i.instructor_id " +
-                     "JOIN Classroom cl ON c.classroom_id = cl.classroom_id " +
-                     "WHERE c.course_code = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, courseCode);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    System.out.println("\nCourse Details");
-                    System.out.println("ID: " + rs.getInt("course_id"));
-                    System.out.println("Code: " + rs.getString("course_code"));
-                    System.out.println("Name: " + rs.getString("course_name"));
-                    System.out.println("Credits: " + rs.getInt("credits"));
-                    System.out.println("Instructor: " + rs.getString("instructor_first") + " " + rs.getString("instructor_last"));
-                    System.out.println("Instructor Email: " + rs.getString("instructor_email"));
-                    System.out.println("Location: " + rs.getString("building") + " " + rs.getString("room_number"));
-                    System.out.println("Capacity: " + rs.getInt("capacity"));
-                } else {
-                    System.out.println("Course not found with code: " + courseCode);
-                }
-            }
+        Optional<CourseDetail> found = COURSES.findDetailByCode(conn, courseCode);
+        TableRenderer table = TableRenderer.console();
+        if (found.isPresent()) {
+            Course course = found.get().course();
+            Instructor instructor = found.get().instructor();
+            Classroom classroom = found.get().classroom();
+            table.line("\nCourse Details");
+            table.field("ID", course.courseId());
+            table.field("Code", course.courseCode());
+            table.field("Name", course.courseName());
+            table.field("Credits", course.credits());
+            table.field("Instructor", instructor.fullName());
+            table.field("Instructor Email", instructor.email());
+            table.field("Location", classroom.location());
+            table.field("Capacity", classroom.capacity());
+        } else {
+            table.line("Course not found with code: " + courseCode);
         }
+        table.flush();
     }
     
     private static void viewCourseRoster(Connection conn, Scanner scanner) throws SQLException {
@@ -770,226 +1140,203 @@ public class Main {
         System.out.print("Enter semester (e.g., Fall 2025): ");
         String semester = scanner.nextLine().trim();
         
-        String sql = "SELECT s.student_id, s.first_name, s.last_name, s.email, e.grade " +
-                     "FROM Enrollment e " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "WHERE c.course_code = ? AND e.semester = ? " +
-                     "ORDER BY s.last_name, s.first_name";
+        List<EnrollmentRow> rows = ENROLLMENTS.findRoster(conn, courseCode, semester);
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, courseCode);
-            pstmt.setString(2, semester);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("\nRoster for " + courseCode + " (" + semester + ")");
-                System.out.printf("%-10s %-20s %-20s %-30s %-10s%n",
-                    "ID", "First Name", "Last Name", "Email", "Grade");
-                System.out.println("--------------------------------------------------------------------------------");
-                
-                boolean hasData = false;
-                while (rs.next()) {
-                    hasData = true;
-                    System.out.printf("%-10d %-20s %-20s %-30s %-10s%n",
-                        rs.getInt("student_id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("email"),
-                        rs.getString("grade") != null ? rs.getString("grade") : "N/A");
-                }
-                
-                if (!hasData) {
-                    System.out.println("No students enrolled in this course for the specified semester.");
-                }
-            }
+        TableRenderer table = TableRenderer.console()
+            .column("ID", 10).column("First Name", 20).column("Last Name", 20).column("Email", 30).column("Grade", 10);
+        table.line("\nRoster for " + courseCode + " (" + semester + ")");
+        table.header();
+        for (EnrollmentRow row : rows) {
+            table.cell(row.studentId()).cell(row.firstName()).cell(row.lastName()).cell(row.email())
+                .cell(row.grade()).endRow();
         }
+        if (rows.isEmpty()) {
+            table.line("No students enrolled in this course for the specified semester.");
+        }
+        table.flush();
     }
     
     private static void viewCoursesByInstructor(Connection conn, Scanner scanner) throws SQLException {
         System.out.print("Enter instructor email: ");
         String email = scanner.nextLine().trim();
         
-        String sql = "SELECT c.course_id, c.course_code, c.course_name, c.credits " +
-                     "FROM Course c " +
-                     "JOIN Instructor i ON c.instructor_id = i.instructor_id " +
-                     "WHERE i.email = ? " +
-                     "ORDER BY c.course_code";
+        List<Course> courses = COURSES.findByInstructorEmail(conn, email);
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("\nCourses by " + email);
-                System.out.printf("%-10s %-15s %-30s %-8s%n",
-                    "ID", "Code", "Name", "Credits");
-                System.out.println("--------------------------------------------------------------------------------");
-                
-                boolean hasData = false;
-                while (rs.next()) {
-                    hasData = true;
-                    System.out.printf("%-10d %-15s %-30s %-8d%n",
-                        rs.getInt("course_id"),
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getInt("credits"));
-                }
-                
-                if (!hasData) {
-                    System.out.println("No courses found for this instructor.");
-                }
-            }
+        TableRenderer table = TableRenderer.console()
+            .column("ID", 10).column("Code", 15).column("Name", 30).column("Credits", 8);
+        table.line("\nCourses by " + email);
+        table.header();
+        for (Course course : courses) {
+            table.cell(course.courseId()).cell(course.courseCode()).cell(course.courseName())
+                .cell(course.credits()).endRow();
+        }
+        if (courses.isEmpty()) {
+            table.line("No courses found for this instructor.");
         }
+        table.flush();
     }
     
     // view operations - enrollment
     
-    private static void viewAllEnrollments(Connection conn) throws SQLException {
-        String sql = "SELECT s.first_name, s.last_name, s.email, c.course_code, c.course_name, " +
-                     "e.semester, e.grade " +
-                     "FROM Enrollment e " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "ORDER BY e.semester, c.course_code, s.last_name";
+    private static void viewAllEnrollments(Connection conn, Scanner scanner) throws SQLException {
+        TableRenderer table = enrollmentTable(TableRenderer.console());
+        table.line("\nAll Enrollments");
+        table.header();
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            System.out.println("\nAll Enrollments");
-            System.out.printf("%-20s %-30s %-15s %-30s %-15s %-10s%n",
-                "Student Name", "Email", "Course Code", "Course Name", "Semester", "Grade");
-            System.out.println("--------------------------------------------------------------------------------");
-            
-            boolean hasData = false;
-            while (rs.next()) {
-                hasData = true;
-                System.out.printf("%-20s %-30s %-15s %-30s %-15s %-10s%n",
-                    rs.getString("first_name") + " " + rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("course_code"),
-                    rs.getString("course_name"),
-                    rs.getString("semester"),
-                    rs.getString("grade") != null ? rs.getString("grade") : "N/A");
-            }
-            
-            if (!hasData) {
-                System.out.println("No enrollments found.");
-            }
+        long shown = Main.<EnrollmentRow>browse(scanner, table,
+            (after, limit) -> ENROLLMENTS.findPage(conn, after, limit),
+            (after, handler) -> ENROLLMENTS.streamAll(conn, after, handler),
+            row -> printEnrollment(table, row));
+        
+        if (shown == 0) {
+            table.line("No enrollments found.");
         }
+        table.flush();
+    }
+    
+    // the "All Enrollments" layout, shared with the render-bench command
+    static TableRenderer enrollmentTable(TableRenderer table) {
+        return table.column("Student Name", 20).column("Email", 30).column("Course Code", 15)
+            .column("Course Name", 30).column("Semester", 15).column("Grade", 10);
+    }
+    
+    static void printEnrollment(TableRenderer table, EnrollmentRow row) {
+        table.cell(row.studentName()).cell(row.email()).cell(row.courseCode()).cell(row.courseName())
+            .cell(row.semester()).cell(row.grade()).endRow();
     }
     
     private static void viewEnrollmentsBySemester(Connection conn, Scanner scanner) throws SQLException {
         System.out.print("Enter semester (e.g., Fall 2025): ");
         String semester = scanner.nextLine().trim();
         
-        String sql = "SELECT s.first_name, s.last_name, s.email, c.course_code, c.course_name, e.grade " +
-                     "FROM Enrollment e " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "WHERE e.semester = ? " +
-                     "ORDER BY c.course_code, s.last_name";
+        List<EnrollmentRow> rows = ENROLLMENTS.findBySemester(conn, semester);
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, semester);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("\nEnrollments for " + semester);
-                System.out.printf("%-20s %-30s %-15s %-30s %-10s%n",
-                    "Student Name", "Email", "Course Code", "Course Name", "Grade");
-                System.out.println("--------------------------------------------------------------------------------");
-                
-                boolean hasData = false;
-                while (rs.next()) {
-                    hasData = true;
-                    System.out.printf("%-20s %-30s %-15s %-30s %-10s%n",
-                        rs.getString("first_name") + " " + rs.getString("last_name"),
-                        rs.getString("email"),
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getString("grade") != null ? rs.getString("grade") : "N/A");
-                }
-                
-                if (!hasData) {
-                    System.out.println("No enrollments found for this semester.");
-                }
-            }
+        TableRenderer table = TableRenderer.console()
+            .column("Student Name", 20).column("Email", 30).column("Course Code", 15).column("Course Name", 30)
+            .column("Grade", 10);
+        table.line("\nEnrollments for " + semester);
+        table.header();
+        for (EnrollmentRow row : rows) {
+            table.cell(row.studentName()).cell(row.email()).cell(row.courseCode()).cell(row.courseName())
+                .cell(row.grade()).endRow();
         }
+        if (rows.isEmpty()) {
+            table.line("No enrollments found for this semester.");
+        }
+        table.flush();
     }
     
     private static void viewEnrollmentsByCourse(Connection conn, Scanner scanner) throws SQLException {
         System.out.print("Enter course code: ");
         String courseCode = scanner.nextLine().trim().toUpperCase();
         
-        String sql = "SELECT s.first_name, s.last_name, s.email, e.semester, e.grade " +
-                     "FROM Enrollment e " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "WHERE c.course_code = ? " +
-                     "ORDER BY e.semester, s.last_name";
+        List<EnrollmentRow> rows = ENROLLMENTS.findByCourseCode(conn, courseCode);
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, courseCode);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("\nEnrollments for " + courseCode);
-                System.out.printf("%-20s %-30s %-15s %-10s%n",
-                    "Student Name", "Email", "Semester", "Grade");
-                System.out.println("--------------------------------------------------------------------------------");
-                
-                boolean hasData = false;
-                while (rs.next()) {
-                    hasData = true;
-                    System.out.printf("%-20s %-30s %-15s %-10s%n",
-                        rs.getString("first_name") + " " + rs.getString("last_name"),
-                        rs.getString("email"),
-                        rs.getString("semester"),
-                        rs.getString("grade") != null ? rs.getString("grade") : "N/A");
-                }
-                
-                if (!hasData) {
-                    System.out.println("No enrollments found for this course.");
-                }
-            }
+        TableRenderer table = TableRenderer.console()
+            .column("Student Name", 20).column("Email", 30).column("Semester", 15).column("Grade", 10);
+        table.line("\nEnrollments for " + courseCode);
+        table.header();
+        for (EnrollmentRow row : rows) {
+            table.cell(row.studentName()).cell(row.email()).cell(row.semester()).cell(row.grade()).endRow();
+        }
+        if (rows.isEmpty()) {
+            table.line("No enrollments found for this course.");
         }
+        table.flush();
     }
     
     private static void viewStudentTranscript(Connection conn, Scanner scanner) throws SQLException {
         System.out.print("Enter student email: ");
         String email = scanner.nextLine().trim();
         
-        String sql = "SELECT semester, course_code, course_name, credits, grade, " +
-                     "instructor_first_name, instructor_last_name " +
-                     "FROM student_transcript_view " +
-                     "WHERE email = ? " +
-                     "ORDER BY semester, course_code";
+        int studentId = STUDENTS.findIdByEmail(conn, email);
+        List<TranscriptRow> rows = studentId != -1 ? ENROLLMENTS.findTranscript(conn, studentId) : List.of();
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("\nTranscript for " + email);
-                System.out.printf("%-15s %-15s %-30s %-8s %-10s %-25s%n",
-                    "Semester", "Course Code", "Course Name", "Credits", "Grade", "Instructor");
-                System.out.println("--------------------------------------------------------------------------------");
-                
-                boolean hasData = false;
-                while (rs.next()) {
-                    hasData = true;
-                    System.out.printf("%-15s %-15s %-30s %-8d %-10s %-25s%n",
-                        rs.getString("semester"),
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getInt("credits"),
-                        rs.getString("grade") != null ? rs.getString("grade") : "N/A",
-                        rs.getString("instructor_first_name") + " " + rs.getString("instructor_last_name"));
-                }
-                
-                if (!hasData) {
-                    System.out.println("No transcript data found for this student.");
-                }
-            }
+        TableRenderer table = TableRenderer.console()
+            .column("Semester", 15).column("Course Code", 15).column("Course Name", 30).column("Credits", 8)
+            .column("Grade", 10).column("Instructor", 25);
+        table.line("\nTranscript for " + email);
+        table.header();
+        for (TranscriptRow row : rows) {
+            table.cell(row.semester()).cell(row.courseCode()).cell(row.courseName()).cell(row.credits())
+                .cell(row.grade()).cell(row.instructorName()).endRow();
+        }
+        if (rows.isEmpty()) {
+            table.line("No transcript data found for this student.");
+            table.flush();
+            return;
+        }
+        
+        List<TermGpa> terms = GPA.findTerms(conn, studentId);
+        terms.add(TermGpa.cumulative(terms));
+        TableRenderer gpaTable = TableRenderer.console()
+            .column("Semester", 15).column("GPA", 8).column("Graded Credits", 15).column("Earned Credits", 15)
+            .column("Enrolled Credits", 16);
+        gpaTable.line("");
+        gpaTable.header();
+        for (TermGpa term : terms) {
+            gpaTable.cell(term.semester()).cell(term.gpa()).cell(term.gradedCredits()).cell(term.earnedCredits())
+                .cell(term.enrolledCredits()).endRow();
+        }
+        gpaTable.flush();
+    }
+    
+    private static void viewDeansList(Connection conn, Scanner scanner) throws SQLException {
+        System.out.print("Enter semester (e.g., Fall 2025): ");
+        String semester = scanner.nextLine().trim();
+        try {
+            printDeansList(conn, semester, deansListMinGpa, deansListMinCredits);
+        } catch (IOException e) {
+            System.err.println("Error printing dean's list: " + e.getMessage());
         }
     }
     
+    // prefix and typo-tolerant lookup in the in-memory index; no database round trip
+    private static void searchDirectory(Scanner scanner) {
+        SearchIndex index = SearchIndex.current();
+        if (index == null) {
+            System.out.println("Search is not available (search.enabled=false or the index failed to load).");
+            return;
+        }
+        System.out.print("Search (name, email, course code or title): ");
+        String query = scanner.nextLine().trim();
+        
+        long start = System.nanoTime();
+        List<SearchIndex.Hit> hits = index.search(query, 20);
+        long micros = (System.nanoTime() - start) / 1000;
+        
+        TableRenderer table = TableRenderer.console()
+            .column("Type", 12).column("Name", 40).column("Email / Code", 30);
+        table.line("\nResults for \"" + query + "\"");
+        table.header();
+        for (SearchIndex.Hit hit : hits) {
+            table.cell(hit.kind().name().toLowerCase()).cell(hit.name()).cell(hit.key()).endRow();
+        }
+        if (hits.isEmpty()) {
+            table.line("No matches.");
+        }
+        table.line(hits.size() + " matches in " + micros + " us");
+        table.flush();
+    }
+    
+    // one pass over the semester's GPA totals, printed as it is read
+    private static void printDeansList(Connection conn, String semester, BigDecimal minGpa, int minCredits)
+            throws SQLException, IOException {
+        TableRenderer table = TableRenderer.console()
+            .column("Student Name", 20).column("Email", 30).column("Term GPA", 10).column("Graded Credits", 15);
+        table.line("\nDean's List for " + semester + " (GPA >= " + minGpa.toPlainString()
+            + ", at least " + minCredits + " graded credits)");
+        table.header();
+        GPA.streamDeansList(conn, semester, minGpa, minCredits, entry ->
+            table.cell(entry.studentName()).cell(entry.email()).cell(entry.gpa()).cell(entry.gradedCredits()).endRow());
+        if (table.rows() == 0) {
+            table.line("No students made the dean's list for this semester.");
+        } else {
+            table.line(table.rows() + " students");
+        }
+        table.flush();
+    }
+    
     // insert operations
     
     private static void addNewStudent(Connection conn, Scanner scanner) throws SQLException {
@@ -1013,26 +1360,18 @@ public class Main {
             return;
         }
         
-        String sql = "INSERT INTO Student (first_name, last_name, email, dob) VALUES (?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, firstName);
-            pstmt.setString(2, lastName);
-            pstmt.setString(3, email);
-            
-            if (dobStr.isEmpty()) {
-                pstmt.setNull(4, Types.DATE);
-            } else {
-                try {
-                    java.sql.Date dob = java.sql.Date.valueOf(dobStr);
-                    pstmt.setDate(4, dob);
-                } catch (IllegalArgumentException e) {
-                    System.out.println("Error: Invalid date format. Use YYYY-MM-DD");
-                    return;
-                }
+        java.time.LocalDate dob = null;
+        if (!dobStr.isEmpty()) {
+            try {
+                dob = java.time.LocalDate.parse(dobStr);
+            } catch (java.time.format.DateTimeParseException e) {
+                System.out.println("Error: Invalid date format. Use YYYY-MM-DD");
+                return;
             }
-            
-            int rowsAffected = pstmt.executeUpdate();
+        }
+        
+        try {
+            int rowsAffected = STUDENTS.insert(conn, firstName, lastName, email, dob);
             if (rowsAffected > 0) {
                 System.out.println("Student added");
             } else {
@@ -1076,17 +1415,8 @@ public class Main {
             int instructorId = Integer.parseInt(instructorIdStr);
             int classroomId = Integer.parseInt(classroomIdStr);
             
-            String sql = "INSERT INTO Course (course_name, course_code, credits, instructor_id, classroom_id) " +
-                         "VALUES (?, ?, ?, ?, ?)";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, courseName);
-                pstmt.setString(2, courseCode);
-                pstmt.setInt(3, credits);
-                pstmt.setInt(4, instructorId);
-                pstmt.setInt(5, classroomId);
-                
-                int rowsAffected = pstmt.executeUpdate();
+            try {
+                int rowsAffected = COURSES.insert(conn, courseName, courseCode, credits, instructorId, classroomId);
                 if (rowsAffected > 0) {
                     System.out.println("Course added");
                 } else {
@@ -1118,76 +1448,41 @@ public class Main {
         String grade = scanner.nextLine().trim().toUpperCase();
         
         // get student and course IDs
-        String getStudentSql = "SELECT student_id FROM Student WHERE email = ?";
-        String getCourseSql = "SELECT course_id FROM Course WHERE course_code = ?";
-        
-        int studentId = -1;
-        int courseId = -1;
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(getStudentSql)) {
-            pstmt.setString(1, email);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    studentId = rs.getInt("student_id");
-                } else {
-                    System.out.println("Error: Student not found.");
-                    return;
-                }
-            }
+        int studentId = STUDENTS.findIdByEmail(conn, email);
+        if (studentId == -1) {
+            System.out.println("Error: Student not found.");
+            return;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(getCourseSql)) {
-            pstmt.setString(1, courseCode);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    courseId = rs.getInt("course_id");
-                } else {
-                    System.out.println("Error: Course not found.");
-                    return;
-                }
-            }
+        int courseId = COURSES.findIdByCode(conn, courseCode);
+        if (courseId == -1) {
+            System.out.println("Error: Course not found.");
+            return;
         }
         
         // validate grade
-        if (!grade.isEmpty()) {
-            String[] validGrades = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F"};
-            boolean valid = false;
-            for (String g : validGrades) {
-                if (grade.equals(g)) {
-                    valid = true;
-                    break;
-                }
-            }
-            if (!valid) {
-                System.out.println("Error: Invalid grade format. Valid grades: A, A-, B+, B, B-, C+, C, C-, D, F");
-                return;
-            }
+        if (!grade.isEmpty() && !isValidGrade(grade)) {
+            System.out.println("Error: Invalid grade format. Valid grades: A, A-, B+, B, B-, C+, C, C-, D, F");
+            return;
         }
         
-        // insert enrollment
-        String sql = "INSERT INTO Enrollment (student_id, course_id, semester, grade) VALUES (?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, studentId);
-            pstmt.setInt(2, courseId);
-            pstmt.setString(3, semester);
-            if (grade.isEmpty()) {
-                pstmt.setNull(4, Types.CHAR);
-            } else {
-                pstmt.setString(4, grade);
-            }
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
+        // insert enrollment through the seat reservation (locks the section, retries on deadlock)
+        try {
+            SeatReservation.Outcome outcome = seats.enroll(conn, studentId, courseId, semester, grade);
+            if (outcome == SeatReservation.Outcome.ENROLLED) {
                 System.out.println("Student enrolled");
+            } else if (outcome == SeatReservation.Outcome.DUPLICATE) {
+                System.out.println("Error: Student is already enrolled in this course for this semester.");
             } else {
-                System.out.println("Failed to enroll student.");
+                System.out.println("Error: Enrollment blocked: classroom capacity exceeded");
             }
         } catch (SQLException e) {
             if (e.getSQLState().equals("23000")) {
                 System.out.println("Error: Student is already enrolled in this course for this semester.");
             } else if (e.getSQLState().equals("45000")) {
                 System.out.println("Error: " + e.getMessage()); // Trigger error message
+            } else if (SeatReservation.isRetryable(e)) {
+                System.out.println("Error: The course is busy right now, please try again.");
             } else {
                 throw e;
             }
@@ -1208,13 +1503,8 @@ public class Main {
             return;
         }
         
-        String sql = "UPDATE Student SET email = ? WHERE email = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, newEmail);
-            pstmt.setString(2, currentEmail);
-            
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            int rowsAffected = STUDENTS.updateEmail(conn, currentEmail, newEmail);
             if (rowsAffected > 0) {
                 System.out.println("Email updated");
             } else {
@@ -1243,18 +1533,11 @@ public class Main {
                 return;
             }
             
-            String sql = "UPDATE Course SET credits = ? WHERE course_code = ?";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, credits);
-                pstmt.setString(2, courseCode);
-                
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected > 0) {
-                    System.out.println("Credits updated");
-                } else {
-                    System.out.println("Course not found with code: " + courseCode);
-                }
+            int rowsAffected = COURSES.updateCredits(conn, courseCode, credits);
+            if (rowsAffected > 0) {
+                System.out.println("Credits updated");
+            } else {
+                System.out.println("Course not found with code: " + courseCode);
             }
         } catch (NumberFormatException e) {
             System.out.println("Error: Credits must be a valid integer.");
@@ -1273,38 +1556,21 @@ public class Main {
         String grade = scanner.nextLine().trim().toUpperCase();
         
         // validate grade
-        String[] validGrades = {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D", "F"};
-        boolean valid = false;
-        for (String g : validGrades) {
-            if (grade.equals(g)) {
-                valid = true;
-                break;
-            }
-        }
-        if (!valid) {
+        if (!isValidGrade(grade)) {
             System.out.println("Error: Invalid grade format. Valid grades: A, A-, B+, B, B-, C+, C, C-, D, F");
             return;
         }
         
-        // update grade
-        String sql = "UPDATE Enrollment e " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "SET e.grade = ? " +
-                     "WHERE s.email = ? AND c.course_code = ? AND e.semester = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, grade);
-            pstmt.setString(2, email);
-            pstmt.setString(3, courseCode);
-            pstmt.setString(4, semester);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("Grade updated");
-            } else {
-                System.out.println("Enrollment not found. Please check student email, course code, and semester.");
-            }
+        int studentId = STUDENTS.findIdByEmail(conn, email);
+        int courseId = COURSES.findIdByCode(conn, courseCode);
+        int rowsAffected = 0;
+        if (studentId != -1 && courseId != -1) {
+            rowsAffected = ENROLLMENTS.updateGrade(conn, studentId, courseId, semester, grade);
+        }
+        if (rowsAffected > 0) {
+            System.out.println("Grade updated");
+        } else {
+            System.out.println("Enrollment not found. Please check student email, course code, and semester.");
         }
     }
     
@@ -1322,17 +1588,11 @@ public class Main {
             return;
         }
         
-        String sql = "DELETE FROM Student WHERE email = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("Student deleted (enrollments also deleted)");
-            } else {
-                System.out.println("Student not found with email: " + email);
-            }
+        int rowsAffected = STUDENTS.deleteByEmail(conn, email);
+        if (rowsAffected > 0) {
+            System.out.println("Student deleted (enrollments also deleted)");
+        } else {
+            System.out.println("Student not found with email: " + email);
         }
     }
     
@@ -1348,12 +1608,8 @@ public class Main {
             return;
         }
         
-        String sql = "DELETE FROM Course WHERE course_code = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, courseCode);
-            
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            int rowsAffected = COURSES.deleteByCode(conn, courseCode);
             if (rowsAffected > 0) {
                 System.out.println("Course deleted (enrollments also deleted)");
             } else {
@@ -1377,23 +1633,16 @@ public class Main {
         System.out.print("Enter semester: ");
         String semester = scanner.nextLine().trim();
         
-        // delete enrollment
-        String sql = "DELETE e FROM Enrollment e " +
-                     "JOIN Student s ON e.student_id = s.student_id " +
-                     "JOIN Course c ON e.course_id = c.course_id " +
-                     "WHERE s.email = ? AND c.course_code = ? AND e.semester = ?";
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, email);
-            pstmt.setString(2, courseCode);
-            pstmt.setString(3, semester);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                    System.out.println("Enrollment dropped");
-            } else {
-                System.out.println("Enrollment not found. Please check student email, course code, and semester.");
-            }
+        int studentId = STUDENTS.findIdByEmail(conn, email);
+        int courseId = COURSES.findIdByCode(conn, courseCode);
+        int rowsAffected = 0;
+        if (studentId != -1 && courseId != -1) {
+            rowsAffected = ENROLLMENTS.drop(conn, studentId, courseId, semester);
+        }
+        if (rowsAffected > 0) {
+            System.out.println("Enrollment dropped");
+        } else {
+            System.out.println("Enrollment not found. Please check student email, course code, and semester.");
         }
     }
     
@@ -0,0 +1,503 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// timers and counters for every SQL statement the app runs, tagged with the operation that ran it
+// (a menu action, an API route or a load test operation, set with Metrics.operation(name) around the work).
+// pooled connections hand out statements wrapped by wrap(), which times each execute call and counts
+// rows and SQLSTATEs; per call that is two nanoTime reads and a few LongAdder increments.
+// exposed in Prometheus text format on http://<metrics.bind>:<metrics.port>/metrics and as one
+// log line per metrics.logIntervalSec. statements over the slow-query threshold go on to SlowQueryLog
+final class Metrics {
+    // upper bounds of the statement time histogram buckets, in seconds (Prometheus "le" values)
+    private static final double[] BUCKETS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+        0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final long[] BUCKET_NANOS = new long[BUCKETS.length];
+    private static final String[] BUCKET_LABELS = new String[BUCKETS.length + 1];
+    static {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            BUCKET_NANOS[i] = (long) (BUCKETS[i] * 1e9);
+            BUCKET_LABELS[i] = java.math.BigDecimal.valueOf(BUCKETS[i]).stripTrailingZeros().toPlainString();
+        }
+        BUCKET_LABELS[BUCKETS.length] = "+Inf";
+    }
+    private static final String UNTAGGED = "other";
+
+    private static final ConcurrentHashMap<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Operation> CURRENT = new ThreadLocal<>();
+    private static volatile boolean enabled = false;
+    private static ConnectionPool pool;
+    private static HttpServer server;
+    private static ScheduledExecutorService logger;
+    private static PrintStream log;
+
+    private Metrics() {
+    }
+
+    // counters of one operation; the interval fields are only touched by the log thread
+    static final class Operation {
+        final String name;
+        final LongAdder statements = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+        final LongAdder rowsRead = new LongAdder();
+        final LongAdder rowsWritten = new LongAdder();
+        final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+        final AtomicLong intervalMaxNanos = new AtomicLong();
+        private long lastStatements;
+        private long lastNanos;
+        private long lastRowsRead;
+        private long lastRowsWritten;
+        private long lastErrors;
+
+        Operation(String name) {
+            this.name = name;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long elapsed) {
+            statements.increment();
+            nanos.add(elapsed);
+            int i = 0;
+            while (i < BUCKET_NANOS.length && elapsed > BUCKET_NANOS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            if (elapsed > intervalMaxNanos.get()) {
+                intervalMaxNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+
+        void error(SQLException e) {
+            String state = e.getSQLState() == null ? "none" : e.getSQLState();
+            errors.computeIfAbsent(state, k -> new LongAdder()).increment();
+        }
+
+        long errorCount() {
+            long total = 0;
+            for (LongAdder count : errors.values()) {
+                total += count.sum();
+            }
+            return total;
+        }
+    }
+
+    // restores the previous operation tag on close, so scopes nest; used as try (Metrics.Scope op = ...),
+    // which javac's -Xlint:try flags as an unused resource, hence @SuppressWarnings("try") at the call sites
+    static final class Scope implements AutoCloseable {
+        private final Operation previous;
+
+        private Scope(Operation previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            CURRENT.set(previous);
+        }
+    }
+
+    static Scope operation(String name) {
+        Operation previous = CURRENT.get();
+        CURRENT.set(operationNamed(name));
+        return new Scope(previous);
+    }
+
+    private static Operation operationNamed(String name) {
+        Operation op = OPERATIONS.get(name);
+        return op != null ? op : OPERATIONS.computeIfAbsent(name, Operation::new);
+    }
+
+    private static Operation current() {
+        Operation op = CURRENT.get();
+        return op != null ? op : operationNamed(UNTAGGED);
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    // metrics.* settings: turns on statement timing, the /metrics endpoint and the log line
+    static synchronized void start(ConnectionPool pool, Properties props) {
+        if (!Boolean.parseBoolean(props.getProperty("metrics.enabled", "true").trim())) {
+            return;
+        }
+        Metrics.pool = pool;
+        enabled = true;
+        int port = ConnectionPool.intProperty(props, "metrics.port", 9404);
+        if (port > 0 && server == null) {
+            String bind = props.getProperty("metrics.bind", "127.0.0.1").trim();
+            try {
+                server = HttpServer.create(new InetSocketAddress(bind, port), 16);
+                server.createContext("/metrics", exchange -> {
+                    byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+                server.start();
+            } catch (IOException e) {
+                // e.g. another instance already has the port; the metrics still go to the log line
+                System.err.println("Metrics endpoint not started on " + bind + ":" + port + ": " + e.getMessage());
+                server = null;
+            }
+        }
+        long interval = ConnectionPool.longProperty(props, "metrics.logIntervalSec", 60);
+        String file = props.getProperty("metrics.logFile", "metrics.log").trim();
+        if (interval > 0 && logger == null) {
+            try {
+                log = file.isEmpty() ? System.err
+                    : new PrintStream(new FileOutputStream(file, true), true, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Metrics log not opened: " + e.getMessage());
+                return;
+            }
+            logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-log");
+                t.setDaemon(true);
+                return t;
+            });
+            logger.scheduleAtFixedRate(Metrics::logLine, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    // stops the endpoint and writes the last interval's log line
+    static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+            logLine();
+            if (log != System.err) {
+                log.close();
+            }
+            log = null;
+        }
+        enabled = false;
+    }
+
+    // the statement handed to the caller in place of stmt; type is the interface the caller asked for and
+    // sql the text it was prepared with (null for plain statements, which pass it to execute)
+    static Statement wrap(Statement stmt, Class<?> type, String sql) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {type},
+            new MeteredStatement(stmt, sql));
+    }
+
+    // also hands statements slower than the slow-query threshold to SlowQueryLog; bound parameters are
+    // only kept while that log is on
+    private static final class MeteredStatement implements InvocationHandler {
+        private final Statement stmt;
+        private final String sql;
+        private Object[] params;
+        private int paramCount;
+        // the last slow statement, until its row count is known
+        private SlowQueryLog.Entry slow;
+
+        MeteredStatement(Statement stmt, String sql) {
+            this.stmt = stmt;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("getResultSet")) {
+                    SlowQueryLog.Entry entry = slow;
+                    slow = null;
+                    return meter((ResultSet) call(method, args), current(), entry);
+                }
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                        && SlowQueryLog.isEnabled()) {
+                    bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    paramCount = 0;
+                } else if (name.equals("close")) {
+                    finishSlow(-1);
+                }
+                if (name.equals("equals")) {
+                    return proxy == args[0];
+                }
+                if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                return call(method, args);
+            }
+            finishSlow(-1);
+            Operation op = current();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = method.invoke(stmt, args);
+            } catch (InvocationTargetException e) {
+                long elapsed = System.nanoTime() - start;
+                op.record(elapsed);
+                if (e.getCause() instanceof SQLException) {
+                    op.error((SQLException) e.getCause());
+                    // lock wait timeouts and cancelled queries are usually the slowest statements of all
+                    if (elapsed >= SlowQueryLog.thresholdNanos()) {
+                        SlowQueryLog.Entry entry = slowEntry(op, args, elapsed, (SQLException) e.getCause());
+                        if (entry != null) {
+                            entry.finish(-1);
+                        }
+                    }
+                }
+                throw e.getCause();
+            }
+            long elapsed = System.nanoTime() - start;
+            op.record(elapsed);
+            SlowQueryLog.Entry entry = elapsed >= SlowQueryLog.thresholdNanos() ? slowEntry(op, args, elapsed, null) : null;
+            if (result instanceof ResultSet) {
+                return meter((ResultSet) result, op, entry);
+            }
+            long rows = -1;
+            if (result instanceof Integer) {
+                rows = (Integer) result;
+                op.rowsWritten.add(rows);
+            } else if (result instanceof Long) {
+                rows = (Long) result;
+                op.rowsWritten.add(rows);
+            } else if (result instanceof int[]) {
+                rows = 0;
+                for (int count : (int[]) result) {
+                    if (count > 0) {
+                        op.rowsWritten.add(count);
+                        rows += count;
+                    }
+                }
+            } else if (Boolean.TRUE.equals(result) && entry != null) {
+                // execute() with a result set: counted when the caller reads it through getResultSet()
+                slow = entry;
+                return result;
+            } else if (Boolean.FALSE.equals(result) && entry != null) {
+                rows = stmt.getUpdateCount();
+            }
+            if (entry != null) {
+                entry.finish(rows);
+            }
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (params == null || index > params.length) {
+                params = Arrays.copyOf(params == null ? new Object[0] : params, Math.max(index, 2 * paramCount + 8));
+            }
+            params[index - 1] = value;
+            paramCount = Math.max(paramCount, index);
+        }
+
+        private SlowQueryLog.Entry slowEntry(Operation op, Object[] args, long elapsed, SQLException error) {
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                // Statement.execute*(sql): no parameters
+                return SlowQueryLog.slow(op.name, (String) args[0], null, elapsed, error);
+            }
+            return SlowQueryLog.slow(op.name, sql, paramCount > 0 ? Arrays.copyOf(params, paramCount) : null, elapsed, error);
+        }
+
+        private void finishSlow(long rows) {
+            if (slow != null) {
+                slow.finish(rows);
+                slow = null;
+            }
+        }
+
+        // rows are counted by wrapping the result set, except when it is streamed (exports and
+        // bulk reads), where a call per column would cost more than the timing does
+        private ResultSet meter(ResultSet rs, Operation op, SlowQueryLog.Entry entry) throws SQLException {
+            if (rs == null || stmt.getFetchSize() == Integer.MIN_VALUE) {
+                if (entry != null) {
+                    entry.finish(-1);
+                }
+                return rs;
+            }
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                new MeteredResultSet(rs, op, entry));
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class MeteredResultSet implements InvocationHandler {
+        private final ResultSet rs;
+        private final Operation op;
+        // a slow statement's entry, finished with the row count once the caller is done with the rows
+        private SlowQueryLog.Entry slow;
+        private long rows;
+
+        MeteredResultSet(ResultSet rs, Operation op, SlowQueryLog.Entry slow) {
+            this.rs = rs;
+            this.op = op;
+            this.slow = slow;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("next")) {
+                boolean more = rs.next();
+                if (more) {
+                    op.rowsRead.increment();
+                    rows++;
+                } else if (slow != null) {
+                    slow.finish(rows);
+                    slow = null;
+                }
+                return more;
+            }
+            if (method.getName().equals("close") && slow != null) {
+                slow.finish(rows);
+                slow = null;
+            }
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(rs, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // operations sorted by name, for stable output
+    static List<Operation> operations() {
+        List<Operation> ops = new ArrayList<>(OPERATIONS.values());
+        ops.sort(Comparator.comparing(op -> op.name));
+        return ops;
+    }
+
+    static String prometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        List<Operation> ops = operations();
+        out.append("# HELP schoolsys_db_statement_seconds Time spent executing SQL statements, by operation\n");
+        out.append("# TYPE schoolsys_db_statement_seconds histogram\n");
+        for (Operation op : ops) {
+            String label = "operation=\"" + escape(op.name) + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < op.buckets.length; i++) {
+                cumulative += op.buckets[i].sum();
+                out.append("schoolsys_db_statement_seconds_bucket{").append(label).append(",le=\"").append(BUCKET_LABELS[i]).append("\"} ")
+                    .append(cumulative).append('\n');
+            }
+            out.append("schoolsys_db_statement_seconds_sum{").append(label).append("} ").append(op.nanos.sum() / 1e9).append('\n');
+            out.append("schoolsys_db_statement_seconds_count{").append(label).append("} ").append(op.statements.sum()).append('\n');
+        }
+        counter(out, ops, "schoolsys_db_rows_read_total", "Rows read from result sets (streamed result sets are not counted)",
+            op -> op.rowsRead.sum());
+        counter(out, ops, "schoolsys_db_rows_written_total", "Rows changed by INSERT/UPDATE/DELETE statements",
+            op -> op.rowsWritten.sum());
+        out.append("# HELP schoolsys_db_errors_total SQL statements that failed, by operation and SQLSTATE\n");
+        out.append("# TYPE schoolsys_db_errors_total counter\n");
+        for (Operation op : ops) {
+            for (Map.Entry<String, LongAdder> error : new TreeMap<>(op.errors).entrySet()) {
+                out.append("schoolsys_db_errors_total{operation=\"").append(escape(op.name)).append("\",sqlstate=\"")
+                    .append(escape(error.getKey())).append("\"} ").append(error.getValue().sum()).append('\n');
+            }
+        }
+        ConnectionPool pool = Metrics.pool;
+        if (pool != null) {
+            out.append("# HELP schoolsys_pool_connections Pooled connections by state\n");
+            out.append("# TYPE schoolsys_pool_connections gauge\n");
+            out.append("schoolsys_pool_connections{state=\"active\"} ").append(pool.getActiveCount()).append('\n');
+            out.append("schoolsys_pool_connections{state=\"idle\"} ").append(pool.getIdleCount()).append('\n');
+            out.append("schoolsys_pool_connections_max ").append(pool.getMaxSize()).append('\n');
+            out.append("# TYPE schoolsys_pool_borrows_total counter\n");
+            out.append("schoolsys_pool_borrows_total ").append(pool.getBorrowCount()).append('\n');
+            out.append("# TYPE schoolsys_pool_borrow_timeouts_total counter\n");
+            out.append("schoolsys_pool_borrow_timeouts_total ").append(pool.getTimeoutCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private interface Value {
+        long of(Operation op);
+    }
+
+    private static void counter(StringBuilder out, List<Operation> ops, String name, String help, Value value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        for (Operation op : ops) {
+            out.append(name).append("{operation=\"").append(escape(op.name)).append("\"} ").append(value.of(op)).append('\n');
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // one line per interval with the operations that ran statements in it, busiest first:
+    // <time> statements=<n> errors=<n> | <operation> <statements> stmts avg <ms> max <ms> rows <read>/<written> [errors <n>] | ...
+    private static synchronized void logLine() {
+        if (log == null) {
+            return;
+        }
+        long statements = 0;
+        long errors = 0;
+        List<String> parts = new ArrayList<>();
+        List<long[]> order = new ArrayList<>();
+        for (Operation op : operations()) {
+            long count = op.statements.sum();
+            long nanos = op.nanos.sum();
+            long read = op.rowsRead.sum();
+            long written = op.rowsWritten.sum();
+            long failed = op.errorCount();
+            long max = op.intervalMaxNanos.getAndSet(0);
+            long delta = count - op.lastStatements;
+            if (delta > 0) {
+                String part = String.format("%s %d stmts avg %.2f ms max %.2f ms rows %d/%d", op.name, delta,
+                    (nanos - op.lastNanos) / 1e6 / delta, max / 1e6, read - op.lastRowsRead, written - op.lastRowsWritten);
+                if (failed > op.lastErrors) {
+                    part += " errors " + (failed - op.lastErrors);
+                }
+                order.add(new long[] {delta, parts.size()});
+                parts.add(part);
+            }
+            statements += delta;
+            errors += failed - op.lastErrors;
+            op.lastStatements = count;
+            op.lastNanos = nanos;
+            op.lastRowsRead = read;
+            op.lastRowsWritten = written;
+            op.lastErrors = failed;
+        }
+        order.sort((a, b) -> Long.compare(b[0], a[0]));
+        StringBuilder line = new StringBuilder();
+        line.append(Instant.now().truncatedTo(ChronoUnit.SECONDS)).append(" statements=").append(statements)
+            .append(" errors=").append(errors);
+        if (pool != null) {
+            line.append(" pool=").append(pool.getActiveCount()).append('/').append(pool.getMaxSize());
+        }
+        for (long[] entry : order) {
+            line.append(" | ").append(parts.get((int) entry[1]));
+        }
+        log.println(line);
+    }
+}
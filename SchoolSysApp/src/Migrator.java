@@ -0,0 +1,444 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.*;
+import java.util.stream.Stream;
+
+// "migrate" command: versioned schema changes without dropping anything
+// create_and_populate.sql is migration 1 (the baseline); later changes are migrations/V<n>__<name>.sql
+// and are applied in version order, each once. schema_version records what has been applied.
+// index changes are run online (ALGORITHM=INPLACE, LOCK=NONE) so the tables stay readable and
+// writable while the index builds
+public class Migrator {
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern INDEX_DDL = Pattern.compile(
+        "^(CREATE\\s+(UNIQUE\\s+)?INDEX|DROP\\s+INDEX|ALTER\\s+TABLE)\\b.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern HAS_ALGORITHM_OR_LOCK = Pattern.compile(
+        "\\b(ALGORITHM|LOCK)\\s*=", Pattern.CASE_INSENSITIVE);
+    private static final Pattern USE_STATEMENT = Pattern.compile("^USE\\s+\\S+$", Pattern.CASE_INSENSITIVE);
+    // ER_ALTER_OPERATION_NOT_SUPPORTED, ER_ALTER_OPERATION_NOT_SUPPORTED_REASON
+    private static final Set<Integer> NOT_ONLINE = Set.of(1845, 1846);
+    private static final String LOCK_NAME = "SchoolSys.migrate";
+
+    private final ConnectionPool pool;
+    private final Path baseline;
+    private final Path directory;
+    private final int lockWaitTimeoutSeconds;
+
+    // one migration script; version 1 is the baseline
+    record Migration(int version, String description, Path script) {
+    }
+
+    // one row of schema_version
+    private record Applied(int version, String description, String checksum, boolean success,
+                           int steps, Timestamp installedOn, long executionMs) {
+    }
+
+    public Migrator(ConnectionPool pool, Path baseline, Path directory, int lockWaitTimeoutSeconds) {
+        this.pool = pool;
+        this.baseline = baseline;
+        this.directory = directory;
+        this.lockWaitTimeoutSeconds = lockWaitTimeoutSeconds;
+    }
+
+    static Migrator fromProperties(ConnectionPool pool, Properties props) {
+        return new Migrator(pool,
+            Paths.get(props.getProperty("migrate.baseline", "create_and_populate.sql")),
+            Paths.get(props.getProperty("migrate.dir", "migrations")),
+            ConnectionPool.intProperty(props, "migrate.lockWaitTimeoutSec", 10));
+    }
+
+    // baseline first, then migrations/V*.sql by version
+    List<Migration> discover() throws IOException {
+        TreeMap<Integer, Migration> found = new TreeMap<>();
+        found.put(1, new Migration(1, "baseline", baseline));
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+                    if (!m.matches()) {
+                        continue;
+                    }
+                    int version = Integer.parseInt(m.group(1));
+                    Migration migration = new Migration(version, m.group(2).replace('_', ' '), file);
+                    Migration clash = found.putIfAbsent(version, migration);
+                    if (clash != null) {
+                        throw new IllegalStateException("Version " + version + " is used by both " +
+                            clash.script() + " and " + file);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    // prints every known version and whether it has been applied
+    public boolean status() throws SQLException, IOException {
+        List<Migration> migrations = discover();
+        try (Connection conn = pool.getConnection()) {
+            Map<Integer, Applied> applied = createVersionTable(conn);
+            System.out.printf("%-8s %-32s %-10s %-20s %10s%n", "Version", "Description", "State", "Installed", "Time (ms)");
+            boolean ok = true;
+            Set<Integer> seen = new HashSet<>();
+            for (Migration migration : migrations) {
+                seen.add(migration.version());
+                Applied row = applied.get(migration.version());
+                String state;
+                if (row == null) {
+                    state = "pending";
+                } else if (!row.success()) {
+                    state = "FAILED";
+                    ok = false;
+                } else if (row.checksum() != null && !row.checksum().equals(checksum(migration.script()))) {
+                    state = "changed";
+                } else {
+                    state = row.checksum() == null ? "baselined" : "applied";
+                }
+                System.out.printf("%-8d %-32s %-10s %-20s %10s%n", migration.version(), migration.description(), state,
+                    row == null ? "" : row.installedOn().toString().replaceFirst("\\.\\d+$", ""),
+                    row == null ? "" : String.valueOf(row.executionMs()));
+            }
+            for (Applied row : applied.values()) {
+                if (!seen.contains(row.version())) {
+                    System.out.printf("%-8d %-32s %-10s %-20s %10d%n", row.version(), row.description(),
+                        "no script", row.installedOn().toString().replaceFirst("\\.\\d+$", ""), row.executionMs());
+                }
+            }
+            if (!ok) {
+                System.out.println("A migration failed part way - fix the schema by hand, then run: java Main migrate repair");
+            }
+            return ok;
+        }
+    }
+
+    // applies every pending migration; returns false if one failed or could not be started
+    public boolean migrate(boolean allowLocking) throws SQLException, IOException {
+        List<Migration> migrations = discover();
+        try (Connection conn = pool.getConnection()) {
+            if (!lock(conn)) {
+                System.err.println("Another migration is running (lock " + LOCK_NAME + " is held)");
+                return false;
+            }
+            try {
+                Map<Integer, Applied> applied = createVersionTable(conn);
+                for (Applied row : applied.values()) {
+                    if (!row.success()) {
+                        System.err.println("Migration " + row.version() + " failed after " + row.steps() +
+                            " step(s). Fix the schema by hand, then run: java Main migrate repair");
+                        return false;
+                    }
+                }
+                // the baseline drops and recreates every table, so it is only ever run on an empty schema
+                if (!applied.containsKey(1) && schemaHasTables(conn)) {
+                    System.err.println("This database already has tables but no recorded baseline. " +
+                        "Record it with: java Main migrate baseline");
+                    return false;
+                }
+
+                int pending = 0;
+                long start = System.nanoTime();
+                for (Migration migration : migrations) {
+                    Applied row = applied.get(migration.version());
+                    if (row != null) {
+                        if (row.checksum() != null && !row.checksum().equals(checksum(migration.script()))) {
+                            System.out.println("Warning: " + migration.script() + " has changed since version " +
+                                migration.version() + " was applied; the change is not applied");
+                        }
+                        continue;
+                    }
+                    pending++;
+                    if (!apply(conn, migration, allowLocking)) {
+                        return false;
+                    }
+                }
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                if (pending == 0) {
+                    System.out.println("Schema is up to date (version " + migrations.get(migrations.size() - 1).version() + ")");
+                } else {
+                    System.out.printf("Applied %d migration(s) in %.2f s%n", pending, seconds);
+                }
+                return true;
+            } finally {
+                unlock(conn);
+            }
+        }
+    }
+
+    // records versions up to and including upTo as applied without running them,
+    // for a database created by running the scripts in the mysql client
+    public boolean baseline(int upTo) throws SQLException, IOException {
+        List<Migration> migrations = discover();
+        try (Connection conn = pool.getConnection()) {
+            Map<Integer, Applied> applied = createVersionTable(conn);
+            if (!applied.isEmpty()) {
+                System.err.println("schema_version is not empty; a baseline can only be recorded once");
+                return false;
+            }
+            String sql = "INSERT INTO schema_version (version, description, script, checksum, success, steps, execution_ms) " +
+                "VALUES (?, ?, ?, NULL, TRUE, 0, 0)";
+            int recorded = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Migration migration : migrations) {
+                    if (migration.version() > upTo) {
+                        break;
+                    }
+                    pstmt.setInt(1, migration.version());
+                    pstmt.setString(2, migration.description());
+                    pstmt.setString(3, migration.script().getFileName().toString());
+                    pstmt.executeUpdate();
+                    recorded++;
+                }
+            }
+            System.out.println("Recorded " + recorded + " version(s) as already applied");
+            return true;
+        }
+    }
+
+    // forgets failed migrations, after the half-applied changes have been cleaned up by hand
+    public boolean repair() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            createVersionTable(conn);
+            try (Statement stmt = conn.createStatement()) {
+                int removed = stmt.executeUpdate("DELETE FROM schema_version WHERE NOT success");
+                System.out.println("Removed " + removed + " failed migration record(s)");
+            }
+            return true;
+        }
+    }
+
+    // runs one script statement by statement and records the result, failed or not
+    private boolean apply(Connection conn, Migration migration, boolean allowLocking) throws SQLException, IOException {
+        List<String> steps = statements(Files.readString(migration.script(), StandardCharsets.UTF_8));
+        System.out.printf("Migrating to version %d (%s): %d steps%n", migration.version(), migration.description(), steps.size());
+        long start = System.nanoTime();
+        int done = 0;
+        SQLException failure = null;
+        // the baseline builds its tables from nothing; for later versions DDL must not queue behind
+        // long transactions for its metadata lock, since every query on the table would queue behind it
+        boolean online = migration.version() > 1;
+        try (Statement stmt = conn.createStatement()) {
+            if (online) {
+                stmt.execute("SET SESSION lock_wait_timeout = " + lockWaitTimeoutSeconds);
+            }
+            try {
+                for (String step : steps) {
+                    long stepStart = System.nanoTime();
+                    String note = execute(stmt, step, online, allowLocking);
+                    done++;
+                    System.out.printf("  [%d/%d] %-70s %8.1f ms%s%n", done, steps.size(), summary(step),
+                        (System.nanoTime() - stepStart) / 1_000_000.0, note);
+                }
+            } catch (SQLException e) {
+                failure = e;
+            } finally {
+                if (online) {
+                    stmt.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                }
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        String sql = "INSERT INTO schema_version (version, description, script, checksum, success, steps, execution_ms) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.setString(3, migration.script().getFileName().toString());
+            pstmt.setString(4, checksum(migration.script()));
+            pstmt.setBoolean(5, failure == null);
+            pstmt.setInt(6, done);
+            pstmt.setLong(7, elapsedMs);
+            pstmt.executeUpdate();
+        }
+
+        if (failure != null) {
+            System.err.printf("  [%d/%d] %s%n", done + 1, steps.size(), summary(steps.get(done)));
+            System.err.println("Migration " + migration.version() + " failed: " + failure.getMessage());
+            if (failure.getErrorCode() == 1205) {
+                System.err.println("A long-running transaction holds a lock on the table; retry when it has finished");
+            }
+            System.err.println("Statements 1-" + done + " were applied and MySQL does not roll back DDL. " +
+                "Fix the schema by hand, then run: java Main migrate repair");
+            return false;
+        }
+        System.out.printf("Version %d applied in %d ms%n", migration.version(), elapsedMs);
+        return true;
+    }
+
+    // runs one statement, online if it changes an index or table; returns a note for the step line
+    private static String execute(Statement stmt, String sql, boolean online, boolean allowLocking) throws SQLException {
+        if (USE_STATEMENT.matcher(sql).matches()) {
+            // migrations apply to the database named in db.url
+            return "  (skipped)";
+        }
+        if (!online || !INDEX_DDL.matcher(sql).matches() || HAS_ALGORITHM_OR_LOCK.matcher(sql).find()) {
+            stmt.execute(sql);
+            return "";
+        }
+        String onlineClause = sql.regionMatches(true, 0, "ALTER", 0, 5)
+            ? ", ALGORITHM=INPLACE, LOCK=NONE" : " ALGORITHM=INPLACE LOCK=NONE";
+        try {
+            stmt.execute(sql + onlineClause);
+            return "  online";
+        } catch (SQLException e) {
+            if (!NOT_ONLINE.contains(e.getErrorCode())) {
+                throw e;
+            }
+            if (!allowLocking) {
+                throw new SQLException("Cannot run online (" + e.getMessage() + "). " +
+                    "Run with --allow-locking to apply it with the table locked", e.getSQLState(), e.getErrorCode(), e);
+            }
+            stmt.execute(sql);
+            return "  LOCKED (" + e.getMessage() + ")";
+        }
+    }
+
+    private static Map<Integer, Applied> createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INT PRIMARY KEY, " +
+                "description VARCHAR(200) NOT NULL, " +
+                "script VARCHAR(255) NOT NULL, " +
+                "checksum CHAR(64), " +
+                "success BOOLEAN NOT NULL, " +
+                "steps INT NOT NULL, " +
+                "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                "execution_ms BIGINT NOT NULL" +
+                ") ENGINE = InnoDB");
+        }
+        Map<Integer, Applied> applied = new TreeMap<>();
+        String sql = "SELECT version, description, checksum, success, steps, installed_on, execution_ms " +
+            "FROM schema_version ORDER BY version";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), new Applied(rs.getInt(1), rs.getString(2), rs.getString(3),
+                    rs.getBoolean(4), rs.getInt(5), rs.getTimestamp(6), rs.getLong(7)));
+            }
+        }
+        return applied;
+    }
+
+    private static boolean schemaHasTables(Connection conn) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.tables " +
+            "WHERE table_schema = DATABASE() AND table_name <> 'schema_version'";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1) > 0;
+        }
+    }
+
+    // server-side named lock so two instances started together don't both migrate
+    private static boolean lock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            pstmt.setString(1, LOCK_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        }
+    }
+
+    // SHA-256 of the script with line endings normalized, so a checkout on Windows matches
+    private static String checksum(Path script) throws IOException {
+        String text = Files.readString(script, StandardCharsets.UTF_8).replace("\r\n", "\n");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the statement collapsed onto one line and cut to fit the step report
+    private static String summary(String sql) {
+        String line = sql.replaceAll("\\s+", " ");
+        return line.length() <= 70 ? line : line.substring(0, 67) + "...";
+    }
+
+    // splits a script the way the mysql client does: statements end at the current delimiter
+    // (changed with DELIMITER, for trigger and procedure bodies), outside quotes and comments;
+    // -- and # comments are dropped, /* */ comments are kept since they may be hints
+    static List<String> statements(String script) {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String delimiter = ";";
+        int i = 0;
+        int n = script.length();
+        while (i < n) {
+            char c = script.charAt(i);
+            // DELIMITER is a client command, only recognised where a statement starts
+            if (current.isEmpty() && script.regionMatches(true, i, "DELIMITER", 0, 9)
+                && i + 9 < n && (Character.isWhitespace(script.charAt(i + 9)) || script.charAt(i + 9) == ';')) {
+                int start = i + 9;
+                while (start < n && (script.charAt(start) == ' ' || script.charAt(start) == '\t')) {
+                    start++;
+                }
+                int end = start;
+                while (end < n && !Character.isWhitespace(script.charAt(end))) {
+                    end++;
+                }
+                delimiter = script.substring(start, end);
+                current.setLength(0);
+                i = end;
+                continue;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = i + 1;
+                while (end < n && script.charAt(end) != c) {
+                    if (script.charAt(end) == '\\' && c != '`') {
+                        end++;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, n);
+                current.append(script, i, end);
+                i = end;
+                continue;
+            }
+            if (c == '#' || (c == '-' && script.startsWith("--", i)
+                && (i + 2 >= n || Character.isWhitespace(script.charAt(i + 2))))) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? n : end;
+                continue;
+            }
+            if (c == '/' && script.startsWith("/*", i)) {
+                int end = script.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                current.append(script, i, end);
+                i = end;
+                continue;
+            }
+            if (script.startsWith(delimiter, i)) {
+                String statement = current.toString().strip();
+                if (!statement.isEmpty()) {
+                    result.add(statement);
+                }
+                current.setLength(0);
+                i += delimiter.length();
+                continue;
+            }
+            // leading whitespace is dropped, so an empty buffer means a statement starts here
+            if (!current.isEmpty() || !Character.isWhitespace(c)) {
+                current.append(c);
+            }
+            i++;
+        }
+        String last = current.toString().strip();
+        if (!last.isEmpty()) {
+            result.add(last);
+        }
+        return result;
+    }
+}
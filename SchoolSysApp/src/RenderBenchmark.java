@@ -0,0 +1,99 @@
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+
+// "render-bench" command: rows/sec for the All Enrollments listing printed the old way
+// (System.out-style PrintStream, one printf per row) against TableRenderer
+// uses generated rows, so it needs no database and measures only the rendering
+final class RenderBenchmark {
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "David", "Eve", "Frank", "Grace", "Heidi"};
+    private static final String[] LAST_NAMES = {"Nguyen", "Smith", "Garcia", "Johnson", "Lee", "Brown", "Patel", "Kim"};
+    private static final String[] COURSES = {"CS157A", "CS146", "CS151", "MATH42", "ENGL1A", "PHYS50", "CS160"};
+    private static final String[] SEMESTERS = {"Fall 2024", "Spring 2025", "Summer 2025", "Fall 2025"};
+    private static final String[] GRADES = {"A", "A-", "B+", "B", "C", null};
+
+    private RenderBenchmark() {
+    }
+
+    // returns false if the two renderings don't produce the same text
+    static boolean run(int rowCount, int rounds, String outPath) throws IOException {
+        List<EnrollmentRow> rows = generate(rowCount);
+        Charset charset = System.out.charset();
+
+        // both paths must print exactly the same listing
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        List<EnrollmentRow> sample = rows.subList(0, Math.min(rows.size(), 1000));
+        renderPrintf(new PrintStream(expected, true, charset), sample);
+        renderTable(TableRenderer.writer(actual), sample);
+        boolean identical = Arrays.equals(expected.toByteArray(), actual.toByteArray());
+
+        System.out.printf("Rendering %d enrollment rows x %d rounds to %s%n", rows.size(), rounds, outPath);
+        long bestPrintf = Long.MAX_VALUE;
+        long bestTable = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            // same stream setup as System.out: 8 KB buffer, flushed on every line
+            try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(outPath), 8192), true, charset)) {
+                long start = System.nanoTime();
+                renderPrintf(out, rows);
+                bestPrintf = Math.min(bestPrintf, System.nanoTime() - start);
+            }
+            try (PrintWriter out = TableRenderer.writer(new FileOutputStream(outPath))) {
+                long start = System.nanoTime();
+                renderTable(out, rows);
+                bestTable = Math.min(bestTable, System.nanoTime() - start);
+            }
+        }
+
+        double printfRate = rows.size() / (bestPrintf / 1_000_000_000.0);
+        double tableRate = rows.size() / (bestTable / 1_000_000_000.0);
+        System.out.printf("printf per row:  %,12.0f rows/sec (best of %d)%n", printfRate, rounds);
+        System.out.printf("TableRenderer:   %,12.0f rows/sec (best of %d)%n", tableRate, rounds);
+        System.out.printf("Speedup: %.1fx%n", tableRate / printfRate);
+        System.out.println("Output identical: " + (identical ? "yes" : "NO"));
+        return identical;
+    }
+
+    // the listing as viewAllEnrollments printed it before TableRenderer
+    private static void renderPrintf(PrintStream out, List<EnrollmentRow> rows) {
+        out.println("\nAll Enrollments");
+        out.printf("%-20s %-30s %-15s %-30s %-15s %-10s%n",
+            "Student Name", "Email", "Course Code", "Course Name", "Semester", "Grade");
+        out.println(TableRenderer.RULE);
+        for (EnrollmentRow row : rows) {
+            out.printf("%-20s %-30s %-15s %-30s %-15s %-10s%n",
+                row.firstName() + " " + row.lastName(),
+                row.email(),
+                row.courseCode(),
+                row.courseName(),
+                row.semester(),
+                row.grade() != null ? row.grade() : "N/A");
+        }
+        out.flush();
+    }
+
+    private static void renderTable(PrintWriter out, List<EnrollmentRow> rows) {
+        TableRenderer table = Main.enrollmentTable(new TableRenderer(out));
+        table.line("\nAll Enrollments");
+        table.header();
+        for (EnrollmentRow row : rows) {
+            Main.printEnrollment(table, row);
+        }
+        table.flush();
+    }
+
+    private static List<EnrollmentRow> generate(int count) {
+        List<EnrollmentRow> rows = new ArrayList<>(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String course = COURSES[random.nextInt(COURSES.length)];
+            rows.add(new EnrollmentRow(i + 1, first, last,
+                first.toLowerCase() + "." + last.toLowerCase() + i + "@school.edu",
+                random.nextInt(COURSES.length) + 1, course, "Introduction to " + course,
+                SEMESTERS[random.nextInt(SEMESTERS.length)], GRADES[random.nextInt(GRADES.length)]));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,7 @@
+import java.io.IOException;
+
+// callback for the streaming repository methods, called once per row as it is read
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws IOException;
+}
@@ -0,0 +1,370 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// in-memory search over student names/emails, course codes/names and instructor names/emails
+// every entry is split into lower-case alphanumeric terms ("sarah.lee@sjsu.edu" -> sarah, lee, sjsu, edu).
+// a sorted term map answers prefix queries, and a trigram index over the terms finds candidates for
+// typo-tolerant matches, which are then confirmed with a bounded edit distance.
+// one shared index per process: loaded at startup (load), changed in place by the repositories on
+// insert/update/delete, and reloaded every search.refreshMs to pick up writes from other processes
+// (bulk loads, the API server, rolled back inserts)
+final class SearchIndex {
+    enum Kind { STUDENT, COURSE, INSTRUCTOR }
+
+    // key is what the exact lookups take: the email, or the course code
+    record Hit(Kind kind, String key, String name, int cost) {
+    }
+
+    private record Doc(Kind kind, String key, String name, String[] terms) {
+    }
+
+    private static volatile SearchIndex current;
+    // changes made while a reload is running, replayed onto the new index before it is swapped in
+    private static List<Consumer<SearchIndex>> replay;
+    private static ScheduledExecutorService refresher;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Set<Doc>> terms = new TreeMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    // shared index management
+
+    // builds the shared index and, if refreshMs > 0, reloads it in the background every refreshMs
+    static synchronized void start(ConnectionPool pool, long refreshMs) throws SQLException {
+        long start = System.nanoTime();
+        reload(pool);
+        System.out.printf("Search index: %d entries, %d terms loaded in %d ms%n",
+            current.size(), current.termCount(), (System.nanoTime() - start) / 1_000_000);
+        if (refreshMs > 0 && refresher == null) {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "search-index-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(() -> {
+                try {
+                    reload(pool);
+                } catch (SQLException | RuntimeException e) {
+                    System.err.println("Search index refresh failed: " + e.getMessage());
+                }
+            }, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static void reload(ConnectionPool pool) throws SQLException {
+        synchronized (SearchIndex.class) {
+            replay = new ArrayList<>();
+        }
+        SearchIndex fresh = new SearchIndex();
+        try (Connection conn = pool.getConnection()) {
+            fresh.loadFrom(conn);
+        } catch (SQLException | RuntimeException e) {
+            synchronized (SearchIndex.class) {
+                replay = null;
+            }
+            throw e;
+        }
+        synchronized (SearchIndex.class) {
+            for (Consumer<SearchIndex> change : replay) {
+                change.accept(fresh);
+            }
+            replay = null;
+            current = fresh;
+        }
+    }
+
+    // the shared index, or null if this process never loaded one (command-line tools)
+    static SearchIndex current() {
+        return current;
+    }
+
+    // applies a change to the shared index; a no-op when no index is loaded
+    static void update(Consumer<SearchIndex> change) {
+        if (current == null) {
+            return;
+        }
+        synchronized (SearchIndex.class) {
+            change.accept(current);
+            if (replay != null) {
+                replay.add(change);
+            }
+        }
+    }
+
+    private void loadFrom(Connection conn) throws SQLException {
+        try {
+            new StudentRepository().streamAll(conn, s -> putStudent(s.firstName(), s.lastName(), s.email()));
+            new CourseRepository().streamAllDetails(conn, d -> putCourse(d.course().courseCode(), d.course().courseName()));
+        } catch (IOException e) {
+            // the handlers above don't do I/O
+            throw new UncheckedIOException(e);
+        }
+        for (Instructor i : new InstructorRepository().findAll(conn)) {
+            putInstructor(i.firstName(), i.lastName(), i.email());
+        }
+    }
+
+    // changes
+
+    void putStudent(String firstName, String lastName, String email) {
+        put(new Doc(Kind.STUDENT, email.toLowerCase(), firstName + " " + lastName,
+            tokenize(firstName + " " + lastName + " " + email)));
+    }
+
+    void putCourse(String courseCode, String courseName) {
+        put(new Doc(Kind.COURSE, courseCode.toUpperCase(), courseName, tokenize(courseCode + " " + courseName)));
+    }
+
+    void putInstructor(String firstName, String lastName, String email) {
+        put(new Doc(Kind.INSTRUCTOR, email.toLowerCase(), firstName + " " + lastName,
+            tokenize(firstName + " " + lastName + " " + email)));
+    }
+
+    // keeps the student's name under the new email
+    void renameStudent(String currentEmail, String newEmail) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.get(docId(Kind.STUDENT, currentEmail.toLowerCase()));
+            if (doc != null) {
+                remove(Kind.STUDENT, currentEmail);
+                put(new Doc(Kind.STUDENT, newEmail.toLowerCase(), doc.name(), tokenize(doc.name() + " " + newEmail)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Kind kind, String key) {
+        String k = kind == Kind.COURSE ? key.toUpperCase() : key.toLowerCase();
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.remove(docId(kind, k));
+            if (doc != null) {
+                unlink(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Doc doc) {
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.put(docId(doc.kind(), doc.key()), doc);
+            if (old != null) {
+                unlink(old);
+            }
+            for (String term : doc.terms()) {
+                Set<Doc> postings = terms.get(term);
+                if (postings == null) {
+                    postings = new HashSet<>();
+                    terms.put(term, postings);
+                    for (String gram : grams(term)) {
+                        grams.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                    }
+                }
+                postings.add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(Doc doc) {
+        for (String term : doc.terms()) {
+            Set<Doc> postings = terms.get(term);
+            if (postings != null && postings.remove(doc) && postings.isEmpty()) {
+                terms.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> gramTerms = grams.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    // queries
+
+    // entries matching every word of the query, best first: a word costs 0 for an exact term,
+    // 1 for a prefix of a term and 2 + edit distance for a typo
+    List<Hit> search(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Doc, Integer> costs = null;
+            for (String word : words) {
+                Map<Doc, Integer> matches = match(word);
+                if (costs == null) {
+                    costs = matches;
+                } else {
+                    Map<Doc, Integer> both = new HashMap<>();
+                    for (Map.Entry<Doc, Integer> e : costs.entrySet()) {
+                        Integer cost = matches.get(e.getKey());
+                        if (cost != null) {
+                            both.put(e.getKey(), e.getValue() + cost);
+                        }
+                    }
+                    costs = both;
+                }
+                if (costs.isEmpty()) {
+                    return List.of();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(costs.size());
+            for (Map.Entry<Doc, Integer> e : costs.entrySet()) {
+                Doc doc = e.getKey();
+                hits.add(new Hit(doc.kind(), doc.key(), doc.name(), e.getValue()));
+            }
+            hits.sort(Comparator.comparingInt(Hit::cost).thenComparing(Hit::kind)
+                .thenComparing(Hit::name).thenComparing(Hit::key));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // cheapest cost of each document matching one query word
+    private Map<Doc, Integer> match(String word) {
+        Map<Doc, Integer> costs = new HashMap<>();
+        for (Map.Entry<String, Set<Doc>> e : terms.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            int cost = e.getKey().length() == word.length() ? 0 : 1;
+            for (Doc doc : e.getValue()) {
+                costs.merge(doc, cost, Math::min);
+            }
+        }
+        // typo tolerance only for words that match nothing as typed
+        int maxDistance = word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+        if (maxDistance == 0 || !costs.isEmpty()) {
+            return costs;
+        }
+        // q-gram filter: one edit changes at most 3 of the padded trigrams, so a term within maxDistance
+        // shares at least `needed` of the word's trigrams, and so at least one of its rarest
+        // (size - needed + 1) trigrams; candidates come from those, then are counted against all of them
+        List<String> wordGrams = grams(word);
+        int needed = Math.max(1, wordGrams.size() - 3 * maxDistance);
+        List<Set<String>> postings = new ArrayList<>();
+        for (String gram : wordGrams) {
+            postings.add(grams.getOrDefault(gram, Set.of()));
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<String> candidates = new HashSet<>();
+        for (Set<String> gramTerms : postings.subList(0, postings.size() - needed + 1)) {
+            candidates.addAll(gramTerms);
+        }
+        Set<String> wordGramSet = new HashSet<>(wordGrams);
+        for (String term : candidates) {
+            if (Math.abs(term.length() - word.length()) > maxDistance) {
+                continue;
+            }
+            int shared = 0;
+            for (String gram : grams(term)) {
+                if (wordGramSet.contains(gram)) {
+                    shared++;
+                }
+            }
+            if (shared < needed) {
+                continue;
+            }
+            int distance = distance(word, term, maxDistance);
+            if (distance <= maxDistance) {
+                for (Doc doc : terms.get(term)) {
+                    costs.merge(doc, 2 + distance, Math::min);
+                }
+            }
+        }
+        return costs;
+    }
+
+    // optimal string alignment distance (edits plus adjacent swaps), or max + 1 once it is over max
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int[] twoBack = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] row = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            row[0] = i;
+            int best = row[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, twoBack[j - 2] + 1);
+                }
+                row[j] = d;
+                best = Math.min(best, d);
+            }
+            if (best > max) {
+                return max + 1;
+            }
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = row;
+            row = recycled;
+        }
+        return previous[m];
+    }
+
+    private static String docId(Kind kind, String key) {
+        return kind.name() + ':' + key;
+    }
+
+    // lower-case runs of letters and digits
+    static String[] tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    // trigrams of the term padded with '$' at both ends ("lee" -> $le, lee, ee$)
+    private static List<String> grams(String term) {
+        String padded = "$" + term + "$";
+        List<String> result = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+}
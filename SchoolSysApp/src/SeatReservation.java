@@ -0,0 +1,198 @@
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// seat reservation around the Enrollment insert path
+// each enrollment locks its section's SectionEnrollmentCount row (SELECT ... FOR UPDATE) before inserting,
+// so enrollments into the same section queue up on that row instead of racing; deadlocks and lock wait
+// timeouts are retried with exponential backoff and jitter
+public class SeatReservation {
+    public enum Outcome { ENROLLED, FULL, DUPLICATE }
+
+    // MySQL error codes that mean "try the transaction again"
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private static final String LOCK_SECTION_SQL =
+        "SELECT sec.enrolled, cl.capacity " +
+        "FROM SectionEnrollmentCount sec " +
+        "JOIN Course c ON c.course_id = sec.course_id " +
+        "JOIN Classroom cl ON cl.classroom_id = c.classroom_id " +
+        "WHERE sec.course_id = ? AND sec.semester = ? " +
+        "FOR UPDATE OF sec";
+    private static final String CREATE_SECTION_SQL =
+        "INSERT IGNORE INTO SectionEnrollmentCount (course_id, semester, enrolled) VALUES (?, ?, 0)";
+    private static final String INSERT_SQL =
+        "INSERT INTO Enrollment (student_id, course_id, semester, grade) VALUES (?, ?, ?, ?)";
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+
+    public SeatReservation(int maxAttempts, long baseBackoffMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+    }
+
+    public static SeatReservation fromProperties(Properties props) {
+        return new SeatReservation(
+            ConnectionPool.intProperty(props, "enroll.maxAttempts", 5),
+            ConnectionPool.longProperty(props, "enroll.backoffMs", 20));
+    }
+
+    // body of a transaction that can be run again from the start after a deadlock
+    // returns true to commit, false to roll back
+    public interface Transaction {
+        boolean run(Connection conn) throws SQLException;
+    }
+
+    // enroll one student in its own transaction, retrying on deadlock / lock wait timeout
+    // returns FULL instead of inserting when the section has no seats left
+    public Outcome enroll(Connection conn, int studentId, int courseId, String semester, String grade) throws SQLException {
+        Outcome[] outcome = new Outcome[1];
+        inTransaction(conn, c -> {
+            outcome[0] = tryEnroll(c, studentId, courseId, semester, grade);
+            return outcome[0] == Outcome.ENROLLED;
+        });
+        return outcome[0];
+    }
+
+    // run work in its own transaction, rolling back and running it again with backoff when it hits a
+    // deadlock or lock wait timeout; the last such error is thrown once maxAttempts is used up
+    public void inTransaction(Connection conn, Transaction work) throws SQLException {
+        boolean originalAutoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (work.run(conn)) {
+                        conn.commit();
+                    } else {
+                        conn.rollback();
+                    }
+                    return;
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    if (!(e instanceof SQLException) || !isRetryable((SQLException) e) || attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    backoff(attempt);
+                }
+            }
+        } finally {
+            conn.setAutoCommit(originalAutoCommit);
+        }
+    }
+
+    private Outcome tryEnroll(Connection conn, int studentId, int courseId, String semester, String grade) throws SQLException {
+        int[] seats = lockSection(conn, courseId, semester);
+        if (seats == null) {
+            // first enrollment in this section: create its counter row, then lock it
+            try (PreparedStatement pstmt = conn.prepareStatement(CREATE_SECTION_SQL)) {
+                pstmt.setInt(1, courseId);
+                pstmt.setString(2, semester);
+                pstmt.executeUpdate();
+            }
+            seats = lockSection(conn, courseId, semester);
+            if (seats == null) {
+                // 02000 (no data): a missing course is not an integrity violation like a duplicate enrollment
+                throw new SQLException("Course not found: " + courseId, "02000");
+            }
+        }
+        if (seats[0] >= seats[1]) {
+            return Outcome.FULL;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            pstmt.setInt(1, studentId);
+            pstmt.setInt(2, courseId);
+            pstmt.setString(3, semester);
+            if (grade == null || grade.isEmpty()) {
+                pstmt.setNull(4, Types.CHAR);
+            } else {
+                pstmt.setString(4, grade);
+            }
+            pstmt.executeUpdate();
+            return Outcome.ENROLLED;
+        } catch (SQLException e) {
+            if (e.getErrorCode() == 1062) {
+                return Outcome.DUPLICATE;
+            }
+            throw e;
+        }
+    }
+
+    // {enrolled, capacity} with the section row locked until commit, or null if there is no row yet
+    private static int[] lockSection(Connection conn, int courseId, String semester) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(LOCK_SECTION_SQL)) {
+            pstmt.setInt(1, courseId);
+            pstmt.setString(2, semester);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new int[] {rs.getInt("enrolled"), rs.getInt("capacity")};
+                }
+            }
+        }
+        return null;
+    }
+
+    // lock several sections of one semester inside the caller's transaction
+    // always in course_id order, so two transactions touching the same sections can't deadlock each other
+    public static void lockSections(Connection conn, String semester, Collection<Integer> courseIds) throws SQLException {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ordered = new ArrayList<>(new TreeSet<>(courseIds));
+        try (PreparedStatement pstmt = conn.prepareStatement(CREATE_SECTION_SQL)) {
+            for (int courseId : ordered) {
+                pstmt.setInt(1, courseId);
+                pstmt.setString(2, semester);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        StringBuilder sql = new StringBuilder(
+            "SELECT course_id FROM SectionEnrollmentCount WHERE semester = ? AND course_id IN (");
+        for (int i = 0; i < ordered.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY course_id FOR UPDATE");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            pstmt.setString(1, semester);
+            for (int i = 0; i < ordered.size(); i++) {
+                pstmt.setInt(i + 2, ordered.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // reading the rows is enough, the locks are held until commit/rollback
+                }
+            }
+        }
+    }
+
+    // also looks at the cause, where a BatchUpdateException may keep the statement's real error
+    static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t instanceof SQLException; t = t.getCause()) {
+            SQLException sqlEx = (SQLException) t;
+            if (sqlEx.getErrorCode() == ER_LOCK_DEADLOCK || sqlEx.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                    || "40001".equals(sqlEx.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) throws SQLException {
+        long ceiling = baseBackoffMs << Math.min(attempt - 1, 10);
+        long sleep = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying transaction", "40001", e);
+        }
+    }
+}
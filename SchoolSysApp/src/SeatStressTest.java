@@ -0,0 +1,176 @@
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// multi-threaded stress test for SeatReservation (java Main stress ...)
+// many threads enroll students into one section at the same time, then the test checks that
+// the section never went over classroom capacity and that the seat counter matches the real count
+public class SeatStressTest {
+    private final ConnectionPool pool;
+    private final SeatReservation seats;
+
+    public SeatStressTest(ConnectionPool pool, SeatReservation seats) {
+        this.pool = pool;
+        this.seats = seats;
+    }
+
+    // returns true if every check passed
+    public boolean run(String courseCode, String semester, int threads, int maxStudents, int repeat, boolean keep)
+            throws SQLException, InterruptedException {
+        int courseId;
+        int capacity;
+        int existing;
+        List<Integer> students = new ArrayList<>();
+
+        try (Connection conn = pool.getConnection()) {
+            String sql = "SELECT c.course_id, cl.capacity FROM Course c " +
+                         "JOIN Classroom cl ON c.classroom_id = cl.classroom_id WHERE c.course_code = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, courseCode);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        System.out.println("Course not found: " + courseCode);
+                        return false;
+                    }
+                    courseId = rs.getInt("course_id");
+                    capacity = rs.getInt("capacity");
+                }
+            }
+            existing = countSection(conn, courseId, semester);
+
+            sql = "SELECT student_id FROM Student WHERE student_id NOT IN " +
+                  "(SELECT student_id FROM Enrollment WHERE course_id = ? AND semester = ?) " +
+                  "ORDER BY student_id LIMIT ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, courseId);
+                pstmt.setString(2, semester);
+                pstmt.setInt(3, maxStudents);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        students.add(rs.getInt("student_id"));
+                    }
+                }
+            }
+        }
+
+        System.out.printf("Section %s %s: capacity %d, %d already enrolled%n", courseCode, semester, capacity, existing);
+        System.out.printf("%d students x %d attempts on %d threads%n", students.size(), repeat, threads);
+
+        // every student is attempted `repeat` times, shuffled so duplicates race with first attempts
+        List<Integer> attempts = new ArrayList<>();
+        for (int i = 0; i < repeat; i++) {
+            attempts.addAll(students);
+        }
+        Collections.shuffle(attempts);
+
+        Map<SeatReservation.Outcome, AtomicLong> outcomes = new EnumMap<>(SeatReservation.Outcome.class);
+        for (SeatReservation.Outcome outcome : SeatReservation.Outcome.values()) {
+            outcomes.put(outcome, new AtomicLong());
+        }
+        AtomicLong errors = new AtomicLong();
+        Set<Integer> enrolledStudents = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        long start = System.nanoTime();
+        for (int studentId : attempts) {
+            executor.submit(() -> {
+                try {
+                    startGate.await();
+                    try (Connection conn = pool.getConnection()) {
+                        SeatReservation.Outcome outcome = seats.enroll(conn, studentId, courseId, semester, null);
+                        outcomes.get(outcome).incrementAndGet();
+                        if (outcome == SeatReservation.Outcome.ENROLLED) {
+                            enrolledStudents.add(studentId);
+                        }
+                    }
+                } catch (SQLException e) {
+                    errors.incrementAndGet();
+                    System.err.println("  Error: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        startGate.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        int actual;
+        int counter;
+        try (Connection conn = pool.getConnection()) {
+            actual = countSection(conn, courseId, semester);
+            counter = sectionCounter(conn, courseId, semester);
+        }
+
+        long enrolled = outcomes.get(SeatReservation.Outcome.ENROLLED).get();
+        int expected = Math.max(0, Math.min(capacity - existing, students.size()));
+
+        System.out.println("\nResults");
+        System.out.printf("Attempts: %d in %.2f s (%.0f/sec)%n", attempts.size(), seconds, seconds > 0 ? attempts.size() / seconds : 0.0);
+        for (Map.Entry<SeatReservation.Outcome, AtomicLong> entry : outcomes.entrySet()) {
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue().get());
+        }
+        System.out.println("  ERROR: " + errors.get());
+        System.out.println("Enrollment rows in section: " + actual + " (capacity " + capacity + ")");
+        System.out.println("Seat counter: " + counter);
+
+        boolean passed = true;
+        passed &= check(actual <= capacity, "section is within capacity");
+        passed &= check(counter == actual, "seat counter matches enrollment rows");
+        passed &= check(actual - existing == enrolled, "every ENROLLED outcome has exactly one row");
+        passed &= check(enrolled == expected, "all free seats were filled (" + expected + ")");
+        passed &= check(errors.get() == 0, "no unexpected errors");
+        System.out.println(passed ? "\nPASSED" : "\nFAILED");
+
+        if (!keep && !enrolledStudents.isEmpty()) {
+            removeEnrollments(courseId, semester, enrolledStudents);
+            System.out.println("Removed the " + enrolledStudents.size() + " enrollments created by the test");
+        }
+        return passed;
+    }
+
+    private static boolean check(boolean condition, String description) {
+        System.out.println((condition ? "  ok   " : "  FAIL ") + description);
+        return condition;
+    }
+
+    private static int countSection(Connection conn, int courseId, String semester) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM Enrollment WHERE course_id = ? AND semester = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, courseId);
+            pstmt.setString(2, semester);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static int sectionCounter(Connection conn, int courseId, String semester) throws SQLException {
+        String sql = "SELECT enrolled FROM SectionEnrollmentCount WHERE course_id = ? AND semester = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, courseId);
+            pstmt.setString(2, semester);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private void removeEnrollments(int courseId, String semester, Set<Integer> studentIds) throws SQLException {
+        String sql = "DELETE FROM Enrollment WHERE student_id = ? AND course_id = ? AND semester = ?";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int studentId : studentIds) {
+                pstmt.setInt(1, studentId);
+                pstmt.setInt(2, courseId);
+                pstmt.setString(3, semester);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,459 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// slow-query log (slowlog.* in app.properties; java Main slowlog report)
+// statements run through the Metrics wrapper that take slowlog.thresholdMs or longer are recorded with
+// their SQL, bound parameters, row count, elapsed time and operation. a background thread runs
+// EXPLAIN FORMAT=JSON for them on its own pooled connection (at most once per statement text every
+// slowlog.explainIntervalSec) and appends one JSON line per statement to slowlog.file, which rolls
+// over at slowlog.maxBytes keeping slowlog.files old files. the caller only pays for the capture
+final class SlowQueryLog {
+    private static final int QUEUE_SIZE = 1000;
+    private static final int MAX_PARAM_LENGTH = 200;
+    // "IN (?, ?, ?)" lists of any length count as one statement in the report
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Long.MAX_VALUE while off, so the wrapper's check is a single comparison
+    private static volatile long thresholdNanos = Long.MAX_VALUE;
+    private static ConnectionPool pool;
+    // null while stopped; read on the statement threads, so volatile
+    private static volatile ThreadPoolExecutor writer;
+    private static volatile Thread writerThread;
+    private static boolean explain;
+    private static long explainIntervalMs;
+    private static Path file;
+    private static long maxBytes;
+    private static int files;
+    private static Writer out;
+    private static long size;
+    private static final Map<String, Long> lastExplained = new HashMap<>();
+    private static final LongAdder dropped = new LongAdder();
+
+    private SlowQueryLog() {
+    }
+
+    // one slow statement; finished once its row count is known (end of the result set, or at once for updates)
+    static final class Entry {
+        final long time = System.currentTimeMillis();
+        final String operation;
+        final String sql;
+        final Object[] params;
+        final long elapsedNanos;
+        final String error;
+        private boolean finished;
+
+        private Entry(String operation, String sql, Object[] params, long elapsedNanos, String error) {
+            this.operation = operation;
+            this.sql = sql;
+            this.params = params;
+            this.elapsedNanos = elapsedNanos;
+            this.error = error;
+        }
+
+        void finish(long rows) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            // a statement that started before stop() can finish its result set after it
+            ThreadPoolExecutor executor = writer;
+            if (executor == null) {
+                dropped.increment();
+                return;
+            }
+            try {
+                executor.execute(() -> write(this, rows));
+            } catch (RejectedExecutionException e) {
+                // queue full (or stopping): the database is already struggling, don't add to it
+                dropped.increment();
+            }
+        }
+    }
+
+    static boolean isEnabled() {
+        return thresholdNanos != Long.MAX_VALUE;
+    }
+
+    static long thresholdNanos() {
+        return thresholdNanos;
+    }
+
+    // a slow statement, or null if it shouldn't be logged (the log's own EXPLAINs)
+    static Entry slow(String operation, String sql, Object[] params, long elapsedNanos, SQLException error) {
+        if (!isEnabled() || Thread.currentThread() == writerThread) {
+            return null;
+        }
+        return new Entry(operation, sql == null ? "(unknown)" : sql, params, elapsedNanos,
+            error == null ? null : error.getSQLState() + ": " + error.getMessage());
+    }
+
+    static synchronized void start(ConnectionPool pool, Properties props) {
+        if (!Boolean.parseBoolean(props.getProperty("slowlog.enabled", "true").trim()) || writer != null) {
+            return;
+        }
+        SlowQueryLog.pool = pool;
+        explain = Boolean.parseBoolean(props.getProperty("slowlog.explain", "true").trim());
+        explainIntervalMs = ConnectionPool.longProperty(props, "slowlog.explainIntervalSec", 60) * 1000;
+        file = Paths.get(props.getProperty("slowlog.file", "slow-queries.jsonl").trim());
+        maxBytes = ConnectionPool.longProperty(props, "slowlog.maxBytes", 10 * 1024 * 1024);
+        files = Math.max(0, ConnectionPool.intProperty(props, "slowlog.files", 5));
+        try {
+            open();
+        } catch (IOException e) {
+            System.err.println("Slow-query log not opened: " + e.getMessage());
+            return;
+        }
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+            Thread t = new Thread(r, "slow-query-log");
+            t.setDaemon(true);
+            writerThread = t;
+            return t;
+        });
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(ConnectionPool.longProperty(props, "slowlog.thresholdMs", 100));
+    }
+
+    // waits briefly for the queued entries, then closes the file
+    static synchronized void stop() {
+        if (writer == null) {
+            return;
+        }
+        thresholdNanos = Long.MAX_VALUE;
+        ThreadPoolExecutor executor = writer;
+        writer = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the slow-query log: " + e.getMessage());
+        }
+        if (dropped.sum() > 0) {
+            System.err.println("Slow-query log: " + dropped.sum() + " entries dropped (queue full or log stopped)");
+        }
+    }
+
+    // runs on the writer thread only
+    private static void write(Entry entry, long rows) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("time", Instant.ofEpochMilli(entry.time).toString());
+        line.put("operation", entry.operation);
+        line.put("elapsedMs", Math.round(entry.elapsedNanos / 1e4) / 100.0);
+        line.put("rows", rows);
+        line.put("sql", entry.sql);
+        List<Object> params = new ArrayList<>();
+        if (entry.params != null) {
+            for (Object param : entry.params) {
+                params.add(jsonValue(param));
+            }
+        }
+        line.put("params", params);
+        if (entry.error != null) {
+            line.put("error", entry.error);
+        }
+        if (explain && explainable(entry)) {
+            String key = statementKey(entry.sql);
+            Long last = lastExplained.get(key);
+            if (last == null || entry.time - last >= explainIntervalMs) {
+                lastExplained.put(key, entry.time);
+                try {
+                    line.put("explain", Json.parse(explain(entry)));
+                } catch (SQLException | RuntimeException e) {
+                    line.put("explainError", e.getMessage());
+                }
+            }
+        }
+        try {
+            append(Json.write(line) + "\n");
+        } catch (IOException e) {
+            System.err.println("Slow-query log write failed: " + e.getMessage());
+        }
+    }
+
+    private static boolean explainable(Entry entry) {
+        String verb = entry.sql.stripLeading();
+        int end = 0;
+        while (end < verb.length() && Character.isLetter(verb.charAt(end))) {
+            end++;
+        }
+        verb = verb.substring(0, end).toUpperCase();
+        if (!verb.equals("SELECT") && !verb.equals("INSERT") && !verb.equals("UPDATE") && !verb.equals("DELETE")
+                && !verb.equals("REPLACE") && !verb.equals("WITH")) {
+            return false;
+        }
+        // streams and LOBs can only be read once, so they can't be bound again
+        if (entry.params != null) {
+            for (Object param : entry.params) {
+                if (param instanceof InputStream || param instanceof Reader || param instanceof Blob || param instanceof Clob) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // EXPLAIN FORMAT=JSON of the statement with its parameters, on a separate connection (so it does not
+    // see rows the caller had not committed yet)
+    @SuppressWarnings("try")
+    private static String explain(Entry entry) throws SQLException {
+        try (Metrics.Scope op = Metrics.operation("slowlog explain");
+             Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN FORMAT=JSON " + entry.sql)) {
+            if (entry.params != null) {
+                for (int i = 0; i < entry.params.length; i++) {
+                    pstmt.setObject(i + 1, entry.params[i]);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static Object jsonValue(Object param) {
+        if (param == null || param instanceof Number || param instanceof Boolean) {
+            return param;
+        }
+        if (param instanceof byte[]) {
+            return "<" + ((byte[]) param).length + " bytes>";
+        }
+        if (param instanceof InputStream || param instanceof Reader || param instanceof Blob || param instanceof Clob) {
+            return "<" + param.getClass().getSimpleName() + ">";
+        }
+        String text = param.toString();
+        return text.length() > MAX_PARAM_LENGTH ? text.substring(0, MAX_PARAM_LENGTH) + "..." : text;
+    }
+
+    // rolling file: slow-queries.jsonl, then .1 (newest) to .<files> (oldest)
+
+    private static void open() throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(file.toFile(), true), StandardCharsets.UTF_8));
+        size = Files.size(file);
+    }
+
+    private static void append(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        if (size > 0 && size + bytes.length > maxBytes) {
+            out.close();
+            if (files == 0) {
+                Files.delete(file);
+            } else {
+                Files.deleteIfExists(rolled(file, files));
+                for (int i = files - 1; i >= 1; i--) {
+                    if (Files.exists(rolled(file, i))) {
+                        Files.move(rolled(file, i), rolled(file, i + 1));
+                    }
+                }
+                Files.move(file, rolled(file, 1));
+            }
+            open();
+        }
+        out.write(line);
+        // one line at a time, so a crash loses at most the entry being written
+        out.flush();
+        size += bytes.length;
+    }
+
+    private static Path rolled(Path path, int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    // whitespace collapsed and placeholder lists folded, so each statement of the code is one key
+    static String statementKey(String sql) {
+        return PLACEHOLDER_LIST.matcher(WHITESPACE.matcher(sql.strip()).replaceAll(" ")).replaceAll("?, ...");
+    }
+
+    // report
+
+    private static final class Group {
+        final String sql;
+        final Set<String> operations = new TreeSet<>();
+        final List<Double> elapsed = new ArrayList<>();
+        double total;
+        long maxRows = -1;
+        long errors;
+        Map<String, Object> slowest;
+        Object plan;
+
+        Group(String sql) {
+            this.sql = sql;
+        }
+
+        double max() {
+            return ((Number) slowest.get("elapsedMs")).doubleValue();
+        }
+    }
+
+    // the statements in the log (rolled files included) ranked by total, max, avg or count; false if there is no log
+    @SuppressWarnings("unchecked")
+    static boolean report(String path, int top, String sortBy) throws IOException {
+        Path current = Paths.get(path);
+        List<Path> paths = new ArrayList<>();
+        for (int i = 1; Files.exists(rolled(current, i)); i++) {
+            paths.add(0, rolled(current, i));
+        }
+        if (Files.exists(current)) {
+            paths.add(current);
+        }
+        if (paths.isEmpty()) {
+            System.out.println("No slow-query log at " + current);
+            return false;
+        }
+
+        Map<String, Group> groups = new HashMap<>();
+        long entries = 0;
+        long unreadable = 0;
+        String first = null;
+        String last = null;
+        for (Path p : paths) {
+            try (BufferedReader in = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+                String text;
+                while ((text = in.readLine()) != null) {
+                    if (text.isBlank()) {
+                        continue;
+                    }
+                    Map<String, Object> entry;
+                    try {
+                        entry = Json.parseObject(text);
+                    } catch (IllegalArgumentException e) {
+                        // e.g. a line cut short by a crash
+                        unreadable++;
+                        continue;
+                    }
+                    entries++;
+                    String time = (String) entry.get("time");
+                    first = first == null ? time : first;
+                    last = time;
+                    String sql = statementKey(String.valueOf(entry.get("sql")));
+                    Group group = groups.computeIfAbsent(sql, Group::new);
+                    double elapsed = ((Number) entry.get("elapsedMs")).doubleValue();
+                    group.elapsed.add(elapsed);
+                    group.total += elapsed;
+                    group.operations.add(String.valueOf(entry.get("operation")));
+                    group.maxRows = Math.max(group.maxRows, ((Number) entry.get("rows")).longValue());
+                    if (entry.containsKey("error")) {
+                        group.errors++;
+                    }
+                    if (group.slowest == null || elapsed > group.max()) {
+                        group.slowest = entry;
+                    }
+                    // the latest plan, which reflects the current indexes
+                    if (entry.get("explain") != null) {
+                        group.plan = entry.get("explain");
+                    }
+                }
+            }
+        }
+
+        Comparator<Group> order;
+        switch (sortBy) {
+            case "max":
+                order = Comparator.comparingDouble(Group::max);
+                break;
+            case "avg":
+                order = Comparator.comparingDouble(g -> g.total / g.elapsed.size());
+                break;
+            case "count":
+                order = Comparator.comparingInt(g -> g.elapsed.size());
+                break;
+            case "total":
+                order = Comparator.comparingDouble(g -> g.total);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown --by value: " + sortBy + " (expected total, max, avg or count)");
+        }
+        List<Group> ranked = new ArrayList<>(groups.values());
+        ranked.sort(order.reversed());
+
+        System.out.printf("%d slow statements in %s%s, %s to %s; %d distinct, worst %d by %s%n", entries, current,
+            paths.size() > 1 ? " (+" + (paths.size() - 1) + " rolled files)" : "", first, last, groups.size(),
+            Math.min(top, ranked.size()), sortBy);
+        if (unreadable > 0) {
+            System.out.println(unreadable + " unreadable lines skipped");
+        }
+        for (int i = 0; i < Math.min(top, ranked.size()); i++) {
+            Group group = ranked.get(i);
+            List<Double> sorted = new ArrayList<>(group.elapsed);
+            Collections.sort(sorted);
+            double p95 = sorted.get(Math.max(0, (int) Math.ceil(0.95 * sorted.size()) - 1));
+            System.out.printf("%n%d. %d times, %.1f ms total, avg %.1f ms, p95 %.1f ms, max %.1f ms%s  [%s]%n", i + 1,
+                group.elapsed.size(), group.total, group.total / group.elapsed.size(), p95, group.max(),
+                group.errors > 0 ? ", " + group.errors + " failed" : "", String.join(", ", group.operations));
+            System.out.println("   " + (group.sql.length() > 240 ? group.sql.substring(0, 240) + " ..." : group.sql));
+            Map<String, Object> slowest = group.slowest;
+            System.out.printf("   slowest: %.1f ms, %s rows, params %s, at %s%n", group.max(),
+                ((Number) slowest.get("rows")).longValue() < 0 ? "?" : String.valueOf(((Number) slowest.get("rows")).longValue()),
+                Json.write(wholeNumbers(slowest.get("params"))), slowest.get("time"));
+            if (slowest.get("error") != null) {
+                System.out.println("   error: " + slowest.get("error"));
+            }
+            if (group.plan != null) {
+                List<String> steps = new ArrayList<>();
+                planSteps(group.plan, steps);
+                System.out.println("   plan: " + (steps.isEmpty() ? "(no table access)" : String.join("; ", steps)));
+            }
+        }
+        return true;
+    }
+
+    // the parser reads every number as a double; ids read better as 42 than 42.0
+    private static Object wholeNumbers(Object params) {
+        if (!(params instanceof List)) {
+            return params;
+        }
+        List<Object> values = new ArrayList<>();
+        for (Object value : (List<?>) params) {
+            boolean whole = value instanceof Double && (Double) value == Math.rint((Double) value) && Math.abs((Double) value) < 1e15;
+            values.add(whole ? (Object) ((Double) value).longValue() : value);
+        }
+        return values;
+    }
+
+    // one step per table access in the EXPLAIN JSON, flagging full scans, filesorts and temporary tables
+    @SuppressWarnings("unchecked")
+    private static void planSteps(Object node, List<String> steps) {
+        if (node instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) node;
+            if (map.containsKey("table_name")) {
+                String access = String.valueOf(map.get("access_type"));
+                StringBuilder step = new StringBuilder(String.valueOf(map.get("table_name"))).append(' ').append(access);
+                if (map.get("key") != null) {
+                    step.append(' ').append(map.get("key"));
+                }
+                if (map.get("rows_examined_per_scan") instanceof Number) {
+                    step.append(" ~").append(((Number) map.get("rows_examined_per_scan")).longValue()).append(" rows");
+                }
+                if (access.equals("ALL")) {
+                    step.append(" (FULL SCAN)");
+                }
+                steps.add(step.toString());
+            }
+            if (Boolean.TRUE.equals(map.get("using_filesort"))) {
+                steps.add("filesort");
+            }
+            if (Boolean.TRUE.equals(map.get("using_temporary_table"))) {
+                steps.add("temporary table");
+            }
+            for (Object value : map.values()) {
+                planSteps(value, steps);
+            }
+        } else if (node instanceof List) {
+            for (Object item : (List<Object>) node) {
+                planSteps(item, steps);
+            }
+        }
+    }
+}
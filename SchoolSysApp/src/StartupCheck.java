@@ -0,0 +1,165 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+
+// startup time of a short-lived CLI run, with and without class-data sharing
+// "startup-probe" is what gets timed: the steps every database command takes (load app.properties,
+// open the pool, first query), printing a marker line after each. it is also the training run
+// that the build records the AppCDS archive from (-XX:ArchiveClassesAtExit).
+// "startup-report" starts the probe in fresh JVMs without CDS, with the JDK's default archive and
+// with the app archive, and reports the median time to each marker, timed from outside the JVM
+final class StartupCheck {
+    private static final String[] MARKERS = {"main", "connected", "first-query", "exit"};
+
+    private StartupCheck() {
+    }
+
+    // one probe run; never fails, since the build runs it with or without a database
+    static boolean probe() throws IOException {
+        marker("main");
+        Properties props = Main.loadProperties();
+        ConnectionPool pool = null;
+        try {
+            pool = ConnectionPool.fromProperties(props);
+            marker("connected");
+            try (Connection conn = pool.getConnection()) {
+                new StudentRepository().findIdByEmail(conn, "startup-probe@localhost");
+            }
+            marker("first-query");
+        } catch (SQLException e) {
+            // still a useful training run: the driver got as far as the connection attempt
+            System.out.println("no-database " + e.getMessage());
+        } finally {
+            if (pool != null) {
+                pool.close();
+            }
+        }
+        return true;
+    }
+
+    private static void marker(String name) {
+        System.out.println(name);
+        System.out.flush();
+    }
+
+    // returns false if the archive is given but the JVM can't use it
+    static boolean report(String archive, int runs) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        Map<String, List<String>> configs = new LinkedHashMap<>();
+        configs.put("CDS off", List.of("-Xshare:off"));
+        configs.put("JDK CDS archive", List.of("-Xshare:auto"));
+        boolean haveArchive = archive != null && Files.isRegularFile(Paths.get(archive));
+        if (haveArchive) {
+            configs.put("AppCDS archive", List.of("-Xshare:auto", "-XX:SharedArchiveFile=" + archive));
+        } else if (archive != null) {
+            System.out.println("No archive at " + archive + " - build it with: mvn -B verify (or see README)");
+        }
+
+        System.out.printf("Startup of \"Main startup-probe\" (median of %d runs, ms from process start)%n", runs);
+        System.out.printf("%-18s", "");
+        for (String marker : MARKERS) {
+            System.out.printf("%12s", marker);
+        }
+        System.out.println();
+        Map<String, double[]> medians = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> config : configs.entrySet()) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(config.getValue());
+            command.addAll(List.of("-cp", classPath, "Main", "startup-probe"));
+            // one untimed run first so every configuration starts with the jar in the page cache
+            time(command);
+            double[][] samples = new double[MARKERS.length][runs];
+            for (int r = 0; r < runs; r++) {
+                double[] times = time(command);
+                for (int m = 0; m < MARKERS.length; m++) {
+                    samples[m][r] = times[m];
+                }
+            }
+            double[] median = new double[MARKERS.length];
+            System.out.printf("%-18s", config.getKey());
+            for (int m = 0; m < MARKERS.length; m++) {
+                median[m] = median(samples[m]);
+                System.out.printf("%12s", Double.isNaN(median[m]) ? "-" : String.format("%.1f", median[m]));
+            }
+            System.out.println();
+            medians.put(config.getKey(), median);
+        }
+
+        if (Double.isNaN(medians.get("CDS off")[1])) {
+            System.out.println("(no database reachable: the probe stopped at the connection attempt)");
+        }
+        if (!haveArchive) {
+            return archive == null;
+        }
+        double without = medians.get("JDK CDS archive")[MARKERS.length - 1];
+        double with = medians.get("AppCDS archive")[MARKERS.length - 1];
+        System.out.printf("AppCDS: %.1f ms faster to exit (%.0f%%)%n", without - with, 100 * (without - with) / without);
+
+        // check the archive is really used: count the classes loaded from it in one more run
+        List<String> command = new ArrayList<>(List.of(java, "-Xshare:auto", "-XX:SharedArchiveFile=" + archive,
+            "-Xlog:class+load=info", "-cp", classPath, "Main", "startup-probe"));
+        int loaded = 0;
+        int fromArchive = 0;
+        int fromJdkArchive = 0;
+        for (String line : output(command)) {
+            if (line.contains("[class,load]")) {
+                loaded++;
+                if (line.contains("shared objects file (top)")) {
+                    fromArchive++;
+                } else if (line.contains("shared objects file")) {
+                    fromJdkArchive++;
+                }
+            }
+        }
+        System.out.printf("AppCDS: %d classes loaded, %d from the app archive, %d from the JDK archive, %d from class files%n",
+            loaded, fromArchive, fromJdkArchive, loaded - fromArchive - fromJdkArchive);
+        if (fromArchive == 0) {
+            System.out.println("The archive was not used - it must be created by the same JDK, with the same class path");
+            return false;
+        }
+        return true;
+    }
+
+    // ms from starting the process until each marker line, and until it exits; NaN for a marker it never printed
+    private static double[] time(List<String> command) throws IOException, InterruptedException {
+        double[] times = new double[MARKERS.length];
+        Arrays.fill(times, Double.NaN);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                int m = Arrays.asList(MARKERS).indexOf(line);
+                if (m >= 0) {
+                    times[m] = (System.nanoTime() - start) / 1_000_000.0;
+                }
+            }
+        }
+        process.waitFor();
+        times[MARKERS.length - 1] = (System.nanoTime() - start) / 1_000_000.0;
+        return times;
+    }
+
+    private static List<String> output(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        process.waitFor();
+        return lines;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,193 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// per-connection LRU cache of prepared statements keyed by SQL text
+// the statement handed out is a wrapper whose close() closes the open result set, clears the parameters
+// and puts back the settings the caller changed, so code can keep using try-with-resources and still
+// reuse the compiled statement
+class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        // access order makes iteration order least recently used first
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                StatementCache.this.evictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    synchronized PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && cached.evicted) {
+            // could not be reset when it was last closed
+            statements.remove(sql);
+            cached = null;
+        }
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            cached.inUse = true;
+            return cached.handle;
+        }
+
+        misses.increment();
+        PreparedStatement stmt = physical.prepareStatement(sql);
+        if (cached != null) {
+            // same SQL is already open further up the call stack, give this caller its own statement
+            return stmt;
+        }
+        try {
+            cached = new CachedStatement(stmt);
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        cached.inUse = true;
+        statements.put(sql, cached);
+        return cached.handle;
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evict();
+        }
+        statements.clear();
+    }
+
+    private static final class CachedStatement implements InvocationHandler {
+        // per-statement settings a caller may change (e.g. Jdbc.streaming's fetch size)
+        private static final Set<String> SETTINGS = Set.of("setFetchSize", "setFetchDirection", "setMaxRows",
+            "setLargeMaxRows", "setQueryTimeout", "setMaxFieldSize", "setEscapeProcessing", "setPoolable");
+
+        final PreparedStatement stmt;
+        final PreparedStatement handle;
+        // the settings as the driver created the statement
+        private final int fetchSize;
+        private final int fetchDirection;
+        private final long maxRows;
+        private final int queryTimeout;
+        private final int maxFieldSize;
+        boolean inUse = false;
+        boolean evicted = false;
+        private boolean settingsChanged = false;
+
+        CachedStatement(PreparedStatement stmt) throws SQLException {
+            this.stmt = stmt;
+            this.fetchSize = stmt.getFetchSize();
+            this.fetchDirection = stmt.getFetchDirection();
+            this.maxRows = stmt.getLargeMaxRows();
+            this.queryTimeout = stmt.getQueryTimeout();
+            this.maxFieldSize = stmt.getMaxFieldSize();
+            this.handle = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                this);
+        }
+
+        // dropped from the cache; close now unless a caller still holds it
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                // statement belongs to a broken connection, nothing else to do
+            }
+        }
+
+        // ready for the next caller: a result set left open (a streamed one would block the connection)
+        // is closed, and a statement that can't be reset is dropped instead of handed out again
+        private void reset() {
+            try {
+                ResultSet rs = stmt.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                stmt.clearParameters();
+                stmt.clearBatch();
+                if (settingsChanged) {
+                    stmt.setFetchSize(fetchSize);
+                    stmt.setFetchDirection(fetchDirection);
+                    stmt.setLargeMaxRows(maxRows);
+                    stmt.setQueryTimeout(queryTimeout);
+                    stmt.setMaxFieldSize(maxFieldSize);
+                    stmt.setEscapeProcessing(true);
+                    stmt.setPoolable(true);
+                    settingsChanged = false;
+                }
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (inUse) {
+                    inUse = false;
+                    if (evicted) {
+                        closeQuietly();
+                    } else {
+                        reset();
+                    }
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return !inUse || stmt.isClosed();
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.equals("toString")) {
+                return "CachedStatement[" + stmt + "]";
+            }
+            if (!inUse) {
+                throw new SQLException("Statement is closed", "S1009");
+            }
+            if (SETTINGS.contains(name)) {
+                settingsChanged = true;
+            }
+            try {
+                return method.invoke(stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
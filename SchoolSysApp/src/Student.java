@@ -0,0 +1,8 @@
+import java.time.LocalDate;
+
+// one row of the Student table
+public record Student(int studentId, String firstName, String lastName, String email, LocalDate dob) {
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+// data access for the Student table
+public class StudentRepository {
+    private static final String COLUMNS = "student_id, first_name, last_name, email, dob";
+    // listing order; student_id makes it total so keyset pages never skip or repeat a row
+    private static final String ORDER_BY = " ORDER BY last_name, first_name, student_id";
+    private static final String SEEK = Jdbc.seekAfter("last_name", "first_name", "student_id");
+
+    // email -> student_id, shared by the whole process so that updates and deletes made through
+    // any repository instance invalidate it; replaced by configureIdCache on startup
+    private static volatile LookupCache<String, Integer> idCache = new LookupCache<>(10000, 300000);
+
+    static void configureIdCache(int maxSize, long ttlMs) {
+        idCache = new LookupCache<>(maxSize, ttlMs);
+    }
+
+    static LookupCache<String, Integer> idCache() {
+        return idCache;
+    }
+
+    // emails compare case-insensitively in MySQL, so the cache key is lower-cased
+    private static String idKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<Student> findByEmail(Connection conn, String email) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Student WHERE email = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Optional.of(map(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    // student_id for an email, or -1 if there is no such student (cached)
+    public int findIdByEmail(Connection conn, String email) throws SQLException {
+        LookupCache<String, Integer> cache = idCache;
+        Integer cached = cache.get(idKey(email));
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        String sql = "SELECT student_id FROM Student WHERE email = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    int id = rs.getInt("student_id");
+                    cache.put(idKey(email), id, stamp);
+                    return id;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // lower-cased email -> student_id for many emails; cache misses are resolved with one IN (...) query
+    // and unknown emails are left out
+    public Map<String, Integer> findIdsByEmails(Connection conn, Collection<String> emails) throws SQLException {
+        LookupCache<String, Integer> cache = idCache;
+        Map<String, Integer> ids = new HashMap<>();
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String email : emails) {
+            Integer cached = cache.get(idKey(email));
+            if (cached != null) {
+                ids.put(idKey(email), cached);
+            } else {
+                distinct.add(email);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return ids;
+        }
+        long stamp = cache.stamp();
+        String sql = "SELECT student_id, email FROM Student WHERE email IN (" + Jdbc.placeholders(distinct.size()) + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (String email : distinct) {
+                pstmt.setString(i++, email);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String key = idKey(rs.getString("email"));
+                    ids.put(key, rs.getInt("student_id"));
+                    cache.put(key, rs.getInt("student_id"), stamp);
+                }
+            }
+        }
+        return ids;
+    }
+
+    public List<Student> findAll(Connection conn) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM Student" + ORDER_BY;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                students.add(map(rs));
+            }
+        }
+        return students;
+    }
+
+    // up to `limit` rows in findAll's order that come after `after` (null for the first page)
+    // keyset pagination: the next page seeks past the last row instead of using OFFSET
+    public List<Student> findPage(Connection conn, Student after, int limit) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM Student" + (after != null ? " WHERE " + SEEK : "") + ORDER_BY + " LIMIT ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = bindAfter(pstmt, after);
+            pstmt.setInt(index, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(map(rs));
+                }
+            }
+        }
+        return students;
+    }
+
+    // same rows as findAll, handed over one at a time without holding the table in memory
+    public void streamAll(Connection conn, RowHandler<Student> handler) throws SQLException, IOException {
+        streamAll(conn, null, handler);
+    }
+
+    // the rest of the table after `after` (null for all of it), streamed
+    public void streamAll(Connection conn, Student after, RowHandler<Student> handler) throws SQLException, IOException {
+        String sql = "SELECT " + COLUMNS + " FROM Student" + (after != null ? " WHERE " + SEEK : "") + ORDER_BY;
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql)) {
+            bindAfter(pstmt, after);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(map(rs));
+                }
+            }
+        }
+    }
+
+    private static int bindAfter(PreparedStatement pstmt, Student after) throws SQLException {
+        if (after == null) {
+            return 1;
+        }
+        return Jdbc.bindSeekAfter(pstmt, 1, after.lastName(), after.firstName(), after.studentId());
+    }
+
+    public int insert(Connection conn, String firstName, String lastName, String email, java.time.LocalDate dob)
+            throws SQLException {
+        String sql = "INSERT INTO Student (first_name, last_name, email, dob) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, firstName);
+            pstmt.setString(2, lastName);
+            pstmt.setString(3, email);
+            Jdbc.setNullableDate(pstmt, 4, dob);
+            int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                SearchIndex.update(index -> index.putStudent(firstName, lastName, email));
+            }
+            return rows;
+        }
+    }
+
+    // one JDBC batch (a multi-row INSERT with rewriteBatchedStatements); student_id of the records is ignored
+    public int[] insertBatch(Connection conn, List<Student> students) throws SQLException {
+        String sql = "INSERT INTO Student (first_name, last_name, email, dob) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Student student : students) {
+                pstmt.setString(1, student.firstName());
+                pstmt.setString(2, student.lastName());
+                pstmt.setString(3, student.email());
+                Jdbc.setNullableDate(pstmt, 4, student.dob());
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            SearchIndex.update(index -> {
+                for (Student student : students) {
+                    index.putStudent(student.firstName(), student.lastName(), student.email());
+                }
+            });
+            return counts;
+        }
+    }
+
+    public int updateEmail(Connection conn, String currentEmail, String newEmail) throws SQLException {
+        String sql = "UPDATE Student SET email = ? WHERE email = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, newEmail);
+            pstmt.setString(2, currentEmail);
+            int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                SearchIndex.update(index -> index.renameStudent(currentEmail, newEmail));
+            }
+            return rows;
+        } finally {
+            idCache.invalidate(idKey(currentEmail));
+            idCache.invalidate(idKey(newEmail));
+        }
+    }
+
+    // enrollments go with the student (ON DELETE CASCADE)
+    public int deleteByEmail(Connection conn, String email) throws SQLException {
+        String sql = "DELETE FROM Student WHERE email = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, email);
+            int rows = pstmt.executeUpdate();
+            if (rows > 0) {
+                SearchIndex.update(index -> index.remove(SearchIndex.Kind.STUDENT, email));
+            }
+            return rows;
+        } finally {
+            idCache.invalidate(idKey(email));
+        }
+    }
+
+    private static Student map(ResultSet rs) throws SQLException {
+        return new Student(
+            rs.getInt("student_id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("email"),
+            Jdbc.getLocalDate(rs, "dob"));
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.*;
+
+// fixed-width text tables for the console listings
+// column widths are set once, every row is built in one reused StringBuilder and written to a large
+// BufferedWriter, so a row costs a few appends instead of a printf format parse and a flush.
+// output matches the old printf("%-Ns ...") layout: left aligned, padded, never truncated.
+// null cells print as N/A. Call flush() before anything else writes to System.out.
+final class TableRenderer {
+    static final String RULE = "--------------------------------------------------------------------------------";
+    static final String NULL_TEXT = "N/A";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static PrintWriter console;
+
+    private final PrintWriter out;
+    private String[] headers = new String[0];
+    private int[] widths = new int[0];
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private int column = 0;
+    private long rows = 0;
+
+    TableRenderer(PrintWriter out) {
+        this.out = out;
+    }
+
+    // renderer on the shared buffered writer over System.out
+    static TableRenderer console() {
+        return new TableRenderer(consoleWriter());
+    }
+
+    static synchronized PrintWriter consoleWriter() {
+        if (console == null) {
+            console = writer(System.out);
+        }
+        return console;
+    }
+
+    // buffered writer for any stream, in the same encoding as the console
+    static PrintWriter writer(OutputStream stream) {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, System.out.charset()), BUFFER_SIZE), false);
+    }
+
+    TableRenderer column(String header, int width) {
+        int n = headers.length;
+        headers = java.util.Arrays.copyOf(headers, n + 1);
+        widths = java.util.Arrays.copyOf(widths, n + 1);
+        headers[n] = header;
+        widths[n] = width;
+        return this;
+    }
+
+    // a line of plain text, e.g. a title or "No students found."
+    void line(String text) {
+        out.write(text);
+        out.write(System.lineSeparator());
+    }
+
+    // "Label: value" line for the detail views
+    void field(String label, Object value) {
+        line.setLength(0);
+        line.append(label).append(": ").append(value != null ? value.toString() : NULL_TEXT);
+        writeLine();
+    }
+
+    // column headers followed by the rule line
+    void header() {
+        for (String header : headers) {
+            cell(header);
+        }
+        writeLine();
+        line(RULE);
+    }
+
+    TableRenderer cell(String value) {
+        int start = startCell();
+        line.append(value != null ? value : NULL_TEXT);
+        return pad(start);
+    }
+
+    TableRenderer cell(int value) {
+        int start = startCell();
+        line.append(value);
+        return pad(start);
+    }
+
+    TableRenderer cell(Object value) {
+        return cell(value != null ? value.toString() : null);
+    }
+
+    void endRow() {
+        writeLine();
+        rows++;
+    }
+
+    // data rows written so far (not counting the header)
+    long rows() {
+        return rows;
+    }
+
+    void flush() {
+        out.flush();
+    }
+
+    // copies the row into a reused char[] rather than making a String of it
+    private void writeLine() {
+        int length = line.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        out.write(System.lineSeparator());
+        line.setLength(0);
+        column = 0;
+    }
+
+    private int startCell() {
+        if (column > 0) {
+            line.append(' ');
+        }
+        return line.length();
+    }
+
+    private TableRenderer pad(int start) {
+        int width = column < widths.length ? widths[column] : 0;
+        for (int i = line.length() - start; i < width; i++) {
+            line.append(' ');
+        }
+        column++;
+        return this;
+    }
+}
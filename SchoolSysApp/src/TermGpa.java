@@ -0,0 +1,34 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+// one student's credit and quality point totals for a semester (a row of StudentTermGpa)
+public record TermGpa(String semester, int enrolledCredits, int gradedCredits, int earnedCredits,
+                      BigDecimal qualityPoints) {
+    // quality points per graded credit, or null while nothing in the term has a grade
+    public BigDecimal gpa() {
+        return gpa(qualityPoints, gradedCredits);
+    }
+
+    static BigDecimal gpa(BigDecimal qualityPoints, int gradedCredits) {
+        if (gradedCredits == 0) {
+            return null;
+        }
+        return qualityPoints.divide(BigDecimal.valueOf(gradedCredits), 2, RoundingMode.HALF_UP);
+    }
+
+    // the terms added up, labelled "Cumulative"
+    static TermGpa cumulative(List<TermGpa> terms) {
+        int enrolled = 0;
+        int graded = 0;
+        int earned = 0;
+        BigDecimal points = BigDecimal.ZERO;
+        for (TermGpa term : terms) {
+            enrolled += term.enrolledCredits();
+            graded += term.gradedCredits();
+            earned += term.earnedCredits();
+            points = points.add(term.qualityPoints());
+        }
+        return new TermGpa("Cumulative", enrolled, graded, earned, points);
+    }
+}
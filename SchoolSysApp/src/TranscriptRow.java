@@ -0,0 +1,7 @@
+// one course on a student's transcript
+public record TranscriptRow(String email, String semester, String courseCode, String courseName, int credits, String grade,
+                            String instructorFirstName, String instructorLastName) {
+    public String instructorName() {
+        return instructorFirstName + " " + instructorLastName;
+    }
+}
@@ -0,0 +1,100 @@
+import java.sql.*;
+
+// maintenance for the materialized transcript table (java Main transcripts check|rebuild)
+// TranscriptEntry is kept up to date by triggers; check compares it with student_transcript_view,
+// which is still defined from the base tables, and rebuild refills it from that view
+public class TranscriptStore {
+    private static final String COLUMNS =
+        "student_id, semester, course_code, course_id, email, course_name, credits, grade, " +
+        "instructor_id, instructor_first_name, instructor_last_name";
+    private static final String SOURCE =
+        "SELECT e.student_id, e.semester, c.course_code, c.course_id, s.email, c.course_name, c.credits, e.grade, " +
+        "i.instructor_id, i.first_name, i.last_name " +
+        "FROM Enrollment e " +
+        "JOIN Student s ON s.student_id = e.student_id " +
+        "JOIN Course c ON c.course_id = e.course_id " +
+        "JOIN Instructor i ON i.instructor_id = c.instructor_id";
+
+    private final ConnectionPool pool;
+
+    public TranscriptStore(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // replaces the whole table in one transaction; enrollment changes made meanwhile wait for it
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int removed;
+                int inserted;
+                try (Statement stmt = conn.createStatement()) {
+                    removed = stmt.executeUpdate("DELETE FROM TranscriptEntry");
+                    inserted = stmt.executeUpdate("INSERT INTO TranscriptEntry (" + COLUMNS + ") " + SOURCE);
+                }
+                conn.commit();
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                System.out.printf("Transcript rebuilt: %d rows removed, %d rows written in %.2f s%n",
+                    removed, inserted, seconds);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // returns true if every enrollment has exactly one matching, up-to-date transcript row
+    public boolean check(int sampleLimit) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            long missing = report(conn, "Missing from TranscriptEntry",
+                "SELECT e.student_id, e.course_id, e.semester FROM Enrollment e " +
+                "LEFT JOIN TranscriptEntry t ON t.student_id = e.student_id AND t.course_id = e.course_id " +
+                "AND t.semester = e.semester WHERE t.student_id IS NULL", sampleLimit);
+            long extra = report(conn, "Not in Enrollment",
+                "SELECT t.student_id, t.course_id, t.semester FROM TranscriptEntry t " +
+                "LEFT JOIN Enrollment e ON e.student_id = t.student_id AND e.course_id = t.course_id " +
+                "AND e.semester = t.semester WHERE e.student_id IS NULL", sampleLimit);
+            long stale = report(conn, "Out of date",
+                "SELECT src.student_id, src.course_id, src.semester FROM (" + SOURCE + ") src " +
+                "JOIN TranscriptEntry t ON t.student_id = src.student_id AND t.course_id = src.course_id " +
+                "AND t.semester = src.semester " +
+                "WHERE NOT (t.course_code <=> src.course_code AND t.email <=> src.email " +
+                "AND t.course_name <=> src.course_name AND t.credits <=> src.credits AND t.grade <=> src.grade " +
+                "AND t.instructor_id <=> src.instructor_id AND t.instructor_first_name <=> src.first_name " +
+                "AND t.instructor_last_name <=> src.last_name)", sampleLimit);
+
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            boolean consistent = missing == 0 && extra == 0 && stale == 0;
+            System.out.printf("%nTranscript check: %d missing, %d extra, %d out of date (%.2f s)%n",
+                missing, extra, stale, seconds);
+            System.out.println(consistent ? "CONSISTENT" : "INCONSISTENT - run: java Main transcripts rebuild");
+            return consistent;
+        }
+    }
+
+    // counts the rows of one check and prints the first few enrollment keys
+    private static long report(Connection conn, String label, String sql, int sampleLimit) throws SQLException {
+        long count = 0;
+        try (PreparedStatement pstmt = Jdbc.streaming(conn, sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                if (count < sampleLimit) {
+                    if (count == 0) {
+                        System.out.println(label + ":");
+                    }
+                    System.out.printf("  student_id=%d course_id=%d semester=%s%n",
+                        rs.getInt(1), rs.getInt(2), rs.getString(3));
+                }
+                count++;
+            }
+        }
+        if (count > sampleLimit) {
+            System.out.println("  ... and " + (count - sampleLimit) + " more");
+        }
+        return count;
+    }
+}